@@ -0,0 +1,34 @@
+package app.capgo.capacitorwifi;
+
+import android.os.Build;
+import android.os.Trace;
+
+/** {@link PluginTracer} writing to {@code android.os.Trace}. Async slices need Android 10, below it they are dropped. */
+class AndroidTracer implements PluginTracer {
+
+    private static final boolean ASYNC_SUPPORTED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q;
+
+    @Override
+    public void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+
+    @Override
+    public void beginAsyncSection(String name, int cookie) {
+        if (ASYNC_SUPPORTED) {
+            Trace.beginAsyncSection(name, cookie);
+        }
+    }
+
+    @Override
+    public void endAsyncSection(String name, int cookie) {
+        if (ASYNC_SUPPORTED) {
+            Trace.endAsyncSection(name, cookie);
+        }
+    }
+}
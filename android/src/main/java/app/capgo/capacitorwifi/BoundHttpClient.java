@@ -0,0 +1,407 @@
+package app.capgo.capacitorwifi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP requests and raw TCP exchanges over one network, without touching the process default
+ * route.
+ *
+ * Connections go through a {@link Route}, backed by {@code Network.openConnection} and
+ * {@code Network.getSocketFactory} on Android. HTTP connections are pooled per network by the
+ * platform as long as the response is read to the end and the stream closed; idle TCP sockets
+ * are kept here, per route and remote address, until they are reused, expire or the route is
+ * closed.
+ */
+class BoundHttpClient {
+
+    static final int DEFAULT_TIMEOUT_MS = 10000;
+    static final int DEFAULT_IDLE_TIMEOUT_MS = 200;
+    static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+    static final int MAX_IDLE_SOCKETS_PER_ADDRESS = 4;
+    static final long IDLE_SOCKET_TTL_MS = 30000;
+
+    /** Opens connections through one network. */
+    interface Route {
+        /** Identifies the network, used to pool sockets and close them with {@link #closeRoute}. */
+        Object key();
+
+        HttpURLConnection open(URL url) throws IOException;
+
+        Socket connect(String host, int port, int timeoutMs) throws IOException;
+    }
+
+    static final class HttpResponse {
+
+        final int status;
+        final Map<String, String> headers;
+        final byte[] body;
+        final boolean truncated;
+
+        HttpResponse(int status, Map<String, String> headers, byte[] body, boolean truncated) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.truncated = truncated;
+        }
+    }
+
+    static final class TcpResponse {
+
+        final byte[] data;
+        final boolean reusedSocket;
+        final boolean closedByPeer;
+
+        TcpResponse(byte[] data, boolean reusedSocket, boolean closedByPeer) {
+            this.data = data;
+            this.reusedSocket = reusedSocket;
+            this.closedByPeer = closedByPeer;
+        }
+    }
+
+    private static final class PoolKey {
+
+        final Object route;
+        final String host;
+        final int port;
+
+        PoolKey(Object route, String host, int port) {
+            this.route = route;
+            this.host = host;
+            this.port = port;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof PoolKey)) {
+                return false;
+            }
+            PoolKey key = (PoolKey) other;
+            return route.equals(key.route) && host.equals(key.host) && port == key.port;
+        }
+
+        @Override
+        public int hashCode() {
+            return (route.hashCode() * 31 + host.hashCode()) * 31 + port;
+        }
+    }
+
+    private static final class IdleSocket {
+
+        final Socket socket;
+        final long idleSince;
+
+        IdleSocket(Socket socket, long idleSince) {
+            this.socket = socket;
+            this.idleSince = idleSince;
+        }
+    }
+
+    private final ScanScheduler.Clock clock;
+    // Guarded by the BoundHttpClient monitor
+    private final Map<PoolKey, ArrayDeque<IdleSocket>> idleSockets = new HashMap<>();
+
+    BoundHttpClient(ScanScheduler.Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Runs an HTTP request through {@code route}. Error statuses are returned as responses, only
+     * I/O failures throw. The body is cut at {@code maxBytes}.
+     */
+    HttpResponse http(Route route, String method, String url, Map<String, String> headers, byte[] body, int timeoutMs, int maxBytes)
+        throws IOException {
+        HttpURLConnection connection = route.open(new URL(url));
+        try {
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(timeoutMs);
+            connection.setReadTimeout(timeoutMs);
+            connection.setInstanceFollowRedirects(true);
+            if (headers != null) {
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    connection.setRequestProperty(header.getKey(), header.getValue());
+                }
+            }
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body);
+                }
+            }
+
+            int status = connection.getResponseCode();
+            Map<String, String> responseHeaders = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+                if (header.getKey() != null && !header.getValue().isEmpty()) {
+                    responseHeaders.put(header.getKey(), String.join(", ", header.getValue()));
+                }
+            }
+
+            InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (in == null) {
+                return new HttpResponse(status, responseHeaders, new byte[0], false);
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            boolean truncated;
+            try {
+                truncated = readAtMost(in, buffer, maxBytes);
+            } finally {
+                in.close();
+            }
+            if (truncated) {
+                // The rest of the body is still on the wire, the connection can't go back to the pool.
+                connection.disconnect();
+            }
+            return new HttpResponse(status, responseHeaders, buffer.toByteArray(), truncated);
+        } catch (IOException | RuntimeException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes {@code payload} to {@code host:port} through {@code route} and reads the reply. The
+     * reply ends when the peer closes the connection, {@code maxBytes} are read, or nothing arrives
+     * for {@code idleTimeoutMs} after the first bytes. With {@code keepAlive} the socket is kept
+     * for the next exchange with the same address unless the peer closed it or more bytes are
+     * pending.
+     *
+     * The payload is sent at most once to the peer: a pooled socket is only retried on a new
+     * connection when writing to it fails, never once the write went through.
+     */
+    TcpResponse exchange(
+        Route route,
+        String host,
+        int port,
+        byte[] payload,
+        int timeoutMs,
+        int idleTimeoutMs,
+        int maxBytes,
+        boolean keepAlive
+    ) throws IOException {
+        PoolKey key = new PoolKey(route.key(), host, port);
+        Socket idle = takeIdle(key);
+        // Checked outside the pool lock, a socket the peer closed or still writes to is dropped
+        while (idle != null && !isIdle(idle)) {
+            closeQuietly(idle);
+            idle = takeIdle(key);
+        }
+        if (idle != null) {
+            TcpResponse response = exchangeOn(key, idle, true, payload, timeoutMs, idleTimeoutMs, maxBytes, keepAlive);
+            if (response != null) {
+                return response;
+            }
+            // The pooled socket passed the liveness check but the peer had reset it meanwhile, so
+            // the write failed and the payload goes once more over a new connection.
+        }
+        Socket socket = route.connect(host, port, timeoutMs);
+        return exchangeOn(key, socket, false, payload, timeoutMs, idleTimeoutMs, maxBytes, keepAlive);
+    }
+
+    /**
+     * Runs one exchange over {@code socket}, then pools or closes it. Returns null when writing to
+     * a reused socket fails. Once the write went through the peer may have acted on the payload,
+     * so any later failure is thrown rather than retried.
+     */
+    private TcpResponse exchangeOn(
+        PoolKey key,
+        Socket socket,
+        boolean reused,
+        byte[] payload,
+        int timeoutMs,
+        int idleTimeoutMs,
+        int maxBytes,
+        boolean keepAlive
+    ) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        boolean reusable = false;
+        try {
+            if (payload != null && payload.length > 0) {
+                try {
+                    OutputStream out = socket.getOutputStream();
+                    out.write(payload);
+                    out.flush();
+                } catch (IOException e) {
+                    if (reused) {
+                        return null;
+                    }
+                    throw e;
+                }
+            }
+
+            InputStream in = socket.getInputStream();
+            byte[] chunk = new byte[8192];
+            boolean closedByPeer = false;
+            socket.setSoTimeout(timeoutMs);
+            while (buffer.size() < maxBytes) {
+                int read;
+                try {
+                    read = in.read(chunk, 0, Math.min(chunk.length, maxBytes - buffer.size()));
+                } catch (SocketTimeoutException e) {
+                    if (buffer.size() == 0) {
+                        throw e;
+                    }
+                    break;
+                }
+                if (read < 0) {
+                    closedByPeer = true;
+                    break;
+                }
+                buffer.write(chunk, 0, read);
+                socket.setSoTimeout(idleTimeoutMs);
+            }
+
+            // The reply has no framing, it ended on the idle timeout. A reply cut at maxBytes or still
+            // trickling in has bytes pending, which the next exchange would take as its own reply.
+            reusable = keepAlive && !closedByPeer && buffer.size() < maxBytes && isIdle(socket);
+            return new TcpResponse(buffer.toByteArray(), reused, closedByPeer);
+        } finally {
+            if (reusable) {
+                putIdle(key, socket);
+            } else {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    /** Closes the idle sockets of {@code routeKey}, e.g. when its network is released or lost. */
+    void closeRoute(Object routeKey) {
+        List<IdleSocket> closing = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<PoolKey, ArrayDeque<IdleSocket>>> entries = idleSockets.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<PoolKey, ArrayDeque<IdleSocket>> entry = entries.next();
+                if (entry.getKey().route.equals(routeKey)) {
+                    closing.addAll(entry.getValue());
+                    entries.remove();
+                }
+            }
+        }
+        for (IdleSocket idle : closing) {
+            closeQuietly(idle.socket);
+        }
+    }
+
+    void closeAll() {
+        List<IdleSocket> closing = new ArrayList<>();
+        synchronized (this) {
+            for (ArrayDeque<IdleSocket> sockets : idleSockets.values()) {
+                closing.addAll(sockets);
+            }
+            idleSockets.clear();
+        }
+        for (IdleSocket idle : closing) {
+            closeQuietly(idle.socket);
+        }
+    }
+
+    synchronized int getIdleSocketCount() {
+        int count = 0;
+        for (ArrayDeque<IdleSocket> sockets : idleSockets.values()) {
+            count += sockets.size();
+        }
+        return count;
+    }
+
+    private Socket takeIdle(PoolKey key) {
+        List<Socket> expired = new ArrayList<>();
+        Socket found = null;
+        synchronized (this) {
+            ArrayDeque<IdleSocket> sockets = idleSockets.get(key);
+            long now = clock.elapsedRealtime();
+            // Most recently used first, older ones are the likeliest to have been dropped by the peer.
+            while (sockets != null && !sockets.isEmpty()) {
+                IdleSocket idle = sockets.pollLast();
+                if (now - idle.idleSince <= IDLE_SOCKET_TTL_MS && !idle.socket.isClosed()) {
+                    found = idle.socket;
+                    break;
+                }
+                expired.add(idle.socket);
+            }
+            if (sockets != null && sockets.isEmpty()) {
+                idleSockets.remove(key);
+            }
+        }
+        for (Socket socket : expired) {
+            closeQuietly(socket);
+        }
+        return found;
+    }
+
+    private void putIdle(PoolKey key, Socket socket) {
+        Socket evicted = null;
+        synchronized (this) {
+            ArrayDeque<IdleSocket> sockets = idleSockets.get(key);
+            if (sockets == null) {
+                sockets = new ArrayDeque<>();
+                idleSockets.put(key, sockets);
+            }
+            sockets.addLast(new IdleSocket(socket, clock.elapsedRealtime()));
+            if (sockets.size() > MAX_IDLE_SOCKETS_PER_ADDRESS) {
+                evicted = sockets.pollFirst().socket;
+            }
+        }
+        if (evicted != null) {
+            closeQuietly(evicted);
+        }
+    }
+
+    /** Reads {@code in} into {@code out} up to {@code maxBytes}. Returns whether bytes were left unread. */
+    private static boolean readAtMost(InputStream in, ByteArrayOutputStream out, int maxBytes) throws IOException {
+        byte[] chunk = new byte[8192];
+        while (true) {
+            int read = in.read(chunk, 0, Math.min(chunk.length, maxBytes - out.size() + 1));
+            if (read < 0) {
+                return false;
+            }
+            if (out.size() + read > maxBytes) {
+                out.write(chunk, 0, maxBytes - out.size());
+                return true;
+            }
+            out.write(chunk, 0, read);
+        }
+    }
+
+    /**
+     * Whether {@code socket} is open with nothing to read: the peer neither closed nor reset it,
+     * and no late reply bytes are waiting. A byte read here is lost, the socket is dropped then.
+     */
+    private static boolean isIdle(Socket socket) {
+        if (socket.isInputShutdown()) {
+            return false;
+        }
+        try {
+            // A zero SO_TIMEOUT blocks forever, 1 ms is the shortest poll
+            socket.setSoTimeout(1);
+            // Returns only on EOF or a stray byte
+            socket.getInputStream().read();
+            return false;
+        } catch (SocketTimeoutException e) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing left to do with a socket that fails to close
+        }
+    }
+}
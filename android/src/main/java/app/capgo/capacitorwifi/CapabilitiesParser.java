@@ -0,0 +1,343 @@
+package app.capgo.capacitorwifi;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodes the {@code ScanResult.capabilities} string (e.g. {@code [WPA2-PSK-CCMP][RSN-PSK+SAE-CCMP][ESS]})
+ * into a bit mask of every advertised protocol, key management and cipher.
+ *
+ * The string is walked once, matching known tokens in place without splitting it. Results are
+ * memoized per distinct string since the same few strings repeat across access points.
+ */
+final class CapabilitiesParser {
+
+    // Protocols
+    static final long WPA = 1L;
+    static final long RSN = 1L << 1;
+    static final long WAPI = 1L << 2;
+    static final long WEP = 1L << 3;
+
+    // Key management
+    static final long PSK = 1L << 4;
+    static final long PSK_SHA256 = 1L << 5;
+    static final long FT_PSK = 1L << 6;
+    static final long SAE = 1L << 7;
+    static final long FT_SAE = 1L << 8;
+    static final long OWE = 1L << 9;
+    static final long OWE_TRANSITION = 1L << 10;
+    static final long EAP = 1L << 11;
+    static final long EAP_SHA256 = 1L << 12;
+    static final long FT_EAP = 1L << 13;
+    static final long EAP_SUITE_B_192 = 1L << 14;
+    static final long FILS = 1L << 15;
+    static final long DPP = 1L << 16;
+    static final long OSEN = 1L << 17;
+    static final long WAPI_PSK = 1L << 18;
+    static final long WAPI_CERT = 1L << 19;
+
+    // Ciphers
+    static final long TKIP = 1L << 20;
+    static final long CCMP = 1L << 21;
+    static final long CCMP_256 = 1L << 22;
+    static final long GCMP_128 = 1L << 23;
+    static final long GCMP_256 = 1L << 24;
+    static final long SMS4 = 1L << 25;
+
+    // Other flags
+    static final long MFP_REQUIRED = 1L << 26;
+    static final long MFP_CAPABLE = 1L << 27;
+    static final long ESS = 1L << 28;
+    static final long IBSS = 1L << 29;
+    static final long MESH = 1L << 30;
+    static final long WPS = 1L << 31;
+
+    static final long PSK_ANY = PSK | PSK_SHA256 | FT_PSK;
+    static final long SAE_ANY = SAE | FT_SAE;
+    static final long EAP_ANY = EAP | EAP_SHA256 | FT_EAP | EAP_SUITE_B_192 | FILS;
+    static final long AKM_ANY = PSK_ANY | SAE_ANY | OWE | EAP_ANY | DPP | OSEN | WAPI_PSK | WAPI_CERT;
+
+    // NetworkSecurityType values exposed to JS
+    static final int SECURITY_OPEN = 0;
+    static final int SECURITY_WEP = 1;
+    static final int SECURITY_PSK = 2;
+    static final int SECURITY_EAP = 3;
+    static final int SECURITY_SAE = 4;
+    static final int SECURITY_WPA3_ENTERPRISE = 5;
+    static final int SECURITY_WPA3_ENTERPRISE_192_BIT = 6;
+    static final int SECURITY_OWE = 8;
+    static final int SECURITY_WAPI_PSK = 9;
+    static final int SECURITY_WAPI_CERT = 10;
+
+    private static final int MAX_CACHED = 256;
+
+    // Longer tokens first, so "PSK-SHA256" wins over "PSK" and "OWE_TRANSITION" over "OWE".
+    private static final String[] TOKENS = {
+        "EAP-SUITE-B-192",
+        "EAP_SUITE_B_192",
+        "OWE_TRANSITION",
+        "FILS-SHA256",
+        "FILS-SHA384",
+        "PSK-SHA256",
+        "EAP-SHA256",
+        "EAP/SHA256",
+        "GCMP-256",
+        "GCMP-128",
+        "CCMP-256",
+        "FT/PSK",
+        "FT/SAE",
+        "FT/EAP",
+        "WPA2",
+        "WAPI",
+        "IBSS",
+        "MESH",
+        "MFPR",
+        "MFPC",
+        "CCMP",
+        "TKIP",
+        "SMS4",
+        "CERT",
+        "OSEN",
+        "GCMP",
+        "RSN",
+        "WPA",
+        "WEP",
+        "PSK",
+        "SAE",
+        "OWE",
+        "EAP",
+        "DPP",
+        "ESS",
+        "WPS"
+    };
+
+    private static final long[] TOKEN_BITS = {
+        EAP_SUITE_B_192,
+        EAP_SUITE_B_192,
+        OWE_TRANSITION,
+        FILS,
+        FILS,
+        PSK_SHA256,
+        EAP_SHA256,
+        EAP_SHA256,
+        GCMP_256,
+        GCMP_128,
+        CCMP_256,
+        FT_PSK,
+        FT_SAE,
+        FT_EAP,
+        RSN,
+        WAPI,
+        IBSS,
+        MESH,
+        MFP_REQUIRED,
+        MFP_CAPABLE,
+        CCMP,
+        TKIP,
+        SMS4,
+        WAPI_CERT,
+        OSEN,
+        GCMP_128,
+        RSN,
+        WPA,
+        WEP,
+        PSK,
+        SAE,
+        OWE,
+        EAP,
+        DPP,
+        ESS,
+        WPS
+    };
+
+    private static final ConcurrentHashMap<String, Long> cache = new ConcurrentHashMap<>();
+
+    private CapabilitiesParser() {}
+
+    /** Returns the bit mask for {@code capabilities}, memoized per distinct string. */
+    static long parse(String capabilities) {
+        if (capabilities == null || capabilities.isEmpty()) {
+            return 0;
+        }
+
+        Long cached = cache.get(capabilities);
+        if (cached != null) {
+            return cached;
+        }
+
+        long mask = parseUncached(capabilities);
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        cache.put(capabilities, mask);
+        return mask;
+    }
+
+    static long parseUncached(String capabilities) {
+        long mask = 0;
+        boolean wapiGroup = false;
+        int length = capabilities.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = capabilities.charAt(i);
+            if (c == '[') {
+                wapiGroup = false;
+                i++;
+                continue;
+            }
+            if (c == ']' || c == '-' || c == '+' || c == '/') {
+                i++;
+                continue;
+            }
+
+            int token = matchToken(capabilities, i);
+            if (token < 0) {
+                // Unknown token: skip to the next separator.
+                while (i < length && !isSeparator(capabilities.charAt(i))) {
+                    i++;
+                }
+                continue;
+            }
+
+            long bit = TOKEN_BITS[token];
+            if (bit == WAPI) {
+                wapiGroup = true;
+            } else if (wapiGroup && bit == PSK) {
+                bit = WAPI_PSK;
+            }
+            mask |= bit;
+            i += TOKENS[token].length();
+        }
+
+        return mask;
+    }
+
+    /** Returns every {@code NetworkSecurityType} the access point accepts, in ascending order. */
+    static int[] securityTypes(long mask) {
+        int[] types = new int[10];
+        int count = 0;
+
+        if ((mask & (AKM_ANY | WEP)) == 0) {
+            types[count++] = SECURITY_OPEN;
+        }
+        if ((mask & WEP) != 0) {
+            types[count++] = SECURITY_WEP;
+        }
+        if ((mask & PSK_ANY) != 0) {
+            types[count++] = SECURITY_PSK;
+        }
+        if ((mask & (EAP | EAP_SHA256 | FT_EAP | FILS)) != 0 && !isWpa3Enterprise(mask)) {
+            types[count++] = SECURITY_EAP;
+        }
+        if ((mask & SAE_ANY) != 0) {
+            types[count++] = SECURITY_SAE;
+        }
+        if (isWpa3Enterprise(mask)) {
+            types[count++] = SECURITY_WPA3_ENTERPRISE;
+        }
+        if ((mask & EAP_SUITE_B_192) != 0) {
+            types[count++] = SECURITY_WPA3_ENTERPRISE_192_BIT;
+        }
+        if ((mask & (OWE | OWE_TRANSITION)) != 0) {
+            types[count++] = SECURITY_OWE;
+        }
+        if ((mask & WAPI_PSK) != 0) {
+            types[count++] = SECURITY_WAPI_PSK;
+        }
+        if ((mask & WAPI_CERT) != 0) {
+            types[count++] = SECURITY_WAPI_CERT;
+        }
+
+        int[] result = new int[count];
+        System.arraycopy(types, 0, result, 0, count);
+        return result;
+    }
+
+    /** Returns the strongest {@code NetworkSecurityType} the access point accepts. */
+    static int primarySecurityType(long mask) {
+        if ((mask & EAP_SUITE_B_192) != 0) {
+            return SECURITY_WPA3_ENTERPRISE_192_BIT;
+        }
+        if (isWpa3Enterprise(mask)) {
+            return SECURITY_WPA3_ENTERPRISE;
+        }
+        if ((mask & (EAP | EAP_SHA256 | FT_EAP | FILS)) != 0) {
+            return SECURITY_EAP;
+        }
+        if ((mask & SAE_ANY) != 0) {
+            return SECURITY_SAE;
+        }
+        if ((mask & WAPI_CERT) != 0) {
+            return SECURITY_WAPI_CERT;
+        }
+        if ((mask & WAPI_PSK) != 0) {
+            return SECURITY_WAPI_PSK;
+        }
+        if ((mask & PSK_ANY) != 0) {
+            return SECURITY_PSK;
+        }
+        if ((mask & OWE) != 0) {
+            return SECURITY_OWE;
+        }
+        if ((mask & WEP) != 0) {
+            return SECURITY_WEP;
+        }
+        return SECURITY_OPEN;
+    }
+
+    /**
+     * Security type to join an access point advertising {@code mask} with. Unlike
+     * {@link #primarySecurityType}, a WPA2/WPA3 transition mode access point is joined with WPA2
+     * unless the device supports SAE, and the open side of an OWE transition pair is joined open.
+     * Enterprise, WEP and WAPI access points get their primary type, which the caller can't join.
+     */
+    static int connectSecurityType(long mask, boolean saeSupported) {
+        boolean psk = (mask & PSK_ANY) != 0;
+        boolean sae = (mask & SAE_ANY) != 0;
+        if (sae && (saeSupported || !psk)) {
+            return SECURITY_SAE;
+        }
+        if (psk) {
+            return SECURITY_PSK;
+        }
+        if ((mask & OWE) != 0) {
+            return SECURITY_OWE;
+        }
+        if ((mask & (AKM_ANY | WEP)) == 0) {
+            return SECURITY_OPEN;
+        }
+        return primarySecurityType(mask);
+    }
+
+    static boolean supportsSecurityType(long mask, int securityType) {
+        for (int type : securityTypes(mask)) {
+            if (type == securityType) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** WPA3-Enterprise only mode: EAP with SHA-256 key derivation and management frame protection required. */
+    private static boolean isWpa3Enterprise(long mask) {
+        return (mask & EAP_SHA256) != 0 && (mask & MFP_REQUIRED) != 0 && (mask & EAP) == 0;
+    }
+
+    private static int matchToken(String capabilities, int offset) {
+        for (int t = 0; t < TOKENS.length; t++) {
+            String token = TOKENS[t];
+            int end = offset + token.length();
+            if (
+                capabilities.regionMatches(offset, token, 0, token.length()) &&
+                (end == capabilities.length() || isSeparator(capabilities.charAt(end)))
+            ) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '[' || c == ']' || c == '-' || c == '+' || c == '/';
+    }
+}
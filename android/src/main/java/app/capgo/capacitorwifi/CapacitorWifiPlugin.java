@@ -8,6 +8,7 @@ import android.content.IntentFilter;
 import android.net.ConnectivityManager;
 import android.net.LinkAddress;
 import android.net.LinkProperties;
+import android.net.MacAddress;
 import android.net.Network;
 import android.net.NetworkCapabilities;
 import android.net.NetworkRequest;
@@ -17,8 +18,13 @@ import android.net.wifi.WifiConfiguration;
 import android.net.wifi.WifiInfo;
 import android.net.wifi.WifiManager;
 import android.net.wifi.WifiNetworkSpecifier;
+import android.net.wifi.WifiNetworkSuggestion;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.provider.Settings;
+import android.util.Base64;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
@@ -31,12 +37,31 @@ import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
 import com.getcapacitor.annotation.Permission;
 import com.getcapacitor.annotation.PermissionCallback;
+import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.json.JSONException;
 
 @CapacitorPlugin(
     name = "CapacitorWifi",
@@ -58,24 +83,170 @@ public class CapacitorWifiPlugin extends Plugin {
     private WifiManager wifiManager;
     private ConnectivityManager connectivityManager;
     private BroadcastReceiver scanResultsReceiver;
-    private ConnectivityManager.NetworkCallback networkCallback;
+    private boolean scanResultsReceiverRegistered = false;
+    private ConnectionLifecycle<NetworkRequest, Network> connections;
+    private ConnectionStateCache connectionState;
+
+    private static final long SCAN_RESULTS_TIMEOUT_MS = 30000;
+    private final ScanCoordinator scanCoordinator = new ScanCoordinator();
+    private final ScanScheduler scanScheduler = new ScanScheduler(SystemClock::elapsedRealtime);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable scanTimeoutRunnable = scanCoordinator::onScanTimeout;
+    // startScan calls waiting for the throttle window with whenThrottled "delay", settled on destroy
+    private final Set<PluginCall> delayedScanCalls = ConcurrentHashMap.newKeySet();
+    private volatile boolean scanEventsIncludeResults = false;
+    private volatile boolean scanEventsAsChanges = false;
+    private volatile int scanEventsRssiThreshold = DEFAULT_RSSI_CHANGE_THRESHOLD;
+    private volatile int scanEventsFields = ScanFields.DEFAULT;
+    private volatile boolean scanEventsColumnar = false;
+
+    private static final int DEFAULT_RSSI_CHANGE_THRESHOLD = 5;
+    private static final int DEFAULT_STREAM_CHUNK_SIZE = 20;
+    private static final int INVALID_RSSI = -127;
+    private static final long DEFAULT_RSSI_MIN_INTERVAL_MS = 1000;
+    private static final int DEFAULT_RSSI_HYSTERESIS_DB = 2;
+    private static final long DEFAULT_RSSI_STATISTICS_WINDOW_MS = 60000;
+    private static final String LOG_TAG = "CapacitorWifi";
+    // Hidden from the SDK, sent whenever a saved network is added, updated or removed
+    private static final String CONFIGURED_NETWORKS_CHANGED_ACTION = "android.net.wifi.CONFIGURED_NETWORKS_CHANGE";
+    private final Runnable rssiFlushRunnable = this::flushPendingRssi;
+    private final RssiHistory rssiHistory = new RssiHistory(SystemClock::elapsedRealtime);
+    // Only touched on the main thread
+    private RssiFilter rssiFilter;
+    private BroadcastReceiver rssiReceiver;
+    private final ConfiguredNetworkIndex configuredNetworks = new ConfiguredNetworkIndex(this::loadConfiguredNetworks);
+    private BroadcastReceiver configuredNetworksReceiver;
+    private PluginExecutor executor;
+    private final MethodMetrics metrics = new MethodMetrics(System::nanoTime);
+    // NONE unless tracing is on, see setTracing()
+    private volatile PluginTracer tracer = PluginTracer.NONE;
+    // Written to logcat at the levels enabled with `adb shell setprop log.tag.CapacitorWifi <LEVEL>`
+    private final Diagnostics diagnostics = new Diagnostics(
+        Diagnostics.DEFAULT_CAPACITY,
+        new Diagnostics.Sink() {
+            @Override
+            public boolean isLoggable(int level) {
+                return Log.isLoggable(LOG_TAG, level);
+            }
+
+            @Override
+            public void write(int level, String line, Throwable error) {
+                Log.println(level, LOG_TAG, error == null ? line : line + '\n' + Log.getStackTraceString(error));
+            }
+        },
+        System::currentTimeMillis
+    );
+    private final BoundHttpClient boundClient = new BoundHttpClient(SystemClock::elapsedRealtime);
+    private final ScanDiffer<ScanResult> scanDiffer = new ScanDiffer<>(r -> r.BSSID, r -> r.level);
+    // The changesOnly event stream keeps its own snapshots, so it never moves getNetworkChanges() pollers
+    private final ScanDiffer<ScanResult> scanEventDiffer = new ScanDiffer<>(r -> r.BSSID, r -> r.level);
+    private final Map<Long, JSArray> securityTypesArrays = new ConcurrentHashMap<>();
 
     @Override
     public void load() {
         wifiManager = (WifiManager) getContext().getApplicationContext().getSystemService(Context.WIFI_SERVICE);
         connectivityManager = (ConnectivityManager) getContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+        connectionState = new ConnectionStateCache(connectivityManager, wifiManager);
+        connectionState.register();
+        connections = new ConnectionLifecycle<>(
+            new ConnectionLifecycle.Platform<NetworkRequest, Network>() {
+                @Override
+                public Object request(NetworkRequest request, int timeoutMs, ConnectionLifecycle.RequestCallback<Network> attempt) {
+                    RequestNetworkCallback callback = new RequestNetworkCallback(attempt);
+                    if (timeoutMs > 0) {
+                        connectivityManager.requestNetwork(request, callback, timeoutMs);
+                    } else {
+                        connectivityManager.requestNetwork(request, callback);
+                    }
+                    return callback;
+                }
+
+                @Override
+                public void release(Object token) {
+                    RequestNetworkCallback callback = (RequestNetworkCallback) token;
+                    try {
+                        connectivityManager.unregisterNetworkCallback(callback);
+                    } catch (IllegalArgumentException e) {
+                        // Already released by the system after onUnavailable
+                    }
+                    Network network = callback.network;
+                    if (network != null) {
+                        boundClient.closeRoute(network);
+                    }
+                }
+
+                @Override
+                public void schedule(Runnable task, long delayMs) {
+                    mainHandler.postDelayed(task, delayMs);
+                }
+
+                @Override
+                public boolean isInRange(String ssid, String bssid) {
+                    try {
+                        for (ScanResult result : scanResults()) {
+                            if (ssid.equals(result.SSID) && (bssid == null || bssid.equalsIgnoreCase(result.BSSID))) {
+                                return true;
+                            }
+                        }
+                    } catch (SecurityException e) {
+                        // Without location permission the scan results can't tell
+                    }
+                    return false;
+                }
+            },
+            SystemClock::elapsedRealtime,
+            Math::random
+        );
+
+        executor = new PluginExecutor(
+            "CapacitorWifi",
+            getConfig().getInt("executorPoolSize", PluginExecutor.DEFAULT_POOL_SIZE),
+            PluginExecutor.DEFAULT_QUEUE_CAPACITY
+        );
+        // Interface enumeration and scan result serialization are slow; keep workers free for cheap getters
+        executor.setMethodLimit("getIpAddress", 1);
+        executor.setMethodLimit("getIpAddresses", 1);
+        executor.setMethodLimit("getAvailableNetworks", 2);
+        executor.setMethodLimit("httpRequest", 2);
+        executor.setMethodLimit("tcpExchange", 2);
+        // One batch at a time, two would race each other for the per-app suggestion quota.
+        executor.setMethodLimit("addNetworks", 1);
+        setTracing(getConfig().getBoolean("tracing", false));
 
         // Set up scan results receiver
         scanResultsReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                notifyListeners("networksScanned", new JSObject());
+                boolean resultsUpdated = intent.getBooleanExtra(WifiManager.EXTRA_RESULTS_UPDATED, true);
+                mainHandler.removeCallbacks(scanTimeoutRunnable);
+                if (resultsUpdated) {
+                    scanScheduler.recordResults();
+                }
+                scanCoordinator.onScanResults(resultsUpdated);
+
+                JSObject event;
+                if (scanEventsAsChanges) {
+                    ScanDiffer.Diff<ScanResult> diff = scanEventDiffer.updateFromLatest(scanResults(), scanEventsRssiThreshold);
+                    event = new JSObject();
+                    event.put("changes", buildChangesObject(diff, scanEventsFields));
+                } else if (scanEventsIncludeResults) {
+                    ScanQuery query = new ScanQuery();
+                    query.fields = scanEventsFields;
+                    query.columnar = scanEventsColumnar;
+                    event = buildNetworksResult(query);
+                } else {
+                    event = new JSObject();
+                }
+                event.put("success", resultsUpdated);
+                event.put("timestamp", System.currentTimeMillis());
+                notifyListeners("networksScanned", event);
             }
         };
     }
 
     @PluginMethod
     public void addNetwork(PluginCall call) {
+        beginCall(call);
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
             // Android 10+ - use system dialog
             addNetworkModern(call);
@@ -89,7 +260,7 @@ public class CapacitorWifiPlugin extends Plugin {
     private void addNetworkModern(PluginCall call) {
         String ssid = call.getString("ssid");
         if (ssid == null) {
-            call.reject("SSID is required");
+            reject(call, "SSID is required");
             return;
         }
 
@@ -97,16 +268,22 @@ public class CapacitorWifiPlugin extends Plugin {
         Intent intent = new Intent(Settings.ACTION_WIFI_ADD_NETWORKS);
         intent.putExtra(Settings.EXTRA_WIFI_NETWORK_LIST, new String[] { ssid });
         getActivity().startActivity(intent);
-        call.resolve();
+        resolve(call);
     }
 
     private void addNetworkLegacy(PluginCall call) {
         String ssid = call.getString("ssid");
         String password = call.getString("password");
         Boolean isHidden = call.getBoolean("isHiddenSsid", false);
+        int securityType = call.getInt("securityType", NetworkBatchValidator.defaultSecurityType(password));
 
-        if (ssid == null) {
-            call.reject("SSID is required");
+        // The same checks as an addNetworks entry, the framework only reports -1 for a bad config
+        String error = new NetworkBatchValidator().validate(ssid, password, securityType);
+        if (error == null && (securityType == CapabilitiesParser.SECURITY_SAE || securityType == CapabilitiesParser.SECURITY_OWE)) {
+            error = "WPA3 and enhanced open networks require Android 10";
+        }
+        if (error != null) {
+            reject(call, error);
             return;
         }
 
@@ -115,42 +292,286 @@ public class CapacitorWifiPlugin extends Plugin {
             return;
         }
 
-        WifiConfiguration config = new WifiConfiguration();
-        config.SSID = "\"" + ssid + "\"";
-        config.hiddenSSID = isHidden;
-
-        if (password != null && !password.isEmpty()) {
-            config.preSharedKey = "\"" + password + "\"";
-        } else {
-            config.allowedKeyManagement.set(WifiConfiguration.KeyMgmt.NONE);
-        }
-
-        int netId = wifiManager.addNetwork(config);
+        WifiConfiguration config = legacyConfiguration(ssid, password, isHidden, securityType);
+        int netId = saveConfiguredNetwork(config, securityType, findConfiguredNetwork(config.SSID, securityType));
         if (netId == -1) {
-            call.reject("Failed to add network");
+            reject(call, "Failed to add network");
             return;
         }
 
         boolean enabled = wifiManager.enableNetwork(netId, true);
         if (!enabled) {
-            call.reject("Failed to enable network");
+            reject(call, "Failed to enable network");
             return;
         }
 
-        call.resolve();
+        resolve(call);
     }
 
     @PermissionCallback
     private void addNetworkCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
         if (getPermissionState("location") == PermissionState.GRANTED) {
             addNetworkLegacy(call);
         } else {
-            call.reject("Location permission is required");
+            reject(call, "Location permission is required");
+        }
+    }
+
+    @PluginMethod
+    public void addNetworks(PluginCall call) {
+        beginCall(call);
+        if (call.getArray("networks") == null) {
+            reject(call, "Networks are required");
+            return;
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q && getPermissionState("location") != PermissionState.GRANTED) {
+            requestPermissionForAlias("location", call, "addNetworksCallback");
+            return;
+        }
+        runInBackground("addNetworks", call, this::addNetworksBatch);
+    }
+
+    @PermissionCallback
+    private void addNetworksCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
+        if (getPermissionState("location") == PermissionState.GRANTED) {
+            runInBackground("addNetworks", call, this::addNetworksBatch);
+        } else {
+            reject(call, "Location permission is required");
+        }
+    }
+
+    /**
+     * Validates every entry, then hands the valid ones to the framework in a single
+     * addNetworkSuggestions call on Android 10+. Older versions have no batch API, the entries are
+     * added one by one within this call.
+     */
+    private void addNetworksBatch(PluginCall call) {
+        JSArray networks = call.getArray("networks");
+        NetworkBatchValidator validator = new NetworkBatchValidator();
+        boolean suggest = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q;
+        JSObject[] results = new JSObject[networks.length()];
+        List<Integer> suggested = new ArrayList<>();
+        ArrayList<WifiNetworkSuggestion> suggestions = new ArrayList<>();
+        List<PendingConfiguration> configurations = new ArrayList<>();
+
+        for (int i = 0; i < results.length; i++) {
+            JSObject entry;
+            try {
+                entry = JSObject.fromJSONObject(networks.getJSONObject(i));
+            } catch (JSONException e) {
+                results[i] = networkResult(null, "invalid", "Network must be an object");
+                continue;
+            }
+            String ssid = entry.getString("ssid");
+            String password = entry.getString("password");
+            boolean hidden = entry.getBoolean("isHiddenSsid", false);
+            int securityType = entry.getInteger("securityType", NetworkBatchValidator.defaultSecurityType(password));
+
+            String error = validator.validate(ssid, password, securityType);
+            boolean needsSuggestion = securityType == CapabilitiesParser.SECURITY_SAE || securityType == CapabilitiesParser.SECURITY_OWE;
+            if (error == null && suggest && securityType == CapabilitiesParser.SECURITY_WEP) {
+                error = "WEP networks can't be suggested on Android 10+";
+            } else if (error == null && !suggest && needsSuggestion) {
+                error = "WPA3 and enhanced open networks require Android 10";
+            }
+            if (error != null) {
+                results[i] = networkResult(ssid, "invalid", error);
+                continue;
+            }
+
+            if (!suggest) {
+                // Every lookup happens before the first add, so the broadcasts of the adds don't
+                // reload the index once per entry.
+                WifiConfiguration config = legacyConfiguration(ssid, password, hidden, securityType);
+                Integer existingId = findConfiguredNetwork(config.SSID, securityType);
+                configurations.add(new PendingConfiguration(i, ssid, securityType, config, existingId));
+                continue;
+            }
+            try {
+                suggestions.add(buildSuggestion(ssid, password, hidden, securityType));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results[i] = networkResult(ssid, "invalid", e.getMessage());
+                continue;
+            }
+            suggested.add(i);
+            results[i] = networkResult(ssid, "added", null);
+        }
+
+        for (PendingConfiguration pending : configurations) {
+            boolean added = saveConfiguredNetwork(pending.config, pending.securityType, pending.existingId) != -1;
+            results[pending.index] = networkResult(pending.ssid, added ? "added" : "failed", added ? null : "Failed to add network");
+        }
+
+        if (!suggestions.isEmpty()) {
+            int status = wifiManager.addNetworkSuggestions(suggestions);
+            if (status != WifiManager.STATUS_NETWORK_SUGGESTIONS_SUCCESS) {
+                // The framework takes or refuses the list as a whole.
+                String message = suggestionStatusMessage(status);
+                for (int i : suggested) {
+                    results[i] = networkResult(results[i].getString("ssid"), "failed", message);
+                }
+            }
+        }
+
+        JSArray list = new JSArray();
+        for (JSObject result : results) {
+            list.put(result);
+        }
+        JSObject ret = new JSObject();
+        ret.put("results", list);
+        resolve(call, ret);
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.Q)
+    private static WifiNetworkSuggestion buildSuggestion(String ssid, String password, boolean hidden, int securityType) {
+        WifiNetworkSuggestion.Builder builder = new WifiNetworkSuggestion.Builder().setSsid(ssid);
+        if (hidden) {
+            builder.setIsHiddenSsid(true);
+        }
+        switch (securityType) {
+            case CapabilitiesParser.SECURITY_PSK:
+                builder.setWpa2Passphrase(password);
+                break;
+            case CapabilitiesParser.SECURITY_SAE:
+                builder.setWpa3Passphrase(password);
+                break;
+            case CapabilitiesParser.SECURITY_OWE:
+                builder.setIsEnhancedOpen(true);
+                break;
+            default:
+                break;
+        }
+        return builder.build();
+    }
+
+    private static WifiConfiguration legacyConfiguration(String ssid, String password, boolean hidden, int securityType) {
+        WifiConfiguration config = new WifiConfiguration();
+        config.SSID = "\"" + ssid + "\"";
+        config.hiddenSSID = hidden;
+        switch (securityType) {
+            case CapabilitiesParser.SECURITY_PSK:
+                config.preSharedKey = "\"" + password + "\"";
+                config.allowedKeyManagement.set(WifiConfiguration.KeyMgmt.WPA_PSK);
+                break;
+            case CapabilitiesParser.SECURITY_WEP:
+                // Hex keys go in as they are, ASCII ones quoted
+                config.wepKeys[0] = NetworkBatchValidator.isHexWepKey(password) ? password : "\"" + password + "\"";
+                config.wepTxKeyIndex = 0;
+                config.allowedKeyManagement.set(WifiConfiguration.KeyMgmt.NONE);
+                config.allowedGroupCiphers.set(WifiConfiguration.GroupCipher.WEP40);
+                break;
+            default:
+                config.allowedKeyManagement.set(WifiConfiguration.KeyMgmt.NONE);
+                break;
+        }
+        return config;
+    }
+
+    private Integer findConfiguredNetwork(String quotedSsid, int securityType) {
+        ensureConfiguredNetworksReceiverRegistered();
+        return configuredNetworks.find(quotedSsid, securityType);
+    }
+
+    /**
+     * Updates the configured network {@code existingId} with {@code config}, or adds it when there
+     * is none. Returns the network id, or -1 when it could not be added.
+     */
+    private int saveConfiguredNetwork(WifiConfiguration config, int securityType, Integer existingId) {
+        if (existingId != null) {
+            config.networkId = existingId;
+            int updated = wifiManager.updateNetwork(config);
+            // Networks saved by other apps can't be updated since Android 6, they are joined as they are.
+            return updated != -1 ? updated : existingId;
+        }
+        int netId = wifiManager.addNetwork(config);
+        if (netId != -1) {
+            configuredNetworks.put(config.SSID, securityType, netId);
+        }
+        return netId;
+    }
+
+    private List<ConfiguredNetworkIndex.Entry> loadConfiguredNetworks() {
+        List<WifiConfiguration> configs;
+        try {
+            configs = wifiManager.getConfiguredNetworks();
+        } catch (SecurityException e) {
+            return null;
+        }
+        if (configs == null) {
+            return null;
+        }
+        List<ConfiguredNetworkIndex.Entry> entries = new ArrayList<>(configs.size());
+        for (WifiConfiguration config : configs) {
+            entries.add(new ConfiguredNetworkIndex.Entry(config.SSID, securityTypeOf(config), config.networkId));
+        }
+        return entries;
+    }
+
+    private static int securityTypeOf(WifiConfiguration config) {
+        if (config.allowedKeyManagement.get(WifiConfiguration.KeyMgmt.WPA_PSK)) {
+            return CapabilitiesParser.SECURITY_PSK;
+        }
+        if (
+            config.allowedKeyManagement.get(WifiConfiguration.KeyMgmt.WPA_EAP) ||
+            config.allowedKeyManagement.get(WifiConfiguration.KeyMgmt.IEEE8021X)
+        ) {
+            return CapabilitiesParser.SECURITY_EAP;
+        }
+        if (config.wepKeys != null && config.wepKeys[0] != null) {
+            return CapabilitiesParser.SECURITY_WEP;
+        }
+        return CapabilitiesParser.SECURITY_OPEN;
+    }
+
+    private void ensureConfiguredNetworksReceiverRegistered() {
+        synchronized (configuredNetworks) {
+            if (configuredNetworksReceiver != null) {
+                return;
+            }
+            configuredNetworksReceiver = new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    configuredNetworks.invalidate();
+                }
+            };
+            getContext().registerReceiver(configuredNetworksReceiver, new IntentFilter(CONFIGURED_NETWORKS_CHANGED_ACTION));
+        }
+    }
+
+    private static JSObject networkResult(String ssid, String status, String error) {
+        JSObject result = new JSObject();
+        if (ssid != null) {
+            result.put("ssid", ssid);
+        }
+        result.put("status", status);
+        if (error != null) {
+            result.put("error", error);
+        }
+        return result;
+    }
+
+    private static String suggestionStatusMessage(int status) {
+        switch (status) {
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_APP_DISALLOWED:
+                return "The user disallowed suggestions from this app";
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_ADD_DUPLICATE:
+                return "A network of the batch is already suggested";
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_ADD_EXCEEDS_MAX_PER_APP:
+                return "The batch exceeds the number of suggestions allowed per app";
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_ADD_NOT_ALLOWED:
+                return "Suggestions are not allowed for this app";
+            case WifiManager.STATUS_NETWORK_SUGGESTIONS_ERROR_ADD_INVALID:
+                return "The framework rejected a network of the batch as invalid";
+            default:
+                return "Failed to add network suggestions (status " + status + ")";
         }
     }
 
     @PluginMethod
     public void connect(PluginCall call) {
+        beginCall(call);
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
             connectModern(call);
         } else {
@@ -162,16 +583,104 @@ public class CapacitorWifiPlugin extends Plugin {
     private void connectModern(PluginCall call) {
         String ssid = call.getString("ssid");
         String password = call.getString("password");
+        String bssid = call.getString("bssid");
 
         if (ssid == null) {
-            call.reject("SSID is required");
+            reject(call, "SSID is required");
             return;
         }
 
+        ConnectionLifecycle.Readiness readiness;
+        switch (call.getString("waitFor", "available")) {
+            case "available":
+                readiness = ConnectionLifecycle.Readiness.AVAILABLE;
+                break;
+            case "ipAssigned":
+                readiness = ConnectionLifecycle.Readiness.IP_ASSIGNED;
+                break;
+            case "validated":
+                readiness = ConnectionLifecycle.Readiness.VALIDATED;
+                break;
+            default:
+                reject(call, "waitFor must be available, ipAssigned or validated");
+                return;
+        }
+
+        int band;
+        try {
+            band = parseBand(call.getString("band"));
+        } catch (IllegalArgumentException e) {
+            reject(call, e.getMessage());
+            return;
+        }
+
+        // The last scan tells which access point to pin and how it is secured, sparing the
+        // framework its own discovery scan before association.
+        Integer securityType = call.getInt("securityType");
+        boolean useScannedBssid = bssid == null && call.getBoolean("useScannedBssid", false);
+        ScanResult scanned = null;
+        if (useScannedBssid || securityType == null) {
+            scanned = lastScanResultFor(ssid, bssid, band);
+        }
+        if (useScannedBssid && scanned != null) {
+            bssid = scanned.BSSID;
+        }
+        if (securityType == null) {
+            if (scanned != null) {
+                securityType = CapabilitiesParser.connectSecurityType(
+                    CapabilitiesParser.parse(scanned.capabilities),
+                    wifiManager.isWpa3SaeSupported()
+                );
+            } else {
+                securityType = NetworkBatchValidator.defaultSecurityType(password);
+            }
+        }
+
         WifiNetworkSpecifier.Builder specifierBuilder = new WifiNetworkSpecifier.Builder().setSsid(ssid);
 
-        if (password != null && !password.isEmpty()) {
-            specifierBuilder.setWpa2Passphrase(password);
+        if (bssid != null) {
+            try {
+                specifierBuilder.setBssid(MacAddress.fromString(bssid));
+            } catch (IllegalArgumentException e) {
+                reject(call, "Invalid BSSID: " + bssid);
+                return;
+            }
+        }
+
+        if (call.getBoolean("isHiddenSsid", false)) {
+            specifierBuilder.setIsHiddenSsid(true);
+        }
+
+        switch (securityType) {
+            case CapabilitiesParser.SECURITY_OPEN:
+                break;
+            case CapabilitiesParser.SECURITY_PSK:
+            case CapabilitiesParser.SECURITY_SAE:
+                if (password == null || password.isEmpty()) {
+                    reject(call, "Password is required for this network");
+                    return;
+                }
+                if (securityType == CapabilitiesParser.SECURITY_SAE) {
+                    specifierBuilder.setWpa3Passphrase(password);
+                } else {
+                    specifierBuilder.setWpa2Passphrase(password);
+                }
+                break;
+            case CapabilitiesParser.SECURITY_OWE:
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.R) {
+                    reject(call, "Enhanced open networks require Android 11");
+                    return;
+                }
+                specifierBuilder.setIsEnhancedOpen(true);
+                break;
+            default:
+                reject(call, "Unsupported security type: " + securityType);
+                return;
+        }
+
+        // Only a hint: older versions scan every band.
+        if (band != ScanQuery.BAND_ANY && Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            specifierBuilder.setBand(scanResultBandOf(band));
         }
 
         NetworkSpecifier specifier = specifierBuilder.build();
@@ -181,96 +690,652 @@ public class CapacitorWifiPlugin extends Plugin {
             .setNetworkSpecifier(specifier)
             .build();
 
-        networkCallback = new ConnectivityManager.NetworkCallback() {
+        connections.connect(
+            ssid,
+            bssid,
+            // A connected network is only reused for calls with the same credentials
+            Arrays.asList(securityType, password),
+            request,
+            new ConnectionLifecycle.Settings(call.getInt("timeout", 0), readiness, retryPolicyOf(call.getObject("retry"))),
+            new ConnectionLifecycle.Listener() {
+                @Override
+                public void onConnected(int handle, ConnectionLifecycle.Timing timing) {
+                    JSObject timingObject = new JSObject();
+                    putPhase(timingObject, "toAvailable", timing.toAvailableMs);
+                    putPhase(timingObject, "toIpAssigned", timing.toIpAssignedMs);
+                    putPhase(timingObject, "toValidated", timing.toValidatedMs);
+                    timingObject.put("total", timing.totalMs);
+                    timingObject.put("tries", timing.tries);
+
+                    JSObject result = new JSObject();
+                    result.put("handle", handle);
+                    result.put("timing", timingObject);
+                    resolve(call, result);
+                }
+
+                @Override
+                public void onFailed(ConnectionLifecycle.Failure failure, String message) {
+                    reject(call, message, failure.name());
+                }
+            }
+        );
+    }
+
+    /** Strongest access point of {@code ssid} in the last scan, or null when unknown. */
+    private ScanResult lastScanResultFor(String ssid, String bssid, int band) {
+        ScanQuery query = new ScanQuery();
+        query.ssid = ssid;
+        query.band = band;
+        query.sortBy = ScanQuery.SortKey.RSSI;
+        try {
+            for (ScanResult result : query.apply(scanResults())) {
+                if (bssid == null || bssid.equalsIgnoreCase(result.BSSID)) {
+                    return result;
+                }
+            }
+        } catch (SecurityException e) {
+            // Without location permission the request goes out unpinned
+        }
+        return null;
+    }
+
+    private static int scanResultBandOf(int band) {
+        switch (band) {
+            case ScanQuery.BAND_5_GHZ:
+                return ScanResult.WIFI_BAND_5_GHZ;
+            case ScanQuery.BAND_6_GHZ:
+                return ScanResult.WIFI_BAND_6_GHZ;
+            default:
+                return ScanResult.WIFI_BAND_24_GHZ;
+        }
+    }
+
+    private static void putPhase(JSObject timing, String phase, long durationMs) {
+        if (durationMs >= 0) {
+            timing.put(phase, durationMs);
+        }
+    }
+
+    private static RetryPolicy retryPolicyOf(JSObject options) {
+        if (options == null) {
+            return RetryPolicy.NONE;
+        }
+        return new RetryPolicy(
+            options.optInt("maxAttempts", RetryPolicy.DEFAULT_MAX_ATTEMPTS),
+            options.optLong("initialDelay", RetryPolicy.DEFAULT_INITIAL_DELAY_MS),
+            options.optLong("maxDelay", RetryPolicy.DEFAULT_MAX_DELAY_MS),
+            options.optDouble("multiplier", RetryPolicy.DEFAULT_MULTIPLIER),
+            options.optDouble("jitter", RetryPolicy.DEFAULT_JITTER)
+        );
+    }
+
+    @PluginMethod
+    public void cancelConnect(PluginCall call) {
+        beginCall(call);
+        Integer handle = call.getInt("handle");
+        if (handle == null) {
+            reject(call, "Handle is required");
+            return;
+        }
+        JSObject result = new JSObject();
+        result.put("cancelled", connections.cancel(handle));
+        resolve(call, result);
+    }
+
+    private void connectLegacy(PluginCall call) {
+        addNetworkLegacy(call);
+    }
+
+    @PluginMethod
+    public void disconnect(PluginCall call) {
+        beginCall(call);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Integer handle = call.getInt("handle");
+            String ssid = call.getString("ssid");
+            if (handle != null) {
+                connections.release(handle);
+            } else if (ssid != null) {
+                connections.releaseSsid(ssid);
+            } else {
+                connections.disconnect();
+            }
+        } else {
+            wifiManager.disconnect();
+        }
+        resolve(call);
+    }
+
+    @PluginMethod
+    public void getNetworkRequests(PluginCall call) {
+        beginCall(call);
+        JSArray requests = new JSArray();
+        for (ConnectionLifecycle<NetworkRequest, Network>.Attempt attempt : connections.list()) {
+            JSObject request = new JSObject();
+            request.put("handle", attempt.handle);
+            request.put("ssid", attempt.ssid);
+            if (attempt.bssid != null) {
+                request.put("bssid", attempt.bssid);
+            }
+            request.put("state", attempt.getState().name().toLowerCase(Locale.ROOT));
+            request.put("tries", attempt.getTries());
+            requests.put(request);
+        }
+        JSObject result = new JSObject();
+        result.put("requests", requests);
+        resolve(call, result);
+    }
+
+    @PluginMethod
+    public void httpRequest(PluginCall call) {
+        beginCall(call);
+        Network network = requireBoundNetwork(call);
+        if (network == null) {
+            return;
+        }
+        if (call.getString("url") == null) {
+            reject(call, "URL is required");
+            return;
+        }
+        runInBackground("httpRequest", call, c -> httpRequestOnNetwork(c, network));
+    }
+
+    private void httpRequestOnNetwork(PluginCall call, Network network) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        JSObject headerOptions = call.getObject("headers");
+        if (headerOptions != null) {
+            Iterator<String> names = headerOptions.keys();
+            while (names.hasNext()) {
+                String name = names.next();
+                headers.put(name, headerOptions.getString(name));
+            }
+        }
+
+        try {
+            BoundHttpClient.HttpResponse response = boundClient.http(
+                routeFor(network),
+                call.getString("method", "GET").toUpperCase(Locale.ROOT),
+                call.getString("url"),
+                headers,
+                decodeData(call.getString("data"), call.getString("dataType", "text")),
+                call.getInt("timeout", BoundHttpClient.DEFAULT_TIMEOUT_MS),
+                call.getInt("maxBytes", BoundHttpClient.DEFAULT_MAX_BYTES)
+            );
+
+            JSObject responseHeaders = new JSObject();
+            for (Map.Entry<String, String> header : response.headers.entrySet()) {
+                responseHeaders.put(header.getKey(), header.getValue());
+            }
+            JSObject result = new JSObject();
+            result.put("status", response.status);
+            result.put("headers", responseHeaders);
+            result.put("data", encodeData(response.body, call.getString("responseType", "text")));
+            result.put("truncated", response.truncated);
+            resolve(call, result);
+        } catch (SocketTimeoutException e) {
+            reject(call, "HTTP request timed out", "TIMEOUT");
+        } catch (IOException | IllegalArgumentException e) {
+            reject(call, "HTTP request failed: " + e.getMessage(), e);
+        }
+    }
+
+    @PluginMethod
+    public void tcpExchange(PluginCall call) {
+        beginCall(call);
+        Network network = requireBoundNetwork(call);
+        if (network == null) {
+            return;
+        }
+        if (call.getString("host") == null || call.getInt("port") == null) {
+            reject(call, "Host and port are required");
+            return;
+        }
+        runInBackground("tcpExchange", call, c -> tcpExchangeOnNetwork(c, network));
+    }
+
+    private void tcpExchangeOnNetwork(PluginCall call, Network network) {
+        try {
+            BoundHttpClient.TcpResponse response = boundClient.exchange(
+                routeFor(network),
+                call.getString("host"),
+                call.getInt("port"),
+                decodeData(call.getString("data"), call.getString("dataType", "text")),
+                call.getInt("timeout", BoundHttpClient.DEFAULT_TIMEOUT_MS),
+                call.getInt("idleTimeout", BoundHttpClient.DEFAULT_IDLE_TIMEOUT_MS),
+                call.getInt("maxBytes", BoundHttpClient.DEFAULT_MAX_BYTES),
+                call.getBoolean("keepAlive", false)
+            );
+
+            JSObject result = new JSObject();
+            result.put("data", encodeData(response.data, call.getString("responseType", "text")));
+            result.put("reusedConnection", response.reusedSocket);
+            result.put("closedByPeer", response.closedByPeer);
+            resolve(call, result);
+        } catch (SocketTimeoutException e) {
+            reject(call, "TCP exchange timed out", "TIMEOUT");
+        } catch (IOException | IllegalArgumentException e) {
+            reject(call, "TCP exchange failed: " + e.getMessage(), e);
+        }
+    }
+
+    /** Network of the connect() request named by the {@code handle} option, or null after rejecting the call. */
+    private Network requireBoundNetwork(PluginCall call) {
+        Integer handle = call.getInt("handle");
+        if (handle == null) {
+            reject(call, "Handle is required");
+            return null;
+        }
+        ConnectionLifecycle<NetworkRequest, Network>.Attempt attempt = connections.get(handle);
+        if (attempt == null) {
+            reject(call, "No network request with handle " + handle, "NOT_FOUND");
+            return null;
+        }
+        Network network = attempt.getNetwork();
+        if (network == null) {
+            reject(call, "Network is not available", "UNAVAILABLE");
+        }
+        return network;
+    }
+
+    private static BoundHttpClient.Route routeFor(Network network) {
+        return new BoundHttpClient.Route() {
             @Override
-            public void onAvailable(@NonNull Network network) {
-                super.onAvailable(network);
-                call.resolve();
+            public Object key() {
+                return network;
             }
 
             @Override
-            public void onUnavailable() {
-                super.onUnavailable();
-                call.reject("Network unavailable");
+            public HttpURLConnection open(URL url) throws IOException {
+                return (HttpURLConnection) network.openConnection(url);
+            }
+
+            @Override
+            public Socket connect(String host, int port, int timeoutMs) throws IOException {
+                // Resolve through the network too, its DNS servers may be the only ones that know the host.
+                InetSocketAddress address = new InetSocketAddress(network.getByName(host), port);
+                Socket socket = network.getSocketFactory().createSocket();
+                try {
+                    socket.connect(address, timeoutMs);
+                } catch (IOException e) {
+                    socket.close();
+                    throw e;
+                }
+                return socket;
             }
         };
+    }
+
+    /** An IPv4 or non link-local IPv6 address: link-local ones are there before DHCP completes. */
+    private static boolean hasRoutableAddress(LinkProperties linkProperties) {
+        for (LinkAddress linkAddress : linkProperties.getLinkAddresses()) {
+            InetAddress address = linkAddress.getAddress();
+            if (address instanceof Inet4Address || (address instanceof Inet6Address && !address.isLinkLocalAddress())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] decodeData(String data, String dataType) {
+        if (data == null) {
+            return null;
+        }
+        return "base64".equals(dataType) ? Base64.decode(data, Base64.DEFAULT) : data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String encodeData(byte[] data, String responseType) {
+        return "base64".equals(responseType) ? Base64.encodeToString(data, Base64.NO_WRAP) : new String(data, StandardCharsets.UTF_8);
+    }
+
+    @PluginMethod
+    public void getAvailableNetworks(PluginCall call) {
+        beginCall(call);
+        if (getPermissionState("location") != PermissionState.GRANTED) {
+            requestPermissionForAlias("location", call, "getAvailableNetworksCallback");
+            return;
+        }
+
+        runInBackground("getAvailableNetworks", call, this::getAvailableNetworksWithPermission);
+    }
+
+    @PermissionCallback
+    private void getAvailableNetworksCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
+        if (getPermissionState("location") == PermissionState.GRANTED) {
+            runInBackground("getAvailableNetworks", call, this::getAvailableNetworksWithPermission);
+        } else {
+            reject(call, "Location permission is required");
+        }
+    }
+
+    private void getAvailableNetworksWithPermission(PluginCall call) {
+        ScanQuery query;
+        try {
+            query = parseScanQuery(call);
+        } catch (IllegalArgumentException e) {
+            reject(call, e.getMessage());
+            return;
+        }
+
+        resolve(call, buildNetworksResult(query));
+    }
+
+    @PluginMethod(returnType = PluginMethod.RETURN_CALLBACK)
+    public void streamAvailableNetworks(PluginCall call) {
+        beginCall(call);
+        // Kept by the bridge until the last chunk, or a rejection, settles it
+        call.setKeepAlive(true);
+        if (getPermissionState("location") != PermissionState.GRANTED) {
+            requestPermissionForAlias("location", call, "streamAvailableNetworksCallback");
+            return;
+        }
+
+        // Shares the scan lane, so streams and getAvailableNetworks calls are limited together
+        runInBackground("getAvailableNetworks", call, this::streamAvailableNetworksWithPermission);
+    }
+
+    @PermissionCallback
+    private void streamAvailableNetworksCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
+        if (getPermissionState("location") == PermissionState.GRANTED) {
+            runInBackground("getAvailableNetworks", call, this::streamAvailableNetworksWithPermission);
+        } else {
+            reject(call, "Location permission is required");
+        }
+    }
+
+    private void streamAvailableNetworksWithPermission(PluginCall call) {
+        ScanQuery query;
+        try {
+            query = parseScanQuery(call);
+        } catch (IllegalArgumentException e) {
+            reject(call, e.getMessage());
+            return;
+        }
+        if (query.sortBy == ScanQuery.SortKey.NONE) {
+            // Strongest networks first, so the first chunk is the most useful one.
+            query.sortBy = ScanQuery.SortKey.RSSI;
+        }
+
+        int chunkSize = Math.max(1, call.getInt("chunkSize", DEFAULT_STREAM_CHUNK_SIZE));
+        List<ScanResult> results = query.apply(scanResults());
+        int chunkCount = Math.max(1, (results.size() + chunkSize - 1) / chunkSize);
+        sendNetworksChunk(call, query, results, chunkSize, 0, chunkCount);
+    }
+
+    private void sendNetworksChunk(PluginCall call, ScanQuery query, List<ScanResult> results, int chunkSize, int index, int chunkCount) {
+        int from = index * chunkSize;
+        int to = Math.min(results.size(), from + chunkSize);
+        boolean done = index == chunkCount - 1;
+
+        JSObject chunk = buildNetworksPayload(results.subList(from, to), query);
+        chunk.put("index", index);
+        chunk.put("chunkCount", chunkCount);
+        chunk.put("total", results.size());
+        chunk.put("done", done);
+
+        if (done) {
+            resolve(call, chunk);
+            return;
+        }
+
+        send(call, chunk);
+        // Serialize the next chunk in a later task on the scan lane, so the current one reaches the
+        // WebView first and other plugin calls are not held up by a large result set.
+        runInBackground("getAvailableNetworks", call, c -> sendNetworksChunk(c, query, results, chunkSize, index + 1, chunkCount));
+    }
+
+    private static int parseBand(String band) {
+        if (band == null) {
+            return ScanQuery.BAND_ANY;
+        }
+        switch (band) {
+            case "2.4GHz":
+                return ScanQuery.BAND_2_4_GHZ;
+            case "5GHz":
+                return ScanQuery.BAND_5_GHZ;
+            case "6GHz":
+                return ScanQuery.BAND_6_GHZ;
+            default:
+                throw new IllegalArgumentException("Invalid band: " + band);
+        }
+    }
+
+    private ScanQuery parseScanQuery(PluginCall call) {
+        ScanQuery query = new ScanQuery();
+        query.minRssi = call.getInt("minRssi");
+        query.ssid = call.getString("ssid");
+        query.ssidPrefix = call.getString("ssidPrefix");
+        query.securityType = call.getInt("securityType");
+        query.limit = call.getInt("limit", 0);
+        query.fields = parseScanFields(call);
+        query.columnar = parseColumnarEncoding(call);
+
+        String ssidPattern = call.getString("ssidPattern");
+        if (ssidPattern != null) {
+            try {
+                query.ssidPattern = Pattern.compile(ssidPattern);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid ssidPattern: " + e.getDescription());
+            }
+        }
+
+        query.band = parseBand(call.getString("band"));
+
+        String sortBy = call.getString("sortBy");
+        if (sortBy != null) {
+            switch (sortBy) {
+                case "rssi":
+                    query.sortBy = ScanQuery.SortKey.RSSI;
+                    break;
+                case "ssid":
+                    query.sortBy = ScanQuery.SortKey.SSID;
+                    break;
+                case "frequency":
+                    query.sortBy = ScanQuery.SortKey.FREQUENCY;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid sortBy: " + sortBy);
+            }
+        }
+
+        return query;
+    }
+
+    private JSObject buildNetworksResult() {
+        return buildNetworksResult(new ScanQuery());
+    }
 
-        connectivityManager.requestNetwork(request, networkCallback);
+    private JSObject buildNetworksResult(ScanQuery query) {
+        return buildNetworksPayload(query.apply(scanResults()), query);
     }
 
-    private void connectLegacy(PluginCall call) {
-        addNetworkLegacy(call);
+    private JSObject buildNetworksPayload(List<ScanResult> results, ScanQuery query) {
+        PluginTracer sectionTracer = tracer;
+        sectionTracer.beginSection("serializeNetworks");
+        try {
+            return query.columnar ? buildColumnsResult(results) : buildNetworksArrayResult(results, query);
+        } finally {
+            sectionTracer.endSection();
+        }
+    }
+
+    private JSObject buildNetworksArrayResult(List<ScanResult> results, ScanQuery query) {
+        JSArray networks = new JSArray();
+
+        for (ScanResult result : results) {
+            networks.put(toNetworkObject(result, query.fields));
+        }
+
+        JSObject result = new JSObject();
+        result.put("networks", networks);
+        return result;
+    }
+
+    private JSObject buildColumnsResult(List<ScanResult> results) {
+        ScanColumnsEncoder encoder = new ScanColumnsEncoder(results.size());
+        for (ScanResult result : results) {
+            if (encoder.size() == ScanColumnsEncoder.MAX_NETWORKS) {
+                break;
+            }
+            encoder.add(result.BSSID, result.SSID, result.level, result.frequency, CapabilitiesParser.primarySecurityType(CapabilitiesParser.parse(result.capabilities)));
+        }
+
+        JSObject result = new JSObject();
+        result.put("columns", Base64.encodeToString(encoder.encode(), Base64.NO_WRAP));
+        result.put("count", encoder.size());
+        return result;
+    }
+
+    private boolean parseColumnarEncoding(PluginCall call) {
+        String encoding = call.getString("encoding", "json");
+        if ("columnar".equals(encoding)) {
+            return true;
+        }
+        if (!"json".equals(encoding)) {
+            throw new IllegalArgumentException("Invalid encoding: " + encoding);
+        }
+        return false;
+    }
+
+    /** The arrays are never mutated once built, so networks with the same capabilities share one. */
+    private JSArray securityTypesArray(long capabilities) {
+        JSArray cached = securityTypesArrays.get(capabilities);
+        if (cached != null) {
+            return cached;
+        }
+
+        JSArray securityTypes = new JSArray();
+        for (int type : CapabilitiesParser.securityTypes(capabilities)) {
+            securityTypes.put(type);
+        }
+        securityTypesArrays.put(capabilities, securityTypes);
+        return securityTypes;
+    }
+
+    private JSObject toNetworkObject(ScanResult result, int fields) {
+        JSObject network = new JSObject();
+        if (ScanFields.has(fields, ScanFields.SSID)) {
+            network.put("ssid", result.SSID);
+        }
+        if (ScanFields.has(fields, ScanFields.BSSID)) {
+            network.put("bssid", result.BSSID);
+        }
+        if (ScanFields.has(fields, ScanFields.RSSI)) {
+            network.put("rssi", result.level);
+        }
+
+        if (ScanFields.has(fields, ScanFields.SECURITY_TYPES)) {
+            network.put("securityTypes", securityTypesArray(CapabilitiesParser.parse(result.capabilities)));
+        }
+
+        if (ScanFields.has(fields, ScanFields.FREQUENCY)) {
+            network.put("frequency", result.frequency);
+        }
+        if (ScanFields.has(fields, ScanFields.CHANNEL_WIDTH)) {
+            network.put("channelWidth", ScanFields.channelWidthMhz(result.channelWidth));
+        }
+        if (ScanFields.has(fields, ScanFields.CENTER_FREQ_0)) {
+            network.put("centerFreq0", result.centerFreq0);
+        }
+        if (ScanFields.has(fields, ScanFields.CENTER_FREQ_1)) {
+            network.put("centerFreq1", result.centerFreq1);
+        }
+        if (ScanFields.has(fields, ScanFields.TIMESTAMP)) {
+            network.put("timestamp", result.timestamp);
+        }
+        if (ScanFields.has(fields, ScanFields.WIFI_STANDARD) && Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            network.put("wifiStandard", ScanFields.wifiStandardName(result.getWifiStandard()));
+        }
+        if (ScanFields.has(fields, ScanFields.CAPABILITIES)) {
+            network.put("capabilities", result.capabilities);
+        }
+
+        return network;
     }
 
-    @PluginMethod
-    public void disconnect(PluginCall call) {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-            if (networkCallback != null) {
-                connectivityManager.unregisterNetworkCallback(networkCallback);
-                networkCallback = null;
-            }
-        } else {
-            wifiManager.disconnect();
+    private int parseScanFields(PluginCall call) {
+        JSArray fields = call.getArray("fields");
+        if (fields == null) {
+            return ScanFields.DEFAULT;
+        }
+        try {
+            return ScanFields.parse(fields.<String>toList());
+        } catch (JSONException | ClassCastException e) {
+            throw new IllegalArgumentException("fields must be an array of field names");
         }
-        call.resolve();
     }
 
     @PluginMethod
-    public void getAvailableNetworks(PluginCall call) {
+    public void getNetworkChanges(PluginCall call) {
+        beginCall(call);
         if (getPermissionState("location") != PermissionState.GRANTED) {
-            requestPermissionForAlias("location", call, "getAvailableNetworksCallback");
+            requestPermissionForAlias("location", call, "getNetworkChangesCallback");
             return;
         }
 
-        getAvailableNetworksWithPermission(call);
+        runInBackground("getNetworkChanges", call, this::getNetworkChangesWithPermission);
     }
 
     @PermissionCallback
-    private void getAvailableNetworksCallback(PluginCall call) {
+    private void getNetworkChangesCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
         if (getPermissionState("location") == PermissionState.GRANTED) {
-            getAvailableNetworksWithPermission(call);
+            runInBackground("getNetworkChanges", call, this::getNetworkChangesWithPermission);
         } else {
-            call.reject("Location permission is required");
+            reject(call, "Location permission is required");
         }
     }
 
-    private void getAvailableNetworksWithPermission(PluginCall call) {
-        List<ScanResult> results = wifiManager.getScanResults();
-        JSArray networks = new JSArray();
-
-        for (ScanResult result : results) {
-            JSObject network = new JSObject();
-            network.put("ssid", result.SSID);
-            network.put("rssi", result.level);
+    private void getNetworkChangesWithPermission(PluginCall call) {
+        long sequence = call.getLong("sequence", ScanDiffer.NO_SEQUENCE);
+        int rssiThreshold = call.getInt("rssiThreshold", DEFAULT_RSSI_CHANGE_THRESHOLD);
+        int fields;
+        try {
+            fields = parseScanFields(call);
+        } catch (IllegalArgumentException e) {
+            reject(call, e.getMessage());
+            return;
+        }
 
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                JSArray securityTypes = new JSArray();
-                // Add security types based on capabilities
-                String capabilities = result.capabilities;
-                if (capabilities.contains("WPA3")) {
-                    securityTypes.put(4); // SAE
-                } else if (capabilities.contains("WPA2")) {
-                    securityTypes.put(2); // WPA2_PSK
-                } else if (capabilities.contains("WPA")) {
-                    securityTypes.put(2); // WPA2_PSK
-                } else if (capabilities.contains("WEP")) {
-                    securityTypes.put(1); // WEP
-                } else {
-                    securityTypes.put(0); // OPEN
-                }
-                network.put("securityTypes", securityTypes);
-            }
+        ScanDiffer.Diff<ScanResult> diff = scanDiffer.update(scanResults(), sequence, rssiThreshold);
+        resolve(call, buildChangesObject(diff, fields));
+    }
 
-            networks.put(network);
+    private JSObject buildChangesObject(ScanDiffer.Diff<ScanResult> diff, int fields) {
+        // Entries are keyed by BSSID, so it is always included.
+        int entryFields = fields | ScanFields.BSSID;
+        JSArray added = new JSArray();
+        for (ScanResult result : diff.added) {
+            added.put(toNetworkObject(result, entryFields));
+        }
+        JSArray changed = new JSArray();
+        for (ScanResult result : diff.changed) {
+            changed.put(toNetworkObject(result, entryFields));
+        }
+        JSArray removed = new JSArray();
+        for (String bssid : diff.removed) {
+            removed.put(bssid);
         }
 
-        JSObject result = new JSObject();
-        result.put("networks", networks);
-        call.resolve(result);
+        JSObject changes = new JSObject();
+        changes.put("baseSequence", diff.baseSequence);
+        changes.put("sequence", diff.sequence);
+        changes.put("full", diff.full);
+        changes.put("added", added);
+        changes.put("changed", changed);
+        changes.put("removed", removed);
+        return changes;
     }
 
     @PluginMethod
     public void getIpAddress(PluginCall call) {
+        beginCall(call);
+        runInBackground("getIpAddress", call, this::getIpAddressInBackground);
+    }
+
+    private void getIpAddressInBackground(PluginCall call) {
+        PluginTracer sectionTracer = tracer;
+        sectionTracer.beginSection("enumerateInterfaces");
         try {
             for (Enumeration<NetworkInterface> en = NetworkInterface.getNetworkInterfaces(); en.hasMoreElements(); ) {
                 NetworkInterface intf = en.nextElement();
@@ -280,108 +1345,83 @@ public class CapacitorWifiPlugin extends Plugin {
                         String ip = inetAddress.getHostAddress();
                         JSObject result = new JSObject();
                         result.put("ipAddress", ip);
-                        call.resolve(result);
+                        resolve(call, result);
                         return;
                     }
                 }
             }
-            call.reject("No IP address found");
+            reject(call, "No IP address found");
         } catch (Exception e) {
-            call.reject("Failed to get IP address", e);
-        }
-    }
-
-    private boolean isPrivateIPv4(InetAddress address) {
-        if (!(address instanceof Inet4Address)) {
-            return false;
+            reject(call, "Failed to get IP address", e);
+        } finally {
+            sectionTracer.endSection();
         }
-        byte[] ip = address.getAddress();
-        // 10.0.0.0/8
-        if (ip[0] == 10) return true;
-        // 172.16.0.0/12
-        if (ip[0] == (byte)172 && (ip[1] & 0xF0) == 16) return true;
-        // 192.168.0.0/16
-        if (ip[0] == (byte)192 && ip[1] == (byte)168) return true;
-        // 127.0.0.0/8 (loopback)
-        if (ip[0] == 127) return true;
-        return false;
-    }
-
-    private boolean isPrivateIPv6(InetAddress address) {
-        if (!(address instanceof Inet6Address)) {
-            return false;
-        }
-        // Link-local (fe80::/10) and loopback (::1) are private
-        return address.isLinkLocalAddress() || address.isLoopbackAddress();
     }
 
     @PluginMethod
     public void getIpAddresses(PluginCall call) {
+        beginCall(call);
+        runInBackground("getIpAddresses", call, this::getIpAddressesInBackground);
+    }
+
+    private void getIpAddressesInBackground(PluginCall call) {
         JSObject result = new JSObject();
-        String TAG = "CapacitorWifi";
-        Log.d(TAG, "getIpAddresses: Starting IP address collection");
+        diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "Starting IP address collection");
 
         try {
-            ConnectivityManager cm = (ConnectivityManager) getContext().getSystemService(Context.CONNECTIVITY_SERVICE);
-            if (cm == null) {
-                Log.w(TAG, "getIpAddresses: ConnectivityManager is null");
-                call.resolve(result);
-                return;
-            }
-
-            Network activeNetwork = cm.getActiveNetwork();
-            if (activeNetwork == null) {
-                Log.w(TAG, "getIpAddresses: No active network");
-                call.resolve(result);
+            ConnectionSnapshot snapshot = connectionState.get();
+            result.put("stale", snapshot.stale);
+            if (snapshot.network == null) {
+                diagnostics.log(Diagnostics.WARN, "getIpAddresses", "No active network");
+                resolve(call, result);
                 return;
             }
 
-            NetworkCapabilities capabilities = cm.getNetworkCapabilities(activeNetwork);
+            NetworkCapabilities capabilities = snapshot.capabilities;
             if (capabilities != null) {
                 boolean isVpn = capabilities.hasTransport(NetworkCapabilities.TRANSPORT_VPN);
                 result.put("isVpn", isVpn);
-                Log.d(TAG, "getIpAddresses: isVpn = " + isVpn);
+                diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "isVpn", isVpn);
             }
 
-            LinkProperties linkProperties = cm.getLinkProperties(activeNetwork);
+            LinkProperties linkProperties = snapshot.linkProperties;
             if (linkProperties != null) {
                 List<LinkAddress> addresses = linkProperties.getLinkAddresses();
-                Log.d(TAG, "getIpAddresses: LinkProperties has " + addresses.size() + " addresses");
+                diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "LinkProperties addresses", addresses.size());
                 for (LinkAddress address : addresses) {
                     InetAddress inetAddress = address.getAddress();
                     String ipAddr = inetAddress.getHostAddress();
 
                     if (inetAddress instanceof Inet4Address) {
-                        if (isPrivateIPv4(inetAddress)) {
+                        if (ConnectionSnapshot.isPrivateIPv4(inetAddress)) {
                             result.put("ipv4", ipAddr);
-                            Log.d(TAG, "getIpAddresses: Found private IPv4: " + ipAddr);
+                            diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "Found private IPv4", ipAddr);
                         } else {
                             result.put("publicIpv4", ipAddr);
-                            Log.d(TAG, "getIpAddresses: Found public IPv4: " + ipAddr);
+                            diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "Found public IPv4", ipAddr);
                         }
                     } else if (inetAddress instanceof Inet6Address && !inetAddress.isLinkLocalAddress()) {
-                        if (isPrivateIPv6(inetAddress)) {
+                        if (ConnectionSnapshot.isPrivateIPv6(inetAddress)) {
                             result.put("ipv6", ipAddr);
-                            Log.d(TAG, "getIpAddresses: Found private IPv6: " + ipAddr);
+                            diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "Found private IPv6", ipAddr);
                         } else {
                             result.put("publicIpv6", ipAddr);
-                            Log.d(TAG, "getIpAddresses: Found public IPv6: " + ipAddr);
+                            diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "Found public IPv6", ipAddr);
                         }
                     }
                 }
             } else {
-                Log.w(TAG, "getIpAddresses: LinkProperties is null");
+                diagnostics.log(Diagnostics.WARN, "getIpAddresses", "LinkProperties is null");
             }
 
             // Fallback for devices that don't return IPv4/IPv6 via LinkProperties
             if (!result.has("ipv4") && !result.has("publicIpv4")) {
-                Log.d(TAG, "getIpAddresses: Using WifiManager fallback for IPv4");
-                WifiManager wifiManager = (WifiManager) getContext().getApplicationContext().getSystemService(Context.WIFI_SERVICE);
+                diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "Using WifiManager fallback for IPv4");
                 if (wifiManager != null) {
-                    WifiInfo info = wifiManager.getConnectionInfo();
+                    WifiInfo info = snapshot.wifiInfo;
                     if (info != null) {
                         int ipInt = info.getIpAddress();
-                        Log.d(TAG, "getIpAddresses: WifiInfo.getIpAddress() returned: " + ipInt);
+                        diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "WifiInfo.getIpAddress() returned", ipInt);
                         if (ipInt != 0) {
                             // Convert little-endian int to dotted IPv4 string
                             String ipv4 = String.format(
@@ -393,13 +1433,13 @@ public class CapacitorWifiPlugin extends Plugin {
                             );
                             // WifiManager typically returns private IPs
                             result.put("ipv4", ipv4);
-                            Log.d(TAG, "getIpAddresses: Found private IPv4 from WifiManager: " + ipv4);
+                            diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "Found private IPv4 from WifiManager", ipv4);
                         }
                     } else {
-                        Log.w(TAG, "getIpAddresses: WifiInfo is null");
+                        diagnostics.log(Diagnostics.WARN, "getIpAddresses", "WifiInfo is null");
                     }
                 } else {
-                    Log.w(TAG, "getIpAddresses: WifiManager is null");
+                    diagnostics.log(Diagnostics.WARN, "getIpAddresses", "WifiManager is null");
                 }
             }
 
@@ -407,11 +1447,19 @@ public class CapacitorWifiPlugin extends Plugin {
             boolean needsIpv4 = !result.has("ipv4") && !result.has("publicIpv4");
             boolean needsIpv6 = !result.has("ipv6") && !result.has("publicIpv6");
             if (needsIpv4 || needsIpv6) {
-                Log.d(TAG, "getIpAddresses: Using NetworkInterface fallback (needs ipv4: " + needsIpv4 + ", needs ipv6: " + needsIpv6 + ")");
+                diagnostics.log(
+                    Diagnostics.DEBUG,
+                    "getIpAddresses",
+                    "Using NetworkInterface fallback (needs IPv4, IPv6)",
+                    needsIpv4,
+                    needsIpv6
+                );
+                PluginTracer sectionTracer = tracer;
+                sectionTracer.beginSection("enumerateInterfaces");
                 try {
                     Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
                     if (interfaces == null) {
-                        Log.w(TAG, "getIpAddresses: NetworkInterface.getNetworkInterfaces() returned null");
+                        diagnostics.log(Diagnostics.WARN, "getIpAddresses", "NetworkInterface.getNetworkInterfaces() returned null");
                     } else {
                         while (interfaces.hasMoreElements()) {
                             NetworkInterface networkInterface = interfaces.nextElement();
@@ -425,27 +1473,47 @@ public class CapacitorWifiPlugin extends Plugin {
                                 String ipAddr = inetAddress.getHostAddress();
 
                                 if (inetAddress instanceof Inet4Address && needsIpv4) {
-                                    if (isPrivateIPv4(inetAddress)) {
+                                    if (ConnectionSnapshot.isPrivateIPv4(inetAddress)) {
                                         if (!result.has("ipv4")) {
                                             result.put("ipv4", ipAddr);
-                                            Log.d(TAG, "getIpAddresses: Found private IPv4 from NetworkInterface: " + ipAddr);
+                                            diagnostics.log(
+                                                Diagnostics.DEBUG,
+                                                "getIpAddresses",
+                                                "Found private IPv4 from NetworkInterface",
+                                                ipAddr
+                                            );
                                         }
                                     } else {
                                         if (!result.has("publicIpv4")) {
                                             result.put("publicIpv4", ipAddr);
-                                            Log.d(TAG, "getIpAddresses: Found public IPv4 from NetworkInterface: " + ipAddr);
+                                            diagnostics.log(
+                                                Diagnostics.DEBUG,
+                                                "getIpAddresses",
+                                                "Found public IPv4 from NetworkInterface",
+                                                ipAddr
+                                            );
                                         }
                                     }
                                 } else if (inetAddress instanceof Inet6Address && !inetAddress.isLinkLocalAddress() && needsIpv6) {
-                                    if (isPrivateIPv6(inetAddress)) {
+                                    if (ConnectionSnapshot.isPrivateIPv6(inetAddress)) {
                                         if (!result.has("ipv6")) {
                                             result.put("ipv6", ipAddr);
-                                            Log.d(TAG, "getIpAddresses: Found private IPv6 from NetworkInterface: " + ipAddr);
+                                            diagnostics.log(
+                                                Diagnostics.DEBUG,
+                                                "getIpAddresses",
+                                                "Found private IPv6 from NetworkInterface",
+                                                ipAddr
+                                            );
                                         }
                                     } else {
                                         if (!result.has("publicIpv6")) {
                                             result.put("publicIpv6", ipAddr);
-                                            Log.d(TAG, "getIpAddresses: Found public IPv6 from NetworkInterface: " + ipAddr);
+                                            diagnostics.log(
+                                                Diagnostics.DEBUG,
+                                                "getIpAddresses",
+                                                "Found public IPv6 from NetworkInterface",
+                                                ipAddr
+                                            );
                                         }
                                     }
                                 }
@@ -458,171 +1526,324 @@ public class CapacitorWifiPlugin extends Plugin {
                         }
                     }
                 } catch (Exception e) {
-                    Log.e(TAG, "getIpAddresses: NetworkInterface fallback failed", e);
+                    diagnostics.log(Diagnostics.ERROR, "getIpAddresses", "NetworkInterface fallback failed", e);
+                } finally {
+                    sectionTracer.endSection();
                 }
             }
         } catch (Exception e) {
-            Log.e(TAG, "getIpAddresses: Overall method failed", e);
+            diagnostics.log(Diagnostics.ERROR, "getIpAddresses", "Overall method failed", e);
         }
 
-        String logMsg = "getIpAddresses: Returning result with ";
-        logMsg += result.has("ipv4") ? "private IPv4, " : "";
-        logMsg += result.has("publicIpv4") ? "public IPv4, " : "";
-        logMsg += result.has("ipv6") ? "private IPv6, " : "";
-        logMsg += result.has("publicIpv6") ? "public IPv6" : "";
-        Log.d(TAG, logMsg);
-        call.resolve(result);
+        // The result is only turned into text if the event is written or dumped
+        diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "Returning result", result);
+        resolve(call, result);
     }
 
     @PluginMethod
     public void getBssid(PluginCall call) {
+        beginCall(call);
+        runInBackground("getBssid", call, this::getBssidInBackground);
+    }
+
+    private void getBssidInBackground(PluginCall call) {
         JSObject result = new JSObject();
-        String TAG = "CapacitorWifi";
-        Log.d(TAG, "getBssid: Starting BSSID collection");
+        diagnostics.log(Diagnostics.DEBUG, "getBssid", "Starting BSSID collection");
 
         if (getPermissionState("location") != PermissionState.GRANTED) {
-            Log.w(TAG, "getBssid: Location permission not granted");
+            diagnostics.log(Diagnostics.WARN, "getBssid", "Location permission not granted");
             result.put("bssid", JSObject.NULL);
             result.put("isVpn", false);
-            call.resolve(result);
-            return;
-        }
-
-        ConnectivityManager cm = (ConnectivityManager) getContext().getSystemService(Context.CONNECTIVITY_SERVICE);
-        WifiManager wifiManager = (WifiManager) getContext().getApplicationContext().getSystemService(Context.WIFI_SERVICE);
-
-        if (cm == null || wifiManager == null) {
-            Log.w(TAG, "getBssid: ConnectivityManager or WifiManager is null");
-            call.resolve(result);
+            resolve(call, result);
             return;
         }
 
-        Network activeNetwork = cm.getActiveNetwork();
-        NetworkCapabilities capabilities = cm.getNetworkCapabilities(activeNetwork);
-        boolean isVpn = capabilities != null && capabilities.hasTransport(NetworkCapabilities.TRANSPORT_VPN);
+        ConnectionSnapshot snapshot = connectionState.get();
+        boolean isVpn = snapshot.isVpn();
+        result.put("stale", snapshot.stale);
 
-        WifiInfo info = wifiManager.getConnectionInfo();
+        WifiInfo info = snapshot.wifiInfo;
         if (info != null) {
             String bssid = info.getBSSID();
-            Log.d(TAG, "getBssid: WifiInfo.getBSSID() returned: " + bssid);
+            diagnostics.log(Diagnostics.DEBUG, "getBssid", "WifiInfo.getBSSID() returned", bssid);
             if (bssid != null && !bssid.equals("00:00:00:00:00:00") && !bssid.equals("02:00:00:00:00:00")) {
                 result.put("bssid", bssid);
-                Log.d(TAG, "getBssid: Valid BSSID found: " + bssid);
+                diagnostics.log(Diagnostics.DEBUG, "getBssid", "Valid BSSID found", bssid);
             } else {
                 result.put("bssid", JSObject.NULL);
-                Log.w(TAG, "getBssid: BSSID is null or placeholder value: " + bssid);
+                diagnostics.log(Diagnostics.WARN, "getBssid", "BSSID is null or placeholder value", bssid);
             }
         } else {
-            Log.w(TAG, "getBssid: WifiInfo is null");
+            diagnostics.log(Diagnostics.WARN, "getBssid", "WifiInfo is null");
         }
         result.put("isVpn", isVpn);
 
-        String bssidLog = "null";
-        if (result.has("bssid")) {
-            try {
-                Object bssidValue = result.get("bssid");
-                if (bssidValue != JSObject.NULL) {
-                    bssidLog = bssidValue.toString();
-                }
-            } catch (Exception e) {
-                // Ignore
-            }
-        }
-        Log.d(TAG, "getBssid: Returning result with bssid = " + bssidLog);
-        call.resolve(result);
+        diagnostics.log(Diagnostics.DEBUG, "getBssid", "Returning result", result);
+        resolve(call, result);
     }
 
     @PluginMethod
     public void getRssi(PluginCall call) {
+        beginCall(call);
         if (getPermissionState("location") != PermissionState.GRANTED) {
             requestPermissionForAlias("location", call, "getRssiCallback");
             return;
         }
 
-        getRssiWithPermission(call);
+        runInBackground("getRssi", call, this::getRssiWithPermission);
     }
 
     @PermissionCallback
     private void getRssiCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
         if (getPermissionState("location") == PermissionState.GRANTED) {
-            getRssiWithPermission(call);
+            connectionState.invalidateWifiInfo();
+            runInBackground("getRssi", call, this::getRssiWithPermission);
         } else {
-            call.reject("Location permission is required");
+            reject(call, "Location permission is required");
         }
     }
 
     private void getRssiWithPermission(PluginCall call) {
-        android.net.wifi.WifiInfo wifiInfo = wifiManager.getConnectionInfo();
-        int rssi = wifiInfo.getRssi();
+        ConnectionSnapshot snapshot = connectionState.get();
+        int rssi = snapshot.wifiInfo != null ? snapshot.wifiInfo.getRssi() : INVALID_RSSI;
+        if (rssi != INVALID_RSSI) {
+            rssiHistory.record(snapshot.bssid(), rssi);
+        }
 
         JSObject result = new JSObject();
         result.put("rssi", rssi);
-        call.resolve(result);
+        result.put("stale", snapshot.stale);
+        resolve(call, result);
+    }
+
+    @PluginMethod
+    public void getRssiStatistics(PluginCall call) {
+        beginCall(call);
+        if (getPermissionState("location") != PermissionState.GRANTED) {
+            requestPermissionForAlias("location", call, "getRssiStatisticsCallback");
+            return;
+        }
+
+        runInBackground("getRssiStatistics", call, this::getRssiStatisticsWithPermission);
+    }
+
+    @PermissionCallback
+    private void getRssiStatisticsCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
+        if (getPermissionState("location") == PermissionState.GRANTED) {
+            connectionState.invalidateWifiInfo();
+            runInBackground("getRssiStatistics", call, this::getRssiStatisticsWithPermission);
+        } else {
+            reject(call, "Location permission is required");
+        }
+    }
+
+    private void getRssiStatisticsWithPermission(PluginCall call) {
+        long window = call.getLong("window", DEFAULT_RSSI_STATISTICS_WINDOW_MS);
+        if (window <= 0) {
+            reject(call, "window must be positive");
+            return;
+        }
+        String bssid = call.getString("bssid");
+        if (bssid == null) {
+            bssid = connectionState.get().bssid();
+        }
+
+        JSObject result = new JSObject();
+        result.put("bssid", bssid != null ? bssid : JSObject.NULL);
+        result.put("window", window);
+        RssiHistory.Stats stats = rssiHistory.stats(bssid, window);
+        if (stats == null) {
+            result.put("count", 0);
+            resolve(call, result);
+            return;
+        }
+        result.put("count", stats.count);
+        result.put("min", stats.min);
+        result.put("max", stats.max);
+        result.put("mean", stats.mean);
+        result.put("stddev", stats.stddev);
+        result.put("p50", stats.p50);
+        result.put("p95", stats.p95);
+        resolve(call, result);
+    }
+
+    @PluginMethod
+    public void startRssiUpdates(PluginCall call) {
+        beginCall(call);
+        long minInterval = call.getLong("minInterval", DEFAULT_RSSI_MIN_INTERVAL_MS);
+        int hysteresis = call.getInt("hysteresis", DEFAULT_RSSI_HYSTERESIS_DB);
+        if (minInterval < 0 || hysteresis < 0) {
+            reject(call, "minInterval and hysteresis must not be negative");
+            return;
+        }
+
+        mainHandler.post(() -> {
+            stopRssiUpdatesOnMainThread();
+            rssiFilter = new RssiFilter(SystemClock::elapsedRealtime, minInterval, hysteresis);
+            rssiReceiver = new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    onRssiSample(intent.getIntExtra(WifiManager.EXTRA_NEW_RSSI, INVALID_RSSI));
+                }
+            };
+            getContext().registerReceiver(rssiReceiver, new IntentFilter(WifiManager.RSSI_CHANGED_ACTION));
+
+            // Emit the current value right away so listeners don't wait for the first change
+            WifiInfo info = connectionState.get().wifiInfo;
+            if (info != null) {
+                onRssiSample(info.getRssi());
+            }
+            resolve(call);
+        });
+    }
+
+    @PluginMethod
+    public void stopRssiUpdates(PluginCall call) {
+        beginCall(call);
+        mainHandler.post(() -> {
+            stopRssiUpdatesOnMainThread();
+            resolve(call);
+        });
+    }
+
+    private void stopRssiUpdatesOnMainThread() {
+        mainHandler.removeCallbacks(rssiFlushRunnable);
+        rssiFilter = null;
+        if (rssiReceiver != null) {
+            try {
+                getContext().unregisterReceiver(rssiReceiver);
+            } catch (IllegalArgumentException e) {
+                // Receiver was not registered
+            }
+            rssiReceiver = null;
+        }
+    }
+
+    private void onRssiSample(int rssi) {
+        RssiFilter filter = rssiFilter;
+        if (filter == null || rssi == INVALID_RSSI) {
+            return;
+        }
+        rssiHistory.record(connectionState.get().bssid(), rssi);
+
+        Integer previous = filter.hasEmitted() ? filter.lastEmitted() : null;
+        if (filter.offer(rssi)) {
+            notifyRssiChanged(rssi, previous);
+            return;
+        }
+
+        long delay = filter.millisUntilFlush();
+        mainHandler.removeCallbacks(rssiFlushRunnable);
+        if (delay != RssiFilter.NO_PENDING) {
+            mainHandler.postDelayed(rssiFlushRunnable, delay);
+        }
+    }
+
+    private void flushPendingRssi() {
+        RssiFilter filter = rssiFilter;
+        if (filter == null) {
+            return;
+        }
+        int previous = filter.lastEmitted();
+        if (filter.flushPending()) {
+            notifyRssiChanged(filter.lastEmitted(), previous);
+        }
+    }
+
+    private void notifyRssiChanged(int rssi, Integer previous) {
+        JSObject event = new JSObject();
+        event.put("rssi", rssi);
+        if (previous != null) {
+            event.put("previousRssi", previous);
+            event.put("delta", rssi - previous);
+        }
+        String bssid = connectionState.get().bssid();
+        event.put("bssid", bssid != null ? bssid : JSObject.NULL);
+        event.put("timestamp", System.currentTimeMillis());
+        notifyListeners("rssiChanged", event);
     }
 
     @PluginMethod
     public void getSsid(PluginCall call) {
+        beginCall(call);
         if (getPermissionState("location") != PermissionState.GRANTED) {
             requestPermissionForAlias("location", call, "getSsidCallback");
             return;
         }
 
-        getSsidWithPermission(call);
+        runInBackground("getSsid", call, this::getSsidWithPermission);
     }
 
     @PermissionCallback
     private void getSsidCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
         if (getPermissionState("location") == PermissionState.GRANTED) {
-            getSsidWithPermission(call);
+            connectionState.invalidateWifiInfo();
+            runInBackground("getSsid", call, this::getSsidWithPermission);
         } else {
-            call.reject("Location permission is required");
+            reject(call, "Location permission is required");
         }
     }
 
     private void getSsidWithPermission(PluginCall call) {
         JSObject result = new JSObject();
 
-        ConnectivityManager cm = (ConnectivityManager) getContext().getSystemService(Context.CONNECTIVITY_SERVICE);
-        WifiManager wifiManager = (WifiManager) getContext().getApplicationContext().getSystemService(Context.WIFI_SERVICE);
+        ConnectionSnapshot snapshot = connectionState.get();
+        if (snapshot.wifiInfo != null) {
+            String ssid = snapshot.ssid();
+            result.put("ssid", ssid != null ? ssid : JSObject.NULL);
+        }
+        result.put("isVpn", snapshot.isVpn());
+        result.put("stale", snapshot.stale);
+
+        resolve(call, result);
+    }
 
-        if (cm == null || wifiManager == null) {
-            call.resolve(result);
+    @PluginMethod
+    public void getConnectionSnapshot(PluginCall call) {
+        beginCall(call);
+        if (getPermissionState("location") != PermissionState.GRANTED) {
+            requestPermissionForAlias("location", call, "getConnectionSnapshotCallback");
             return;
         }
 
-        Network activeNetwork = cm.getActiveNetwork();
-        NetworkCapabilities capabilities = cm.getNetworkCapabilities(activeNetwork);
-        boolean isVpn = capabilities != null && capabilities.hasTransport(NetworkCapabilities.TRANSPORT_VPN);
+        runInBackground("getConnectionSnapshot", call, this::getConnectionSnapshotWithPermission);
+    }
 
-        WifiInfo info = wifiManager.getConnectionInfo();
-        if (info != null) {
-            String ssid = info.getSSID();
-            if (ssid != null && ssid.startsWith("\"") && ssid.endsWith("\"")) {
-                ssid = ssid.substring(1, ssid.length() - 1);
-            }
-            // Ignore placeholder/invalid values to reduce nulls downstream
-            if (ssid != null && !ssid.equals("<unknown ssid>")) {
-                result.put("ssid", ssid);
-            } else {
-                result.put("ssid", JSObject.NULL);
-            }
+    @PermissionCallback
+    private void getConnectionSnapshotCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
+        if (getPermissionState("location") == PermissionState.GRANTED) {
+            connectionState.invalidateWifiInfo();
+            runInBackground("getConnectionSnapshot", call, this::getConnectionSnapshotWithPermission);
+        } else {
+            reject(call, "Location permission is required");
         }
-        result.put("isVpn", isVpn);
+    }
 
-        call.resolve(result);
+    private void getConnectionSnapshotWithPermission(PluginCall call) {
+        resolve(call, connectionState.get().toJSObject());
     }
 
     @PluginMethod
     public void isEnabled(PluginCall call) {
+        beginCall(call);
+        runInBackground("isEnabled", call, this::isEnabledInBackground);
+    }
+
+    private void isEnabledInBackground(PluginCall call) {
         boolean enabled = wifiManager.isWifiEnabled();
 
         JSObject result = new JSObject();
         result.put("enabled", enabled);
-        call.resolve(result);
+        resolve(call, result);
     }
 
     @PluginMethod
     public void startScan(PluginCall call) {
+        beginCall(call);
         if (getPermissionState("location") != PermissionState.GRANTED) {
             requestPermissionForAlias("location", call, "startScanCallback");
             return;
@@ -633,38 +1854,390 @@ public class CapacitorWifiPlugin extends Plugin {
 
     @PermissionCallback
     private void startScanCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
         if (getPermissionState("location") == PermissionState.GRANTED) {
             startScanWithPermission(call);
         } else {
-            call.reject("Location permission is required");
+            reject(call, "Location permission is required");
         }
     }
 
     private void startScanWithPermission(PluginCall call) {
-        // Register receiver
-        getContext().registerReceiver(scanResultsReceiver, new IntentFilter(WifiManager.SCAN_RESULTS_AVAILABLE_ACTION));
+        ensureScanResultsReceiverRegistered();
+
+        boolean waitForResults = call.getBoolean("waitForResults", false);
+
+        if (!scanCoordinator.isScanInFlight()) {
+            long maxAge = call.getLong("maxAge", 0L);
+            boolean useCachedWhenThrottled = !"delay".equals(call.getString("whenThrottled", "cached"));
+            ScanScheduler.Decision decision = scanScheduler.evaluate(maxAge, useCachedWhenThrottled);
+
+            if (decision.action == ScanScheduler.Action.USE_CACHED) {
+                JSObject result = waitForResults ? buildNetworksResult() : new JSObject();
+                result.put("fromCache", true);
+                result.put("resultAgeMs", decision.resultAgeMs);
+                result.put("nextScanInMs", decision.nextScanInMs);
+                resolve(call, result);
+                return;
+            }
+
+            if (decision.action == ScanScheduler.Action.DELAY) {
+                delayedScanCalls.add(call);
+                mainHandler.postDelayed(
+                    () -> {
+                        // Gone when handleOnDestroy got to it first
+                        if (delayedScanCalls.remove(call)) {
+                            startScanWithPermission(call);
+                        }
+                    },
+                    decision.nextScanInMs
+                );
+                return;
+            }
+        }
 
-        boolean success = wifiManager.startScan();
-        if (success) {
-            call.resolve();
+        ScanCoordinator.Waiter waiter = null;
+        if (waitForResults) {
+            waiter = new ScanCoordinator.Waiter() {
+                @Override
+                public void onScanCompleted(boolean resultsUpdated) {
+                    JSObject result = buildNetworksResult();
+                    result.put("fromCache", !resultsUpdated);
+                    result.put("nextScanInMs", scanScheduler.millisUntilNextScan());
+                    resolve(call, result);
+                }
+
+                @Override
+                public void onScanFailed(String message) {
+                    reject(call, message);
+                }
+            };
+        }
+
+        ScanCoordinator.Outcome outcome = scanCoordinator.requestScan(waiter, () -> {
+            scanScheduler.recordScanStarted();
+            boolean started = wifiManager.startScan();
+            if (!started) {
+                scanScheduler.recordScanRefused();
+            }
+            return started;
+        });
+        if (outcome == ScanCoordinator.Outcome.STARTED) {
+            mainHandler.removeCallbacks(scanTimeoutRunnable);
+            mainHandler.postDelayed(scanTimeoutRunnable, SCAN_RESULTS_TIMEOUT_MS);
+        }
+
+        if (outcome == ScanCoordinator.Outcome.STARTED || outcome == ScanCoordinator.Outcome.JOINED) {
+            if (!waitForResults) {
+                JSObject result = new JSObject();
+                result.put("fromCache", false);
+                result.put("nextScanInMs", scanScheduler.millisUntilNextScan());
+                resolve(call, result);
+            }
+        } else if (outcome == ScanCoordinator.Outcome.THROTTLED) {
+            JSObject data = new JSObject();
+            data.put("nextScanInMs", scanScheduler.millisUntilNextScan());
+            reject(call, "Failed to start scan", "THROTTLED", data);
         } else {
-            call.reject("Failed to start scan");
+            reject(call, "Failed to start scan");
+        }
+    }
+
+    @PluginMethod
+    public void configureScanEvents(PluginCall call) {
+        beginCall(call);
+        int fields;
+        boolean columnar;
+        try {
+            fields = parseScanFields(call);
+            columnar = parseColumnarEncoding(call);
+        } catch (IllegalArgumentException e) {
+            reject(call, e.getMessage());
+            return;
+        }
+        scanEventsFields = fields;
+        scanEventsColumnar = columnar;
+        scanEventsIncludeResults = call.getBoolean("includeResults", false);
+        scanEventsAsChanges = call.getBoolean("changesOnly", false);
+        scanEventsRssiThreshold = call.getInt("rssiThreshold", DEFAULT_RSSI_CHANGE_THRESHOLD);
+        resolve(call);
+    }
+
+    private void ensureScanResultsReceiverRegistered() {
+        if (scanResultsReceiverRegistered) {
+            return;
+        }
+        getContext().registerReceiver(scanResultsReceiver, new IntentFilter(WifiManager.SCAN_RESULTS_AVAILABLE_ACTION));
+        scanResultsReceiverRegistered = true;
+    }
+
+    @PluginMethod
+    public void getScanStats(PluginCall call) {
+        beginCall(call);
+        ScanCoordinator.Stats stats = scanCoordinator.getStats();
+        JSObject result = new JSObject();
+        result.put("requested", stats.requested);
+        result.put("started", stats.started);
+        result.put("coalesced", stats.coalesced);
+        result.put("throttled", stats.throttled);
+        result.put("failed", stats.failed);
+        result.put("completed", stats.completed);
+        result.put("inFlight", stats.inFlight);
+        result.put("availableScans", scanScheduler.availableScans());
+        result.put("nextScanInMs", scanScheduler.millisUntilNextScan());
+        resolve(call, result);
+    }
+
+    @PluginMethod
+    public void getExecutorStats(PluginCall call) {
+        beginCall(call);
+        JSObject result = new JSObject();
+        result.put("poolSize", executor.getPoolSize());
+        result.put("active", executor.getActiveCount());
+        result.put("queueDepth", executor.getQueueDepth());
+
+        JSArray methods = new JSArray();
+        for (PluginExecutor.MethodStats stats : executor.getMethodStats()) {
+            JSObject method = new JSObject();
+            method.put("method", stats.method);
+            method.put("limit", stats.limit);
+            method.put("running", stats.running);
+            method.put("queued", stats.queued);
+            method.put("completed", stats.completed);
+            method.put("rejected", stats.rejected);
+            method.put("averageWaitMs", stats.averageWaitMs);
+            method.put("maxWaitMs", stats.maxWaitMs);
+            methods.put(method);
+        }
+        result.put("methods", methods);
+        resolve(call, result);
+    }
+
+    @PluginMethod
+    public void getMetrics(PluginCall call) {
+        beginCall(call);
+        boolean reset = call.getBoolean("reset", false);
+        JSObject result = new JSObject();
+        result.put("periodMs", metrics.getPeriodMs());
+        result.put("untimed", metrics.getUntimedCount());
+
+        JSArray methods = new JSArray();
+        for (MethodMetrics.Snapshot snapshot : metrics.snapshot(reset)) {
+            JSObject method = new JSObject();
+            method.put("method", snapshot.method);
+            method.put("calls", snapshot.calls);
+            method.put("resolved", snapshot.resolved);
+            method.put("rejected", snapshot.rejected);
+            method.put("latency", summaryObject(snapshot.latency));
+            method.put("permissionWait", summaryObject(snapshot.permissionWait));
+            methods.put(method);
+        }
+        result.put("methods", methods);
+        resolve(call, result);
+    }
+
+    @PluginMethod
+    public void configureDiagnostics(PluginCall call) {
+        beginCall(call);
+        int level;
+        switch (call.getString("level", "warn")) {
+            case "debug":
+                level = Diagnostics.DEBUG;
+                break;
+            case "info":
+                level = Diagnostics.INFO;
+                break;
+            case "warn":
+                level = Diagnostics.WARN;
+                break;
+            case "error":
+                level = Diagnostics.ERROR;
+                break;
+            case "off":
+                level = Diagnostics.OFF;
+                break;
+            default:
+                reject(call, "level must be debug, info, warn, error or off");
+                return;
+        }
+        diagnostics.setLevel(level);
+        resolve(call);
+    }
+
+    @PluginMethod
+    public void getDiagnostics(PluginCall call) {
+        beginCall(call);
+        boolean clear = call.getBoolean("clear", false);
+        JSObject result = new JSObject();
+        // Read before the dump, which resets it with clear
+        result.put("dropped", diagnostics.getDroppedCount());
+
+        JSArray events = new JSArray();
+        for (Diagnostics.Event event : diagnostics.dump(clear)) {
+            JSObject item = new JSObject();
+            item.put("time", event.time);
+            item.put("level", levelName(event.level));
+            item.put("source", event.source);
+            item.put("message", event.message);
+            if (event.error != null) {
+                item.put("error", String.valueOf(event.error));
+            }
+            events.put(item);
+        }
+        result.put("events", events);
+        resolve(call, result);
+    }
+
+    private static String levelName(int level) {
+        switch (level) {
+            case Diagnostics.DEBUG:
+                return "debug";
+            case Diagnostics.INFO:
+                return "info";
+            case Diagnostics.WARN:
+                return "warn";
+            default:
+                return "error";
+        }
+    }
+
+    @PluginMethod
+    public void configureTracing(PluginCall call) {
+        beginCall(call);
+        setTracing(call.getBoolean("enabled", false));
+        resolve(call);
+    }
+
+    /** Switches tracing for the sections begun from now on, the ones already open end on the tracer they began on. */
+    private void setTracing(boolean enabled) {
+        PluginTracer next = enabled ? new AndroidTracer() : PluginTracer.NONE;
+        tracer = next;
+        executor.setTracer(next);
+        scanCoordinator.setTracer(next);
+        connections.setTracer(next);
+    }
+
+    private static JSObject summaryObject(MethodMetrics.Summary summary) {
+        JSObject object = new JSObject();
+        object.put("count", summary.count);
+        object.put("p50", summary.p50Ms);
+        object.put("p90", summary.p90Ms);
+        object.put("p99", summary.p99Ms);
+        object.put("max", summary.maxMs);
+        object.put("mean", summary.meanMs);
+        return object;
+    }
+
+    @Override
+    protected void requestPermissionForAlias(@NonNull String alias, @NonNull PluginCall call, @NonNull String callbackName) {
+        metrics.permissionRequested(call);
+        super.requestPermissionForAlias(alias, call, callbackName);
+    }
+
+    /** Starts timing {@code call}, and its async trace slice while tracing is on. */
+    private void beginCall(PluginCall call) {
+        String method = call.getMethodName();
+        if (metrics.begin(call, method)) {
+            tracer.beginAsyncSection(method, System.identityHashCode(call));
+        }
+    }
+
+    private void endCall(PluginCall call, boolean resolved) {
+        String method = call.getMethodName();
+        if (metrics.end(call, method, resolved)) {
+            tracer.endAsyncSection(method, System.identityHashCode(call));
+        }
+        if (call.isKeepAlive()) {
+            // Settling a streaming call ends it: the JS callback is dropped and the bridge lets go of it
+            call.setKeepAlive(false);
+            call.release(getBridge());
+        }
+    }
+
+    /** The last scan results, traced as their own section: the binder call copies every result. */
+    private List<ScanResult> scanResults() {
+        PluginTracer sectionTracer = tracer;
+        sectionTracer.beginSection("getScanResults");
+        try {
+            return wifiManager.getScanResults();
+        } finally {
+            sectionTracer.endSection();
+        }
+    }
+
+    // Every call settles through these so its outcome and latency are recorded.
+
+    /** Sends one result of a keep-alive call without settling it, see {@link #endCall}. */
+    private void send(PluginCall call, JSObject data) {
+        call.resolve(data);
+    }
+
+    private void resolve(PluginCall call) {
+        endCall(call, true);
+        call.resolve();
+    }
+
+    private void resolve(PluginCall call, JSObject data) {
+        endCall(call, true);
+        call.resolve(data);
+    }
+
+    private void reject(PluginCall call, String message) {
+        endCall(call, false);
+        call.reject(message);
+    }
+
+    private void reject(PluginCall call, String message, String code) {
+        endCall(call, false);
+        call.reject(message, code);
+    }
+
+    private void reject(PluginCall call, String message, String code, JSObject data) {
+        endCall(call, false);
+        call.reject(message, code, data);
+    }
+
+    private void reject(PluginCall call, String message, Exception e) {
+        endCall(call, false);
+        call.reject(message, e);
+    }
+
+    /** Runs a plugin method on {@link #executor}, rejecting the call when the executor is saturated or shut down. */
+    private void runInBackground(String method, PluginCall call, Consumer<PluginCall> task) {
+        boolean accepted = executor.execute(
+            method,
+            () -> {
+                try {
+                    task.accept(call);
+                } catch (RuntimeException e) {
+                    reject(call, "Failed to run " + method, e);
+                }
+            },
+            () -> reject(call, "Plugin destroyed")
+        );
+        if (!accepted && executor.isShutdown()) {
+            // Not worth a retry, unlike a full queue
+            reject(call, "Plugin destroyed");
+        } else if (!accepted) {
+            reject(call, "Too many pending calls", "BUSY");
         }
     }
 
     @PluginMethod
     public void checkPermissions(PluginCall call) {
+        beginCall(call);
         JSObject result = new JSObject();
         result.put("location", getPermissionState("location").toString().toLowerCase());
-        call.resolve(result);
+        resolve(call, result);
     }
 
     @PluginMethod
     public void requestPermissions(PluginCall call) {
+        beginCall(call);
         if (getPermissionState("location") == PermissionState.GRANTED) {
             JSObject result = new JSObject();
             result.put("location", "granted");
-            call.resolve(result);
+            resolve(call, result);
         } else {
             requestPermissionForAlias("location", call, "permissionsCallback");
         }
@@ -672,34 +2245,109 @@ public class CapacitorWifiPlugin extends Plugin {
 
     @PermissionCallback
     private void permissionsCallback(PluginCall call) {
+        metrics.permissionResult(call, call.getMethodName());
+        if (getPermissionState("location") == PermissionState.GRANTED) {
+            connectionState.invalidateWifiInfo();
+        }
         JSObject result = new JSObject();
         result.put("location", getPermissionState("location").toString().toLowerCase());
-        call.resolve(result);
+        resolve(call, result);
     }
 
     @PluginMethod
     public void getPluginVersion(final PluginCall call) {
+        beginCall(call);
         try {
             final JSObject result = new JSObject();
             result.put("version", this.pluginVersion);
-            call.resolve(result);
+            resolve(call, result);
         } catch (final Exception e) {
-            call.reject("Could not get plugin version", e);
+            reject(call, "Could not get plugin version", e);
         }
     }
 
     @Override
     protected void handleOnDestroy() {
+        mainHandler.removeCallbacksAndMessages(null);
+        stopRssiUpdatesOnMainThread();
+        executor.shutdown();
+        boundClient.closeAll();
+        scanCoordinator.cancelAll("Plugin destroyed");
+        for (PluginCall call : delayedScanCalls) {
+            if (delayedScanCalls.remove(call)) {
+                reject(call, "Plugin destroyed");
+            }
+        }
         try {
-            if (scanResultsReceiver != null) {
+            if (scanResultsReceiver != null && scanResultsReceiverRegistered) {
+                scanResultsReceiverRegistered = false;
                 getContext().unregisterReceiver(scanResultsReceiver);
             }
-            if (networkCallback != null) {
-                connectivityManager.unregisterNetworkCallback(networkCallback);
+            if (configuredNetworksReceiver != null) {
+                getContext().unregisterReceiver(configuredNetworksReceiver);
+                configuredNetworksReceiver = null;
             }
+            connections.disconnect();
+            connectionState.unregister();
         } catch (Exception e) {
             // Receiver might not be registered
         }
         super.handleOnDestroy();
     }
+
+    /** Legacy entry of an addNetworks() batch, looked up in the index before any entry is saved. */
+    private static final class PendingConfiguration {
+
+        final int index;
+        final String ssid;
+        final int securityType;
+        final WifiConfiguration config;
+        final Integer existingId;
+
+        PendingConfiguration(int index, String ssid, int securityType, WifiConfiguration config, Integer existingId) {
+            this.index = index;
+            this.ssid = ssid;
+            this.securityType = securityType;
+            this.config = config;
+            this.existingId = existingId;
+        }
+    }
+
+    /** Callback of a connect() request, keeping its network so pooled connections can be closed on release. */
+    private final class RequestNetworkCallback extends ConnectivityManager.NetworkCallback {
+
+        private final ConnectionLifecycle.RequestCallback<Network> attempt;
+        private volatile Network network;
+
+        RequestNetworkCallback(ConnectionLifecycle.RequestCallback<Network> attempt) {
+            this.attempt = attempt;
+        }
+
+        @Override
+        public void onAvailable(@NonNull Network available) {
+            network = available;
+            attempt.onAvailable(available);
+        }
+
+        @Override
+        public void onLinkPropertiesChanged(@NonNull Network changed, @NonNull LinkProperties linkProperties) {
+            attempt.onLinkPropertiesChanged(hasRoutableAddress(linkProperties));
+        }
+
+        @Override
+        public void onCapabilitiesChanged(@NonNull Network changed, @NonNull NetworkCapabilities capabilities) {
+            attempt.onCapabilitiesChanged(capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED));
+        }
+
+        @Override
+        public void onLost(@NonNull Network lost) {
+            boundClient.closeRoute(lost);
+            attempt.onLost();
+        }
+
+        @Override
+        public void onUnavailable() {
+            attempt.onUnavailable();
+        }
+    }
 }
@@ -0,0 +1,94 @@
+package app.capgo.capacitorwifi;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Network ids of the saved Wi-Fi configurations, keyed by quoted SSID and security type, so that
+ * adding a network that is already configured updates it instead of adding a duplicate.
+ *
+ * Reading the configured list is a binder call that grows with the list, so the index is only
+ * rebuilt, on the next lookup, after {@link #invalidate} reported a change.
+ */
+class ConfiguredNetworkIndex {
+
+    static final class Entry {
+
+        final String quotedSsid;
+        final int securityType;
+        final int networkId;
+
+        Entry(String quotedSsid, int securityType, int networkId) {
+            this.quotedSsid = quotedSsid;
+            this.securityType = securityType;
+            this.networkId = networkId;
+        }
+    }
+
+    /** Reads the configured networks, or returns null when they can't be read right now. */
+    interface Source {
+        List<Entry> load();
+    }
+
+    private final Source source;
+    // Guarded by the ConfiguredNetworkIndex monitor
+    private Map<String, Integer> networkIds = new HashMap<>();
+    private boolean stale = true;
+    private long generation;
+
+    ConfiguredNetworkIndex(Source source) {
+        this.source = source;
+    }
+
+    /** Returns the id of the configured network, or null when there is none. */
+    Integer find(String quotedSsid, int securityType) {
+        refreshIfStale();
+        synchronized (this) {
+            return networkIds.get(key(quotedSsid, securityType));
+        }
+    }
+
+    /** Records a network added or updated by the plugin, without waiting for the broadcast. */
+    synchronized void put(String quotedSsid, int securityType, int networkId) {
+        networkIds.put(key(quotedSsid, securityType), networkId);
+    }
+
+    /** Marks the index stale, e.g. when the configured networks changed. */
+    synchronized void invalidate() {
+        generation++;
+        stale = true;
+    }
+
+    private void refreshIfStale() {
+        long loading;
+        synchronized (this) {
+            if (!stale) {
+                return;
+            }
+            loading = generation;
+        }
+
+        // Loaded outside the lock, the binder call may take a while on long lists.
+        List<Entry> entries = source.load();
+        if (entries == null) {
+            return;
+        }
+        Map<String, Integer> loaded = new HashMap<>();
+        for (Entry entry : entries) {
+            loaded.put(key(entry.quotedSsid, entry.securityType), entry.networkId);
+        }
+
+        synchronized (this) {
+            networkIds = loaded;
+            // A change reported while loading may be missing from the list, load again next time.
+            if (generation == loading) {
+                stale = false;
+            }
+        }
+    }
+
+    private static String key(String quotedSsid, int securityType) {
+        return securityType + ":" + quotedSsid;
+    }
+}
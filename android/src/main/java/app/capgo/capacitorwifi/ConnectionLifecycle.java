@@ -0,0 +1,608 @@
+package app.capgo.capacitorwifi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Table of the network requests filed by {@code connect()}, keyed by SSID/BSSID, as lock-free
+ * state machines.
+ *
+ * Requests for different networks live side by side, each with its own handle, status and
+ * release. A new {@code connect()} for a key supersedes the pending request for that key, and is
+ * answered from the table when the network is already available with the same credentials, once
+ * it is as ready as the new call asks. A call completes once the
+ * network reaches the {@link Readiness} it waits for, with the time each phase took. A request
+ * that times out or finds no network is filed again as its {@link RetryPolicy} allows, under the
+ * same handle.
+ * Every {@link Attempt} settles its call exactly once and releases each system request exactly
+ * once, whatever the interleaving of connect, disconnect, retries and system callbacks.
+ *
+ * @param <R> the platform request, e.g. {@code NetworkRequest}
+ * @param <N> the network handed to the callbacks, e.g. {@code Network}
+ */
+class ConnectionLifecycle<R, N> {
+
+    static final String TRACE_SECTION = "networkRequest";
+
+    /** Wraps {@code ConnectivityManager} so the state machine can run against a fake. */
+    interface Platform<R, N> {
+        /**
+         * Files {@code request}, reporting to {@code callback}, which gets {@code onUnavailable}
+         * after {@code timeoutMs} unless it is 0. Returns a token for {@link #release}.
+         */
+        Object request(R request, int timeoutMs, RequestCallback<N> callback);
+
+        void release(Object token);
+
+        /** Runs {@code task} after {@code delayMs}, used to file retries. */
+        void schedule(Runnable task, long delayMs);
+
+        /** Whether the network was seen by the last scan, telling a declined request from a missing network. */
+        boolean isInRange(String ssid, String bssid);
+    }
+
+    /** System callbacks of one request. */
+    interface RequestCallback<N> {
+        void onAvailable(N network);
+
+        /** The link properties changed: {@code hasAddress} when a routable IP address is assigned. */
+        void onLinkPropertiesChanged(boolean hasAddress);
+
+        /** The capabilities changed: {@code validated} once the system checked the network works. */
+        void onCapabilitiesChanged(boolean validated);
+
+        void onLost();
+
+        void onUnavailable();
+    }
+
+    interface Listener {
+        void onConnected(int handle, Timing timing);
+
+        void onFailed(Failure failure, String message);
+    }
+
+    enum State {
+        PENDING,
+        CONNECTED,
+        LOST,
+        FAILED,
+        RELEASED
+    }
+
+    /** When a connect call completes. */
+    enum Readiness {
+        /** As soon as the system hands out the network. */
+        AVAILABLE,
+        /** Once the network also has a routable IP address. */
+        IP_ASSIGNED,
+        /** Once the system validated the network, which only happens with internet access. */
+        VALIDATED
+    }
+
+    /** How a connect call waits for its network. */
+    static final class Settings {
+
+        static final Settings DEFAULT = new Settings(0, Readiness.AVAILABLE, RetryPolicy.NONE);
+
+        /** Time each try may take to reach {@link #waitFor}, 0 waits indefinitely. */
+        final int timeoutMs;
+        final Readiness waitFor;
+        final RetryPolicy retryPolicy;
+
+        Settings(int timeoutMs, Readiness waitFor, RetryPolicy retryPolicy) {
+            this.timeoutMs = Math.max(0, timeoutMs);
+            this.waitFor = waitFor;
+            this.retryPolicy = retryPolicy;
+        }
+    }
+
+    /**
+     * Time taken by each phase of the try that connected, in milliseconds: from the request to the
+     * network, from the network to its IP address, from the address to validation. -1 for phases
+     * that were not reached.
+     */
+    static final class Timing {
+
+        final long toAvailableMs;
+        final long toIpAssignedMs;
+        final long toValidatedMs;
+        /** From the connect call, retries included. */
+        final long totalMs;
+        final int tries;
+
+        Timing(long toAvailableMs, long toIpAssignedMs, long toValidatedMs, long totalMs, int tries) {
+            this.toAvailableMs = toAvailableMs;
+            this.toIpAssignedMs = toIpAssignedMs;
+            this.toValidatedMs = toValidatedMs;
+            this.totalMs = totalMs;
+            this.tries = tries;
+        }
+    }
+
+    /** Why a connect call failed, reported to JS as the rejection code. */
+    enum Failure {
+        /** The network was not found, or not ready, before the timeout. */
+        TIMEOUT,
+        /** The system found no matching network. */
+        UNAVAILABLE,
+        /** The network was in range but the user declined the system dialog. */
+        USER_REJECTED,
+        /** Cancelled, disconnected or superseded before the network became available. */
+        CANCELLED,
+        /** The system refused the request, e.g. for lack of permission. */
+        REQUEST_FAILED
+    }
+
+    final class Attempt {
+
+        final int handle;
+        final String ssid;
+        final String bssid;
+        private final String key;
+        private final Object credentials;
+        private final R request;
+        private final Settings settings;
+        private final Listener listener;
+        private final long createdAt;
+        private final AtomicReference<State> state = new AtomicReference<>(State.PENDING);
+        private final AtomicReference<Try> currentTry = new AtomicReference<>();
+        private final AtomicInteger tries = new AtomicInteger();
+        // Later connect calls for this network waiting for more readiness than it has yet
+        private final Queue<Upgrade> upgrades = new ConcurrentLinkedQueue<>();
+        private volatile N network;
+
+        private Attempt(int handle, String ssid, String bssid, Object credentials, R request, Settings settings, Listener listener) {
+            this.handle = handle;
+            this.ssid = ssid;
+            this.bssid = bssid;
+            this.key = key(ssid, bssid);
+            this.credentials = credentials;
+            this.request = request;
+            this.settings = settings;
+            this.listener = listener;
+            this.createdAt = clock.elapsedRealtime();
+        }
+
+        State getState() {
+            return state.get();
+        }
+
+        /** The network while it is available, null otherwise. */
+        N getNetwork() {
+            return network;
+        }
+
+        /** Number of times the request was filed. */
+        int getTries() {
+            return tries.get();
+        }
+
+        /** Phase timing of the current try. */
+        Timing getTiming() {
+            Try last = currentTry.get();
+            if (last == null) {
+                return new Timing(-1, -1, -1, clock.elapsedRealtime() - createdAt, tries.get());
+            }
+            return new Timing(
+                since(last.startedAt, last.availableAt),
+                since(last.availableAt, last.ipAssignedAt),
+                since(last.ipAssignedAt >= 0 ? last.ipAssignedAt : last.availableAt, last.validatedAt),
+                clock.elapsedRealtime() - createdAt,
+                tries.get()
+            );
+        }
+
+        /** Readiness the network reached on the current try, null while it is not available. */
+        private Readiness getReadiness() {
+            Try last = currentTry.get();
+            if (last == null || network == null || last.availableAt < 0) {
+                return null;
+            }
+            if (last.validatedAt >= 0) {
+                return Readiness.VALIDATED;
+            }
+            return last.ipAssignedAt >= 0 ? Readiness.IP_ASSIGNED : Readiness.AVAILABLE;
+        }
+
+        /**
+         * Completes a later connect call once the network, already connected, reaches the readiness
+         * it waits for. The call fails if that takes longer than its timeout or the network goes.
+         */
+        private void addUpgrade(Settings settings, Listener listener) {
+            Upgrade upgrade = new Upgrade(settings.waitFor, listener);
+            upgrades.add(upgrade);
+            // Settled meanwhile: end() or onLost() may have drained the queue before the add
+            if (state.get() != State.CONNECTED) {
+                failUpgrades(Failure.CANCELLED, "Network no longer connected");
+                return;
+            }
+            completeUpgrades();
+            if (settings.timeoutMs > 0) {
+                platform.schedule(
+                    () -> {
+                        if (upgrades.remove(upgrade)) {
+                            upgrade.fail(Failure.TIMEOUT, messageOf(Failure.TIMEOUT));
+                        }
+                    },
+                    settings.timeoutMs
+                );
+            }
+        }
+
+        private void completeUpgrades() {
+            Readiness readiness = getReadiness();
+            if (readiness == null || state.get() != State.CONNECTED) {
+                return;
+            }
+            for (Upgrade upgrade : upgrades) {
+                if (upgrade.waitFor.compareTo(readiness) <= 0 && upgrades.remove(upgrade)) {
+                    upgrade.listener.onConnected(handle, getTiming());
+                }
+            }
+        }
+
+        private void failUpgrades(Failure failure, String message) {
+            Upgrade upgrade;
+            while ((upgrade = upgrades.poll()) != null) {
+                upgrade.fail(failure, message);
+            }
+        }
+
+        /** Files the request once more, unless the attempt was settled meanwhile. */
+        private void startTry() {
+            if (state.get() != State.PENDING) {
+                return;
+            }
+            Try attemptTry = new Try(this, clock.elapsedRealtime(), tracer);
+            currentTry.set(attemptTry);
+            tries.incrementAndGet();
+
+            Object requestToken;
+            try {
+                requestToken = platform.request(request, settings.timeoutMs, attemptTry);
+            } catch (RuntimeException e) {
+                attempts.remove(key, this);
+                end(Failure.REQUEST_FAILED, "Failed to request network: " + e.getMessage());
+                return;
+            }
+            attemptTry.attach(requestToken);
+            // end() may have run between the state check and currentTry being set, and missed this try.
+            State current = state.get();
+            if (current == State.RELEASED || current == State.FAILED) {
+                attemptTry.release();
+                return;
+            }
+            // The system timeout only covers the wait for onAvailable, not the later phases.
+            if (settings.timeoutMs > 0 && settings.waitFor != Readiness.AVAILABLE) {
+                platform.schedule(
+                    () -> {
+                        if (state.get() == State.PENDING) {
+                            onTryFailed(attemptTry);
+                        }
+                    },
+                    settings.timeoutMs
+                );
+            }
+        }
+
+        private void onAvailable(Try from, N available) {
+            network = available;
+            if (from.availableAt < 0) {
+                from.availableAt = clock.elapsedRealtime();
+            }
+            if (!completeIfReady(from)) {
+                state.compareAndSet(State.LOST, State.CONNECTED);
+            }
+        }
+
+        private void onLinkPropertiesChanged(Try from, boolean hasAddress) {
+            if (hasAddress && from.ipAssignedAt < 0) {
+                from.ipAssignedAt = clock.elapsedRealtime();
+                completeIfReady(from);
+                completeUpgrades();
+            }
+        }
+
+        private void onCapabilitiesChanged(Try from, boolean validated) {
+            if (validated && from.validatedAt < 0) {
+                from.validatedAt = clock.elapsedRealtime();
+                completeIfReady(from);
+                completeUpgrades();
+            }
+        }
+
+        /** Completes the call once the network reaches the awaited readiness. Returns whether it did. */
+        private boolean completeIfReady(Try from) {
+            if (network == null || from.availableAt < 0) {
+                return false;
+            }
+            if (settings.waitFor == Readiness.IP_ASSIGNED && from.ipAssignedAt < 0) {
+                return false;
+            }
+            if (settings.waitFor == Readiness.VALIDATED && from.validatedAt < 0) {
+                return false;
+            }
+            if (state.compareAndSet(State.PENDING, State.CONNECTED)) {
+                listener.onConnected(handle, getTiming());
+                return true;
+            }
+            return false;
+        }
+
+        private void onLost() {
+            network = null;
+            state.compareAndSet(State.CONNECTED, State.LOST);
+            failUpgrades(Failure.CANCELLED, "Network lost");
+        }
+
+        private void onTryFailed(Try failed) {
+            if (state.get() != State.PENDING || !currentTry.compareAndSet(failed, null)) {
+                return;
+            }
+            failed.release();
+
+            Failure failure;
+            if (settings.timeoutMs > 0 && clock.elapsedRealtime() - failed.startedAt >= settings.timeoutMs) {
+                failure = Failure.TIMEOUT;
+            } else if (platform.isInRange(ssid, bssid)) {
+                failure = Failure.USER_REJECTED;
+            } else {
+                failure = Failure.UNAVAILABLE;
+            }
+
+            int attemptsMade = tries.get();
+            if (settings.retryPolicy.shouldRetry(attemptsMade, failure)) {
+                platform.schedule(this::startTry, settings.retryPolicy.delayMs(attemptsMade, random));
+                return;
+            }
+            if (state.compareAndSet(State.PENDING, State.FAILED)) {
+                attempts.remove(key, this);
+                listener.onFailed(failure, messageOf(failure));
+            }
+        }
+
+        /** Moves to {@code RELEASED}, failing the call if it is still pending. */
+        private void end(Failure failure, String message) {
+            State previous = state.getAndSet(State.RELEASED);
+            network = null;
+            Try last = currentTry.getAndSet(null);
+            if (last != null) {
+                last.release();
+            }
+            if (previous == State.PENDING) {
+                listener.onFailed(failure, message);
+            }
+            failUpgrades(failure, message);
+        }
+    }
+
+    /** A connect call answered by an attempt that is connected but not yet ready enough for it. */
+    private static final class Upgrade {
+
+        final Readiness waitFor;
+        final Listener listener;
+
+        Upgrade(Readiness waitFor, Listener listener) {
+            this.waitFor = waitFor;
+            this.listener = listener;
+        }
+
+        void fail(Failure failure, String message) {
+            listener.onFailed(failure, message);
+        }
+    }
+
+    /** One filing of an attempt's request. Callbacks of tries that were replaced are ignored. */
+    private final class Try implements RequestCallback<N> {
+
+        private final Attempt attempt;
+        private final long startedAt;
+        private final AtomicReference<Object> token = new AtomicReference<>();
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        private final PluginTracer sliceTracer;
+        private final int sliceCookie = nextSliceCookie.getAndIncrement();
+        // Phase timestamps, -1 until reached. The system delivers the callbacks of one request in order.
+        private volatile long availableAt = -1;
+        private volatile long ipAssignedAt = -1;
+        private volatile long validatedAt = -1;
+
+        Try(Attempt attempt, long startedAt, PluginTracer sliceTracer) {
+            this.attempt = attempt;
+            this.startedAt = startedAt;
+            this.sliceTracer = sliceTracer;
+            sliceTracer.beginAsyncSection(TRACE_SECTION, sliceCookie);
+        }
+
+        @Override
+        public void onAvailable(N network) {
+            if (attempt.currentTry.get() == this) {
+                attempt.onAvailable(this, network);
+            }
+        }
+
+        @Override
+        public void onLinkPropertiesChanged(boolean hasAddress) {
+            if (attempt.currentTry.get() == this) {
+                attempt.onLinkPropertiesChanged(this, hasAddress);
+            }
+        }
+
+        @Override
+        public void onCapabilitiesChanged(boolean validated) {
+            if (attempt.currentTry.get() == this) {
+                attempt.onCapabilitiesChanged(this, validated);
+            }
+        }
+
+        @Override
+        public void onLost() {
+            if (attempt.currentTry.get() == this) {
+                attempt.onLost();
+            }
+        }
+
+        @Override
+        public void onUnavailable() {
+            attempt.onTryFailed(this);
+        }
+
+        private void attach(Object requestToken) {
+            token.set(requestToken);
+            // release() may have run before the token was known: whoever takes the token releases it.
+            if (released.get() && token.compareAndSet(requestToken, null)) {
+                platform.release(requestToken);
+            }
+        }
+
+        private void release() {
+            if (!released.getAndSet(true)) {
+                sliceTracer.endAsyncSection(TRACE_SECTION, sliceCookie);
+            }
+            Object requestToken = token.getAndSet(null);
+            if (requestToken != null) {
+                platform.release(requestToken);
+            }
+        }
+    }
+
+    private final Platform<R, N> platform;
+    private final ScanScheduler.Clock clock;
+    private final DoubleSupplier random;
+    private final Map<String, Attempt> attempts = new ConcurrentHashMap<>();
+    private final AtomicInteger nextHandle = new AtomicInteger(1);
+    private final AtomicInteger nextSliceCookie = new AtomicInteger(1);
+    private volatile PluginTracer tracer = PluginTracer.NONE;
+
+    ConnectionLifecycle(Platform<R, N> platform, ScanScheduler.Clock clock, DoubleSupplier random) {
+        this.platform = platform;
+        this.clock = clock;
+        this.random = random;
+    }
+
+    /** Traces each filing of a request, from the request to its release, as a {@link #TRACE_SECTION} async slice. */
+    void setTracer(PluginTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /** Table key of a network: the SSID, pinned to {@code bssid} when set. */
+    private static String key(String ssid, String bssid) {
+        return bssid == null ? ssid : ssid + "\n" + bssid.toLowerCase(Locale.ROOT);
+    }
+
+    private static long since(long from, long to) {
+        return from < 0 || to < 0 ? -1 : to - from;
+    }
+
+    private static String messageOf(Failure failure) {
+        switch (failure) {
+            case TIMEOUT:
+                return "Timed out waiting for the network";
+            case USER_REJECTED:
+                return "Connection rejected by the user";
+            default:
+                return "Network unavailable";
+        }
+    }
+
+    /** Same as the full {@code connect}, with the request itself telling the credentials apart. */
+    Attempt connect(String ssid, String bssid, R request, Settings settings, Listener listener) {
+        return connect(ssid, bssid, request, request, settings, listener);
+    }
+
+    /**
+     * Files {@code request} for the network {@code ssid}, optionally pinned to {@code bssid},
+     * superseding the request for the same network. When that network is already available with
+     * equal {@code credentials}, the existing attempt is returned without filing a new request:
+     * {@code listener} completes right away if the network reached {@code settings.waitFor}, or
+     * once it does, within {@code settings.timeoutMs} and without retries. Other credentials file
+     * a new request in its place.
+     */
+    Attempt connect(String ssid, String bssid, Object credentials, R request, Settings settings, Listener listener) {
+        String key = key(ssid, bssid);
+        Attempt existing = attempts.get(key);
+        if (existing != null && existing.getState() == State.CONNECTED && Objects.equals(existing.credentials, credentials)) {
+            Readiness readiness = existing.getReadiness();
+            if (readiness != null && settings.waitFor.compareTo(readiness) <= 0) {
+                listener.onConnected(existing.handle, existing.getTiming());
+            } else {
+                existing.addUpgrade(settings, listener);
+            }
+            return existing;
+        }
+
+        Attempt attempt = new Attempt(nextHandle.getAndIncrement(), ssid, bssid, credentials, request, settings, listener);
+        Attempt previous = attempts.put(key, attempt);
+        if (previous != null) {
+            previous.end(Failure.CANCELLED, "Superseded by a newer connect call");
+        }
+        attempt.startTry();
+        return attempt;
+    }
+
+    /** Cancels the request with {@code handle} if it is still pending. Returns whether it was. */
+    boolean cancel(int handle) {
+        Attempt attempt = get(handle);
+        return attempt != null && attempt.getState() == State.PENDING && release(attempt, "Connect cancelled");
+    }
+
+    /** Releases the request with {@code handle}. Returns whether there was one. */
+    boolean release(int handle) {
+        Attempt attempt = get(handle);
+        return attempt != null && release(attempt, "Disconnected");
+    }
+
+    /** Releases every request for {@code ssid}, whatever their BSSID. Returns how many there were. */
+    int releaseSsid(String ssid) {
+        int count = 0;
+        for (Attempt attempt : attempts.values()) {
+            if (attempt.ssid.equals(ssid) && release(attempt, "Disconnected")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Releases every request. Returns how many there were. */
+    int disconnect() {
+        int count = 0;
+        for (Attempt attempt : attempts.values()) {
+            if (release(attempt, "Disconnected")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    Attempt get(int handle) {
+        // The table holds a handful of requests, a scan is cheaper than a second index.
+        for (Attempt attempt : attempts.values()) {
+            if (attempt.handle == handle) {
+                return attempt;
+            }
+        }
+        return null;
+    }
+
+    List<Attempt> list() {
+        return new ArrayList<>(attempts.values());
+    }
+
+    private boolean release(Attempt attempt, String message) {
+        if (!attempts.remove(attempt.key, attempt)) {
+            return false;
+        }
+        attempt.end(Failure.CANCELLED, message);
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+package app.capgo.capacitorwifi;
+
+import android.net.ConnectivityManager;
+import android.net.LinkAddress;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.wifi.WifiInfo;
+import android.net.wifi.WifiManager;
+import com.getcapacitor.JSObject;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+
+/**
+ * Immutable view of the active connection, gathered from one {@code getActiveNetwork()},
+ * {@code getNetworkCapabilities()}, {@code getLinkProperties()} and {@code getConnectionInfo()} call
+ * so that every attribute describes the same network.
+ */
+final class ConnectionSnapshot {
+
+    private static final String UNKNOWN_SSID = "<unknown ssid>";
+    private static final String PLACEHOLDER_BSSID = "02:00:00:00:00:00";
+    private static final String EMPTY_BSSID = "00:00:00:00:00:00";
+
+    final Network network;
+    final NetworkCapabilities capabilities;
+    final LinkProperties linkProperties;
+    final WifiInfo wifiInfo;
+    /** {@code System.currentTimeMillis()} when the snapshot was taken. */
+    final long timestamp;
+    /** The network changed and its capabilities or link properties have not been received yet. */
+    final boolean stale;
+
+    ConnectionSnapshot(
+        Network network,
+        NetworkCapabilities capabilities,
+        LinkProperties linkProperties,
+        WifiInfo wifiInfo,
+        long timestamp,
+        boolean stale
+    ) {
+        this.network = network;
+        this.capabilities = capabilities;
+        this.linkProperties = linkProperties;
+        this.wifiInfo = wifiInfo;
+        this.timestamp = timestamp;
+        this.stale = stale;
+    }
+
+    static ConnectionSnapshot capture(ConnectivityManager cm, WifiManager wifiManager) {
+        Network network = cm != null ? cm.getActiveNetwork() : null;
+        NetworkCapabilities capabilities = network != null ? cm.getNetworkCapabilities(network) : null;
+        LinkProperties linkProperties = network != null ? cm.getLinkProperties(network) : null;
+        WifiInfo wifiInfo = wifiManager != null ? wifiManager.getConnectionInfo() : null;
+        return new ConnectionSnapshot(network, capabilities, linkProperties, wifiInfo, System.currentTimeMillis(), false);
+    }
+
+    ConnectionSnapshot withWifiInfo(WifiInfo info) {
+        return new ConnectionSnapshot(network, capabilities, linkProperties, info, timestamp, stale);
+    }
+
+    boolean isVpn() {
+        return capabilities != null && capabilities.hasTransport(NetworkCapabilities.TRANSPORT_VPN);
+    }
+
+    /** The SSID without surrounding quotes, or {@code null} when it is unknown or hidden by missing permissions. */
+    String ssid() {
+        if (wifiInfo == null) {
+            return null;
+        }
+        String ssid = wifiInfo.getSSID();
+        if (ssid != null && ssid.length() >= 2 && ssid.startsWith("\"") && ssid.endsWith("\"")) {
+            ssid = ssid.substring(1, ssid.length() - 1);
+        }
+        return ssid == null || ssid.equals(UNKNOWN_SSID) ? null : ssid;
+    }
+
+    /** The BSSID, or {@code null} when it is unknown or hidden by missing permissions. */
+    String bssid() {
+        if (wifiInfo == null) {
+            return null;
+        }
+        String bssid = wifiInfo.getBSSID();
+        return bssid == null || bssid.equals(EMPTY_BSSID) || bssid.equals(PLACEHOLDER_BSSID) ? null : bssid;
+    }
+
+    JSObject toJSObject() {
+        JSObject result = new JSObject();
+        boolean connected = network != null;
+        result.put("connected", connected);
+        result.put("isWifi", capabilities != null && capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI));
+        result.put("isVpn", isVpn());
+        result.put("isValidated", capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED));
+
+        String ssid = ssid();
+        String bssid = bssid();
+        result.put("ssid", ssid != null ? ssid : JSObject.NULL);
+        result.put("bssid", bssid != null ? bssid : JSObject.NULL);
+        if (wifiInfo != null && bssid != null) {
+            result.put("rssi", wifiInfo.getRssi());
+            result.put("linkSpeed", wifiInfo.getLinkSpeed());
+            result.put("frequency", wifiInfo.getFrequency());
+        }
+
+        putAddresses(result);
+        result.put("timestamp", timestamp);
+        result.put("stale", stale);
+        return result;
+    }
+
+    /** Puts the IP addresses of the network, without the {@code NetworkInterface} fallback of getIpAddresses(). */
+    void putAddresses(JSObject result) {
+        if (linkProperties != null) {
+            for (LinkAddress address : linkProperties.getLinkAddresses()) {
+                InetAddress inetAddress = address.getAddress();
+                if (inetAddress instanceof Inet4Address) {
+                    putFirst(result, isPrivateIPv4(inetAddress) ? "ipv4" : "publicIpv4", inetAddress.getHostAddress());
+                } else if (inetAddress instanceof Inet6Address && !inetAddress.isLinkLocalAddress()) {
+                    putFirst(result, isPrivateIPv6(inetAddress) ? "ipv6" : "publicIpv6", inetAddress.getHostAddress());
+                }
+            }
+        }
+
+        // Some devices don't report the IPv4 address in LinkProperties
+        if (!result.has("ipv4") && !result.has("publicIpv4") && wifiInfo != null && wifiInfo.getIpAddress() != 0) {
+            int ipInt = wifiInfo.getIpAddress();
+            result.put("ipv4", (ipInt & 0xff) + "." + (ipInt >> 8 & 0xff) + "." + (ipInt >> 16 & 0xff) + "." + (ipInt >> 24 & 0xff));
+        }
+    }
+
+    private static void putFirst(JSObject result, String key, String value) {
+        if (!result.has(key)) {
+            result.put(key, value);
+        }
+    }
+
+    static boolean isPrivateIPv4(InetAddress address) {
+        if (!(address instanceof Inet4Address)) {
+            return false;
+        }
+        byte[] ip = address.getAddress();
+        // 10.0.0.0/8
+        if (ip[0] == 10) return true;
+        // 172.16.0.0/12
+        if (ip[0] == (byte) 172 && (ip[1] & 0xF0) == 16) return true;
+        // 192.168.0.0/16
+        if (ip[0] == (byte) 192 && ip[1] == (byte) 168) return true;
+        // 127.0.0.0/8 (loopback)
+        if (ip[0] == 127) return true;
+        return false;
+    }
+
+    static boolean isPrivateIPv6(InetAddress address) {
+        if (!(address instanceof Inet6Address)) {
+            return false;
+        }
+        // Link-local (fe80::/10) and loopback (::1) are private
+        return address.isLinkLocalAddress() || address.isLoopbackAddress();
+    }
+}
@@ -0,0 +1,161 @@
+package app.capgo.capacitorwifi;
+
+import android.net.ConnectivityManager;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.wifi.WifiInfo;
+import android.net.wifi.WifiManager;
+import android.os.Build;
+import androidx.annotation.NonNull;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a {@link ConnectionSnapshot} of the default network up to date from a persistent
+ * {@link ConnectivityManager.NetworkCallback}, so getters answer from memory instead of making
+ * binder calls.
+ *
+ * Callbacks replace the snapshot atomically. Between a network change and the arrival of its
+ * capabilities and link properties the snapshot is flagged {@code stale}. Below Android 12 the
+ * {@link WifiInfo} is not delivered with the capabilities, so it is dropped on each change and
+ * fetched again by the next getter.
+ */
+class ConnectionStateCache {
+
+    private final ConnectivityManager connectivityManager;
+    private final WifiManager wifiManager;
+    private final AtomicReference<ConnectionSnapshot> current = new AtomicReference<>();
+    private final ConnectivityManager.NetworkCallback callback;
+    private volatile boolean registered = false;
+
+    ConnectionStateCache(ConnectivityManager connectivityManager, WifiManager wifiManager) {
+        this.connectivityManager = connectivityManager;
+        this.wifiManager = wifiManager;
+        this.callback = Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+            ? new Callback(ConnectivityManager.NetworkCallback.FLAG_INCLUDE_LOCATION_INFO)
+            : new Callback();
+    }
+
+    void register() {
+        if (registered || connectivityManager == null) {
+            return;
+        }
+        try {
+            connectivityManager.registerDefaultNetworkCallback(callback);
+            registered = true;
+        } catch (RuntimeException e) {
+            // Getters fall back to reading the state directly
+            registered = false;
+        }
+    }
+
+    void unregister() {
+        if (!registered) {
+            return;
+        }
+        registered = false;
+        current.set(null);
+        try {
+            connectivityManager.unregisterNetworkCallback(callback);
+        } catch (IllegalArgumentException e) {
+            // Callback was not registered
+        }
+    }
+
+    /** Returns the current snapshot, reading it from the system only when no callback has been delivered yet. */
+    ConnectionSnapshot get() {
+        ConnectionSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            ConnectionSnapshot captured = ConnectionSnapshot.capture(connectivityManager, wifiManager);
+            if (!registered || current.compareAndSet(null, captured)) {
+                return captured;
+            }
+            snapshot = current.get();
+        }
+
+        if (snapshot.wifiInfo == null && snapshot.network != null && wifiManager != null) {
+            ConnectionSnapshot withInfo = snapshot.withWifiInfo(wifiManager.getConnectionInfo());
+            // Lose the race quietly: a newer snapshot from a callback wins.
+            current.compareAndSet(snapshot, withInfo);
+            return withInfo;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drops the cached {@link WifiInfo}, e.g. once location permission is granted and the SSID and
+     * BSSID are no longer redacted.
+     */
+    void invalidateWifiInfo() {
+        ConnectionSnapshot snapshot;
+        do {
+            snapshot = current.get();
+            if (snapshot == null || snapshot.wifiInfo == null) {
+                return;
+            }
+        } while (!current.compareAndSet(snapshot, snapshot.withWifiInfo(null)));
+    }
+
+    private void update(Network network, NetworkCapabilities capabilities, LinkProperties linkProperties) {
+        ConnectionSnapshot previous;
+        ConnectionSnapshot next;
+        do {
+            previous = current.get();
+            boolean sameNetwork = previous != null && network.equals(previous.network);
+            NetworkCapabilities caps = capabilities != null ? capabilities : sameNetwork ? previous.capabilities : null;
+            LinkProperties link = linkProperties != null ? linkProperties : sameNetwork ? previous.linkProperties : null;
+            WifiInfo info;
+            if (capabilities != null) {
+                info = wifiInfoOf(capabilities);
+            } else {
+                info = sameNetwork ? previous.wifiInfo : null;
+            }
+            next = new ConnectionSnapshot(network, caps, link, info, System.currentTimeMillis(), caps == null || link == null);
+        } while (!current.compareAndSet(previous, next));
+    }
+
+    private static WifiInfo wifiInfoOf(NetworkCapabilities capabilities) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && capabilities.getTransportInfo() instanceof WifiInfo) {
+            return (WifiInfo) capabilities.getTransportInfo();
+        }
+        return null;
+    }
+
+    private class Callback extends ConnectivityManager.NetworkCallback {
+
+        Callback() {
+            super();
+        }
+
+        Callback(int flags) {
+            super(flags);
+        }
+
+        @Override
+        public void onAvailable(@NonNull Network network) {
+            update(network, null, null);
+        }
+
+        @Override
+        public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities capabilities) {
+            update(network, capabilities, null);
+        }
+
+        @Override
+        public void onLinkPropertiesChanged(@NonNull Network network, @NonNull LinkProperties linkProperties) {
+            update(network, null, linkProperties);
+        }
+
+        @Override
+        public void onLost(@NonNull Network network) {
+            // Retried like update(): a concurrent get() or invalidateWifiInfo() must not make the loss go unrecorded.
+            ConnectionSnapshot previous;
+            do {
+                previous = current.get();
+                if (previous == null || !network.equals(previous.network)) {
+                    return;
+                }
+            } while (!current.compareAndSet(previous, new ConnectionSnapshot(null, null, null, null, System.currentTimeMillis(), false)));
+        }
+    }
+}
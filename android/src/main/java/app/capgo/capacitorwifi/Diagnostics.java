@@ -0,0 +1,196 @@
+package app.capgo.capacitorwifi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Level-gated diagnostic events, kept in a bounded ring and written to a {@link Sink} (logcat
+ * on Android).
+ *
+ * Events are recorded as the message constant plus the arguments the caller already has, and
+ * only turned into text when they are written to the sink or dumped. An event below both the
+ * ring level and the sink level costs a couple of comparisons, an event that goes in the ring
+ * overwrites the oldest slot without allocating.
+ */
+class Diagnostics {
+
+    // Same values as android.util.Log priorities
+    static final int DEBUG = 3;
+    static final int INFO = 4;
+    static final int WARN = 5;
+    static final int ERROR = 6;
+    static final int OFF = 8;
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    /** Where events are written as they happen, when it wants their level. */
+    interface Sink {
+        boolean isLoggable(int level);
+
+        void write(int level, String line, Throwable error);
+    }
+
+    static final class Event {
+
+        final long time;
+        final int level;
+        final String source;
+        final String message;
+        final Throwable error;
+
+        Event(long time, int level, String source, String message, Throwable error) {
+            this.time = time;
+            this.level = level;
+            this.source = source;
+            this.message = message;
+            this.error = error;
+        }
+    }
+
+    // Argument placeholders: no argument, and the argument is in the numbers column
+    private static final Object NONE = new Object();
+    private static final Object NUMBER = new Object();
+
+    private final Sink sink;
+    private final LongSupplier clock;
+    private volatile int ringLevel = WARN;
+
+    // Guarded by the Diagnostics monitor
+    private final long[] times;
+    private final int[] levels;
+    private final String[] sources;
+    private final String[] messages;
+    private final Object[] firstArgs;
+    private final Object[] secondArgs;
+    private final long[] numbers;
+    private final Throwable[] errors;
+    private int next;
+    private int size;
+    private long dropped;
+
+    Diagnostics(int capacity, Sink sink, LongSupplier clock) {
+        this.sink = sink;
+        this.clock = clock;
+        times = new long[capacity];
+        levels = new int[capacity];
+        sources = new String[capacity];
+        messages = new String[capacity];
+        firstArgs = new Object[capacity];
+        secondArgs = new Object[capacity];
+        numbers = new long[capacity];
+        errors = new Throwable[capacity];
+    }
+
+    /** Lowest level kept in the ring, {@link #OFF} keeps nothing. */
+    void setLevel(int level) {
+        ringLevel = level;
+    }
+
+    int getLevel() {
+        return ringLevel;
+    }
+
+    void log(int level, String source, String message) {
+        record(level, source, message, NONE, NONE, 0, null);
+    }
+
+    void log(int level, String source, String message, Object arg) {
+        record(level, source, message, arg, NONE, 0, null);
+    }
+
+    void log(int level, String source, String message, Object arg, Object secondArg) {
+        record(level, source, message, arg, secondArg, 0, null);
+    }
+
+    /** Takes numbers unboxed, so recording them doesn't allocate. */
+    void log(int level, String source, String message, long number) {
+        record(level, source, message, NUMBER, NONE, number, null);
+    }
+
+    void log(int level, String source, String message, Throwable error) {
+        record(level, source, message, NONE, NONE, 0, error);
+    }
+
+    /** Events in the ring, oldest first. */
+    synchronized List<Event> dump(boolean clear) {
+        List<Event> events = new ArrayList<>(size);
+        int capacity = times.length;
+        int first = (next - size + capacity) % capacity;
+        for (int i = 0; i < size; i++) {
+            int slot = (first + i) % capacity;
+            StringBuilder text = new StringBuilder();
+            appendMessage(text, messages[slot], firstArgs[slot], secondArgs[slot], numbers[slot]);
+            events.add(new Event(times[slot], levels[slot], sources[slot], text.toString(), errors[slot]));
+        }
+        if (clear) {
+            clearLocked();
+        }
+        return events;
+    }
+
+    synchronized void clear() {
+        clearLocked();
+    }
+
+    /** Events overwritten because the ring was full, since the last clear. */
+    synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    private void record(int level, String source, String message, Object arg, Object secondArg, long number, Throwable error) {
+        boolean toRing = level >= ringLevel;
+        boolean toSink = sink.isLoggable(level);
+        if (!toRing && !toSink) {
+            return;
+        }
+        if (toSink) {
+            StringBuilder line = new StringBuilder(source).append(": ");
+            appendMessage(line, message, arg, secondArg, number);
+            sink.write(level, line.toString(), error);
+        }
+        if (toRing) {
+            long time = clock.getAsLong();
+            synchronized (this) {
+                int slot = next;
+                times[slot] = time;
+                levels[slot] = level;
+                sources[slot] = source;
+                messages[slot] = message;
+                firstArgs[slot] = arg;
+                secondArgs[slot] = secondArg;
+                numbers[slot] = number;
+                errors[slot] = error;
+                next = (slot + 1) % times.length;
+                if (size < times.length) {
+                    size++;
+                } else {
+                    dropped++;
+                }
+            }
+        }
+    }
+
+    private void clearLocked() {
+        for (int i = 0; i < times.length; i++) {
+            firstArgs[i] = null;
+            secondArgs[i] = null;
+            errors[i] = null;
+        }
+        next = 0;
+        size = 0;
+        dropped = 0;
+    }
+
+    private static void appendMessage(StringBuilder line, String message, Object arg, Object secondArg, long number) {
+        line.append(message);
+        if (arg == NUMBER) {
+            line.append(": ").append(number);
+        } else if (arg != NONE) {
+            line.append(": ").append(arg);
+        }
+        if (secondArg != NONE) {
+            line.append(", ").append(secondArg);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package app.capgo.capacitorwifi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Call counters and latency histograms of the plugin methods.
+ *
+ * A call is timed from {@link #begin} to its first {@link #end}, and the time it spent waiting
+ * for a permission prompt is recorded apart. Calls in flight are kept in a fixed table and the
+ * histograms have fixed, log-scaled buckets, so once a method has been seen recording allocates
+ * nothing and takes no lock.
+ */
+class MethodMetrics {
+
+    /** Calls timed at once, calls beyond it are counted but not timed. */
+    static final int MAX_IN_FLIGHT = 128;
+    /** Calls that never settle, e.g. rejected by the bridge itself, give their slot up after this. */
+    static final long STALE_AFTER_MS = 10 * 60 * 1000;
+
+    static final class Summary {
+
+        final long count;
+        final double p50Ms;
+        final double p90Ms;
+        final double p99Ms;
+        final double maxMs;
+        final double meanMs;
+
+        Summary(long count, double p50Ms, double p90Ms, double p99Ms, double maxMs, double meanMs) {
+            this.count = count;
+            this.p50Ms = p50Ms;
+            this.p90Ms = p90Ms;
+            this.p99Ms = p99Ms;
+            this.maxMs = maxMs;
+            this.meanMs = meanMs;
+        }
+    }
+
+    static final class Snapshot {
+
+        final String method;
+        final long calls;
+        final long resolved;
+        final long rejected;
+        final Summary latency;
+        final Summary permissionWait;
+
+        Snapshot(String method, long calls, long resolved, long rejected, Summary latency, Summary permissionWait) {
+            this.method = method;
+            this.calls = calls;
+            this.resolved = resolved;
+            this.rejected = rejected;
+            this.latency = latency;
+            this.permissionWait = permissionWait;
+        }
+    }
+
+    /**
+     * Latency histogram over microseconds. Values below 16 µs have a bucket each, above that every
+     * power of two is split in 8 buckets, so a percentile is off by at most 12.5%.
+     */
+    static final class Histogram {
+
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+        private static final int MAX_EXPONENT = 36;
+        // The last bucket takes every value from 2^MAX_EXPONENT µs, about 19 hours
+        static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + 1;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong sumMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        void record(long micros) {
+            if (micros < 0) {
+                micros = 0;
+            }
+            counts.incrementAndGet(bucketOf(micros));
+            sumMicros.addAndGet(micros);
+            long max = maxMicros.get();
+            while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+                max = maxMicros.get();
+            }
+        }
+
+        Summary summarize(boolean reset) {
+            long[] snapshot = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = reset ? counts.getAndSet(i, 0) : counts.get(i);
+                count += snapshot[i];
+            }
+            long sum = reset ? sumMicros.getAndSet(0) : sumMicros.get();
+            long max = reset ? maxMicros.getAndSet(0) : maxMicros.get();
+            if (count == 0) {
+                return new Summary(0, 0, 0, 0, 0, 0);
+            }
+            return new Summary(
+                count,
+                toMs(Math.min(percentile(snapshot, count, 0.50), max)),
+                toMs(Math.min(percentile(snapshot, count, 0.90), max)),
+                toMs(Math.min(percentile(snapshot, count, 0.99), max)),
+                toMs(max),
+                toMs(sum) / count
+            );
+        }
+
+        static int bucketOf(long micros) {
+            if (micros < LINEAR_BUCKETS) {
+                return (int) micros;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            if (exponent >= MAX_EXPONENT) {
+                return BUCKETS - 1;
+            }
+            int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + sub;
+        }
+
+        /** Largest value that falls in {@code bucket}. */
+        static long upperBoundOf(int bucket) {
+            if (bucket < LINEAR_BUCKETS) {
+                return bucket;
+            }
+            if (bucket >= BUCKETS - 1) {
+                return Long.MAX_VALUE;
+            }
+            int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+            int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BUCKET_BITS);
+            return (1L << exponent) + (sub + 1) * width - 1;
+        }
+
+        private static long percentile(long[] counts, long total, double quantile) {
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBoundOf(i);
+                }
+            }
+            return upperBoundOf(counts.length - 1);
+        }
+
+        private static double toMs(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    private static final class Recorder {
+
+        final String method;
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong resolved = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final Histogram latency = new Histogram();
+        final Histogram permissionWait = new Histogram();
+
+        Recorder(String method) {
+            this.method = method;
+        }
+    }
+
+    private final LongSupplier nanoTime;
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    // Calls in flight: the call object, when it began and when it asked for a permission (0 when it did not)
+    private final AtomicReferenceArray<Object> inFlight = new AtomicReferenceArray<>(MAX_IN_FLIGHT);
+    private final AtomicLongArray startedAt = new AtomicLongArray(MAX_IN_FLIGHT);
+    private final AtomicLongArray permissionRequestedAt = new AtomicLongArray(MAX_IN_FLIGHT);
+    private final AtomicLong untimed = new AtomicLong();
+    private volatile long resetAt;
+
+    MethodMetrics(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.resetAt = nanoTime.getAsLong();
+    }
+
+    /**
+     * Starts timing {@code call}. A call that is already timed, e.g. after a permission prompt, keeps its start.
+     * Returns whether timing started, i.e. the {@link #end} that stops it is still to come.
+     */
+    boolean begin(Object call, String method) {
+        if (indexOf(call) >= 0) {
+            return false;
+        }
+        recorder(method).calls.incrementAndGet();
+        long now = nanoTime.getAsLong();
+        int start = slotOf(call);
+        for (int i = 0; i < MAX_IN_FLIGHT; i++) {
+            int slot = (start + i) & (MAX_IN_FLIGHT - 1);
+            Object current = inFlight.get(slot);
+            boolean free = current == null || now - startedAt.get(slot) > STALE_AFTER_MS * 1000000;
+            if (free && inFlight.compareAndSet(slot, current, call)) {
+                permissionRequestedAt.set(slot, 0);
+                startedAt.set(slot, now);
+                return true;
+            }
+        }
+        untimed.incrementAndGet();
+        return false;
+    }
+
+    void permissionRequested(Object call) {
+        int slot = indexOf(call);
+        if (slot >= 0) {
+            permissionRequestedAt.set(slot, nanoTime.getAsLong());
+        }
+    }
+
+    /** Records how long {@code call} waited for the permission prompt it is back from. */
+    void permissionResult(Object call, String method) {
+        int slot = indexOf(call);
+        if (slot < 0) {
+            return;
+        }
+        long requestedAt = permissionRequestedAt.getAndSet(slot, 0);
+        if (requestedAt != 0) {
+            recorder(method).permissionWait.record((nanoTime.getAsLong() - requestedAt) / 1000);
+        }
+    }
+
+    /** Counts an outcome of {@code call}, and records its latency the first time. Returns whether it stopped timing the call. */
+    boolean end(Object call, String method, boolean resolved) {
+        Recorder recorder = recorder(method);
+        (resolved ? recorder.resolved : recorder.rejected).incrementAndGet();
+        int slot = indexOf(call);
+        if (slot < 0) {
+            return false;
+        }
+        long duration = nanoTime.getAsLong() - startedAt.get(slot);
+        if (inFlight.compareAndSet(slot, call, null)) {
+            recorder.latency.record(duration / 1000);
+            return true;
+        }
+        return false;
+    }
+
+    /** Snapshots of every method seen so far, optionally starting a new period. */
+    List<Snapshot> snapshot(boolean reset) {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Recorder recorder : recorders.values()) {
+            snapshots.add(
+                new Snapshot(
+                    recorder.method,
+                    reset ? recorder.calls.getAndSet(0) : recorder.calls.get(),
+                    reset ? recorder.resolved.getAndSet(0) : recorder.resolved.get(),
+                    reset ? recorder.rejected.getAndSet(0) : recorder.rejected.get(),
+                    recorder.latency.summarize(reset),
+                    recorder.permissionWait.summarize(reset)
+                )
+            );
+        }
+        if (reset) {
+            untimed.set(0);
+            resetAt = nanoTime.getAsLong();
+        }
+        return snapshots;
+    }
+
+    /** Calls that found the in-flight table full and were not timed. */
+    long getUntimedCount() {
+        return untimed.get();
+    }
+
+    /** Milliseconds covered by the counters, since creation or the last reset. */
+    long getPeriodMs() {
+        return (nanoTime.getAsLong() - resetAt) / 1000000;
+    }
+
+    private Recorder recorder(String method) {
+        Recorder recorder = recorders.get(method);
+        if (recorder == null) {
+            Recorder created = new Recorder(method);
+            recorder = recorders.putIfAbsent(method, created);
+            if (recorder == null) {
+                recorder = created;
+            }
+        }
+        return recorder;
+    }
+
+    private int indexOf(Object call) {
+        int start = slotOf(call);
+        for (int i = 0; i < MAX_IN_FLIGHT; i++) {
+            int slot = (start + i) & (MAX_IN_FLIGHT - 1);
+            if (inFlight.get(slot) == call) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static int slotOf(Object call) {
+        int hash = System.identityHashCode(call);
+        return (hash ^ (hash >>> 16)) & (MAX_IN_FLIGHT - 1);
+    }
+}
@@ -0,0 +1,99 @@
+package app.capgo.capacitorwifi;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks the entries of an {@code addNetworks} batch before they are built into suggestions, so
+ * that one bad entry is reported on its own instead of failing the whole batch in the framework.
+ */
+class NetworkBatchValidator {
+
+    static final int MAX_SSID_BYTES = 32;
+
+    private final Set<String> seen = new HashSet<>();
+
+    /** Security type assumed for an entry without one. */
+    static int defaultSecurityType(String password) {
+        return password != null && !password.isEmpty() ? CapabilitiesParser.SECURITY_PSK : CapabilitiesParser.SECURITY_OPEN;
+    }
+
+    /**
+     * Returns why the entry can't be added, or null when it is valid. An entry with the same SSID
+     * and security type as an earlier valid one is a duplicate.
+     */
+    String validate(String ssid, String password, int securityType) {
+        if (ssid == null || ssid.isEmpty()) {
+            return "SSID is required";
+        }
+        if (ssid.getBytes(StandardCharsets.UTF_8).length > MAX_SSID_BYTES) {
+            return "SSID is longer than " + MAX_SSID_BYTES + " bytes";
+        }
+
+        boolean hasPassword = password != null && !password.isEmpty();
+        switch (securityType) {
+            case CapabilitiesParser.SECURITY_OPEN:
+            case CapabilitiesParser.SECURITY_OWE:
+                if (hasPassword) {
+                    return "Open networks take no password";
+                }
+                break;
+            case CapabilitiesParser.SECURITY_WEP:
+                if (!isWepKey(password)) {
+                    return "WEP key must be 5 or 13 characters, or 10 or 26 hex digits";
+                }
+                break;
+            case CapabilitiesParser.SECURITY_PSK:
+                if (!isWpaPassphrase(password)) {
+                    return "WPA2 passphrase must be 8 to 63 ASCII characters";
+                }
+                break;
+            case CapabilitiesParser.SECURITY_SAE:
+                if (!hasPassword) {
+                    return "WPA3 password is required";
+                }
+                break;
+            default:
+                return "Unsupported security type: " + securityType;
+        }
+
+        if (!seen.add(securityType + ":" + ssid)) {
+            return "Duplicate network in batch";
+        }
+        return null;
+    }
+
+    private static boolean isWpaPassphrase(String password) {
+        if (password == null || password.length() < 8 || password.length() > 63) {
+            return false;
+        }
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (c < 0x20 || c > 0x7e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWepKey(String key) {
+        return key != null && (key.length() == 5 || key.length() == 13 || isHexWepKey(key));
+    }
+
+    /** Whether {@code key} is a WEP key in hex digits, which goes into the configuration unquoted. */
+    static boolean isHexWepKey(String key) {
+        return key != null && (key.length() == 10 || key.length() == 26) && isHex(key);
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // Character.digit would also take non-ASCII digits
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,269 @@
+package app.capgo.capacitorwifi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of named worker threads running plugin methods off the Capacitor plugin thread.
+ *
+ * Each method runs in its own lane with a concurrency limit: tasks over the limit wait in the lane
+ * instead of occupying a worker, so a slow method (e.g. interface enumeration) can't take the
+ * whole pool and cheap calls keep going through.
+ */
+class PluginExecutor {
+
+    static final int DEFAULT_POOL_SIZE = 4;
+    static final int DEFAULT_QUEUE_CAPACITY = 128;
+
+    static final class MethodStats {
+
+        final String method;
+        final int limit;
+        final int running;
+        final int queued;
+        final long completed;
+        final long rejected;
+        final double averageWaitMs;
+        final double maxWaitMs;
+
+        MethodStats(String method, int limit, int running, int queued, long completed, long rejected, double averageWaitMs, double maxWaitMs) {
+            this.method = method;
+            this.limit = limit;
+            this.running = running;
+            this.queued = queued;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.averageWaitMs = averageWaitMs;
+            this.maxWaitMs = maxWaitMs;
+        }
+    }
+
+    // Lane and queue counters are guarded by the PluginExecutor monitor.
+    private final class Task implements Runnable {
+
+        final Lane lane;
+        final Runnable body;
+        final Runnable onDropped;
+        final long enqueuedAt = System.nanoTime();
+
+        Task(Lane lane, Runnable body, Runnable onDropped) {
+            this.lane = lane;
+            this.body = body;
+            this.onDropped = onDropped;
+        }
+
+        @Override
+        public void run() {
+            long wait = System.nanoTime() - enqueuedAt;
+            synchronized (PluginExecutor.this) {
+                queued--;
+                lane.waits++;
+                lane.totalWaitNanos += wait;
+                lane.maxWaitNanos = Math.max(lane.maxWaitNanos, wait);
+            }
+            PluginTracer sectionTracer = tracer;
+            sectionTracer.beginSection(lane.method);
+            try {
+                body.run();
+            } finally {
+                sectionTracer.endSection();
+                onFinished(lane);
+            }
+        }
+    }
+
+    private static final class Lane {
+
+        final String method;
+        int limit;
+        int running = 0;
+        final ArrayDeque<Task> waiting = new ArrayDeque<>();
+        long completed = 0;
+        long rejected = 0;
+        long waits = 0;
+        long totalWaitNanos = 0;
+        long maxWaitNanos = 0;
+
+        Lane(String method, int limit) {
+            this.method = method;
+            this.limit = limit;
+        }
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final int queueCapacity;
+    private final Map<String, Integer> limits = new HashMap<>();
+    private final Map<String, Lane> lanes = new LinkedHashMap<>();
+    // Tasks waiting in a lane or in the pool queue, bounded by queueCapacity
+    private int queued = 0;
+    private volatile PluginTracer tracer = PluginTracer.NONE;
+
+    PluginExecutor(String name, int poolSize, int queueCapacity) {
+        int threads = Math.max(1, poolSize);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // Lanes bound the number of submitted tasks, the pool queue itself never fills up.
+        pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(this.queueCapacity), factory);
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    /** Limits how many calls of {@code method} run at once. Methods without a limit may use the whole pool. */
+    synchronized void setMethodLimit(String method, int maxConcurrent) {
+        int limit = Math.max(1, maxConcurrent);
+        limits.put(method, limit);
+        Lane lane = lanes.get(method);
+        if (lane != null) {
+            lane.limit = limit;
+        }
+    }
+
+    /** Wraps each task from now on in a trace section named after its method. */
+    void setTracer(PluginTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /** Runs {@code task} as a call of {@code method}. Returns {@code false} when the queue is full or the executor is shut down. */
+    boolean execute(String method, Runnable task) {
+        return execute(method, task, null);
+    }
+
+    /**
+     * Same as {@link #execute(String, Runnable)}, with {@code onDropped} run instead of
+     * {@code task} when the executor is shut down before the task started.
+     */
+    boolean execute(String method, Runnable task, Runnable onDropped) {
+        Task toSubmit;
+        synchronized (this) {
+            Lane lane = lanes.get(method);
+            if (lane == null) {
+                Integer limit = limits.get(method);
+                lane = new Lane(method, limit != null ? limit : pool.getMaximumPoolSize());
+                lanes.put(method, lane);
+            }
+            if (queued >= queueCapacity || pool.isShutdown()) {
+                lane.rejected++;
+                return false;
+            }
+
+            Task wrapped = new Task(lane, task, onDropped);
+            queued++;
+            if (lane.running >= lane.limit) {
+                lane.waiting.add(wrapped);
+                return true;
+            }
+            lane.running++;
+            toSubmit = wrapped;
+        }
+        return submit(toSubmit);
+    }
+
+    synchronized int getQueueDepth() {
+        return queued;
+    }
+
+    int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    /** Whether {@link #shutdown} was called, telling a refused task from a full queue. */
+    boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    int getPoolSize() {
+        return pool.getMaximumPoolSize();
+    }
+
+    synchronized MethodStats[] getMethodStats() {
+        MethodStats[] stats = new MethodStats[lanes.size()];
+        int i = 0;
+        for (Lane lane : lanes.values()) {
+            stats[i++] = new MethodStats(
+                lane.method,
+                lane.limit,
+                lane.running,
+                lane.waiting.size(),
+                lane.completed,
+                lane.rejected,
+                lane.waits == 0 ? 0 : lane.totalWaitNanos / 1e6 / lane.waits,
+                lane.maxWaitNanos / 1e6
+            );
+        }
+        return stats;
+    }
+
+    /** Stops the workers. Tasks that did not start are dropped, running their {@code onDropped}. */
+    void shutdown() {
+        List<Task> dropped = new ArrayList<>();
+        synchronized (this) {
+            // From here execute() rejects, and finishing tasks find their lane empty.
+            pool.shutdown();
+            for (Lane lane : lanes.values()) {
+                queued -= lane.waiting.size();
+                lane.rejected += lane.waiting.size();
+                dropped.addAll(lane.waiting);
+                lane.waiting.clear();
+            }
+        }
+        for (Runnable task : pool.shutdownNow()) {
+            Task notStarted = (Task) task;
+            synchronized (this) {
+                queued--;
+                notStarted.lane.running--;
+                notStarted.lane.rejected++;
+            }
+            dropped.add(notStarted);
+        }
+        for (Task task : dropped) {
+            if (task.onDropped != null) {
+                task.onDropped.run();
+            }
+        }
+    }
+
+    private boolean submit(Task task) {
+        try {
+            pool.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                queued--;
+                task.lane.running--;
+                task.lane.rejected++;
+            }
+            return false;
+        }
+    }
+
+    private void onFinished(Lane lane) {
+        Task next;
+        synchronized (this) {
+            lane.completed++;
+            next = lane.waiting.poll();
+            if (next == null) {
+                lane.running--;
+                return;
+            }
+        }
+        // The lane keeps its slot and hands it to the next waiting call. This only fails after
+        // shutdown raced with this task finishing, the next call is dropped then.
+        if (!submit(next) && next.onDropped != null) {
+            next.onDropped.run();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package app.capgo.capacitorwifi;
+
+/**
+ * Named trace sections around the plugin's methods and slow phases, {@code android.os.Trace} on
+ * Android so they show up in Perfetto and systrace captures.
+ *
+ * Sections are only written while tracing is enabled: when it is off callers hold {@link #NONE},
+ * whose methods do nothing, so a traced path costs one call per section and builds no names.
+ * Callers read the tracer once and end a section on the instance they began it on, so switching
+ * tracing on or off mid-call never leaves a thread's sections unbalanced. An async slice spanning
+ * the switch may be left open or ended without a begin, which trace viewers drop.
+ */
+interface PluginTracer {
+    PluginTracer NONE = new PluginTracer() {
+        @Override
+        public void beginSection(String name) {}
+
+        @Override
+        public void endSection() {}
+
+        @Override
+        public void beginAsyncSection(String name, int cookie) {}
+
+        @Override
+        public void endAsyncSection(String name, int cookie) {}
+    };
+
+    /** Begins a section on the current thread, ended by the next {@link #endSection} on that thread. */
+    void beginSection(String name);
+
+    void endSection();
+
+    /** Begins a slice that may end on another thread, matched to its end by {@code name} and {@code cookie}. */
+    void beginAsyncSection(String name, int cookie);
+
+    void endAsyncSection(String name, int cookie);
+}
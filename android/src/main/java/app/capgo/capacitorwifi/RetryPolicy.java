@@ -0,0 +1,56 @@
+package app.capgo.capacitorwifi;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * When and how long to wait before filing a failed network request again: exponential backoff
+ * with random jitter, so devices that lost the same access point don't all come back at once.
+ */
+final class RetryPolicy {
+
+    static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 1, 0);
+
+    static final int DEFAULT_MAX_ATTEMPTS = 3;
+    static final long DEFAULT_INITIAL_DELAY_MS = 1000;
+    static final long DEFAULT_MAX_DELAY_MS = 30000;
+    static final double DEFAULT_MULTIPLIER = 2;
+    static final double DEFAULT_JITTER = 0.5;
+
+    final int maxAttempts;
+    final long initialDelayMs;
+    final long maxDelayMs;
+    final double multiplier;
+    final double jitter;
+
+    /**
+     * @param maxAttempts total number of attempts, the first one included
+     * @param jitter fraction of each delay that is randomized, between 0 and 1
+     */
+    RetryPolicy(int maxAttempts, long initialDelayMs, long maxDelayMs, double multiplier, double jitter) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialDelayMs = Math.max(0, initialDelayMs);
+        this.maxDelayMs = Math.max(this.initialDelayMs, maxDelayMs);
+        this.multiplier = Math.max(1, multiplier);
+        this.jitter = Math.min(1, Math.max(0, jitter));
+    }
+
+    /** Whether a request that failed with {@code failure} after {@code attempts} attempts is filed again. */
+    boolean shouldRetry(int attempts, ConnectionLifecycle.Failure failure) {
+        if (attempts >= maxAttempts) {
+            return false;
+        }
+        // A user who declined the dialog, or a cancelled call, must not be asked again.
+        return failure == ConnectionLifecycle.Failure.TIMEOUT || failure == ConnectionLifecycle.Failure.UNAVAILABLE;
+    }
+
+    /**
+     * Delay before attempt {@code attempts + 1}: {@code initialDelayMs * multiplier^(attempts - 1)},
+     * capped at {@code maxDelayMs}, of which the {@code jitter} fraction is scaled by {@code random}
+     * (a value in [0, 1)).
+     */
+    long delayMs(int attempts, DoubleSupplier random) {
+        double delay = initialDelayMs * Math.pow(multiplier, Math.max(0, attempts - 1));
+        delay = Math.min(delay, maxDelayMs);
+        return Math.round(delay * (1 - jitter) + delay * jitter * random.getAsDouble());
+    }
+}
@@ -0,0 +1,82 @@
+package app.capgo.capacitorwifi;
+
+/**
+ * Decides which RSSI samples are worth an {@code rssiChanged} event: a sample is emitted only when
+ * it moved at least {@code hysteresisDb} away from the last emitted value, and at most once per
+ * {@code minIntervalMs}.
+ *
+ * A sample that moved but arrived too early is kept as pending and emitted by
+ * {@link #flushPending()} once the interval has elapsed, so the last value is never lost.
+ */
+class RssiFilter {
+
+    static final long NO_PENDING = -1;
+
+    private final ScanScheduler.Clock clock;
+    private final long minIntervalMs;
+    private final int hysteresisDb;
+
+    private boolean hasEmitted = false;
+    private int lastEmitted;
+    private long lastEmittedAt;
+    private boolean hasPending = false;
+    private int pending;
+
+    RssiFilter(ScanScheduler.Clock clock, long minIntervalMs, int hysteresisDb) {
+        this.clock = clock;
+        this.minIntervalMs = Math.max(0, minIntervalMs);
+        this.hysteresisDb = Math.max(0, hysteresisDb);
+    }
+
+    /** Returns whether {@code rssi} should be emitted now. */
+    synchronized boolean offer(int rssi) {
+        if (hasEmitted && Math.abs(rssi - lastEmitted) < Math.max(1, hysteresisDb)) {
+            // Back within the band around the last emitted value: nothing to report.
+            hasPending = false;
+            return false;
+        }
+
+        long now = clock.elapsedRealtime();
+        if (hasEmitted && now - lastEmittedAt < minIntervalMs) {
+            hasPending = true;
+            pending = rssi;
+            return false;
+        }
+
+        emit(rssi, now);
+        return true;
+    }
+
+    /** Emits the pending sample if its interval has elapsed, returning whether it did. */
+    synchronized boolean flushPending() {
+        long now = clock.elapsedRealtime();
+        if (!hasPending || now - lastEmittedAt < minIntervalMs) {
+            return false;
+        }
+        emit(pending, now);
+        return true;
+    }
+
+    /** Milliseconds until {@link #flushPending()} can emit, or {@link #NO_PENDING}. */
+    synchronized long millisUntilFlush() {
+        if (!hasPending) {
+            return NO_PENDING;
+        }
+        return Math.max(0, lastEmittedAt + minIntervalMs - clock.elapsedRealtime());
+    }
+
+    synchronized boolean hasEmitted() {
+        return hasEmitted;
+    }
+
+    synchronized int lastEmitted() {
+        return lastEmitted;
+    }
+
+    private void emit(int rssi, long now) {
+        hasEmitted = true;
+        hasPending = false;
+        lastEmitted = rssi;
+        lastEmittedAt = now;
+    }
+}
@@ -0,0 +1,140 @@
+package app.capgo.capacitorwifi;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recent RSSI samples per BSSID, kept in fixed-capacity primitive ring buffers so recording a
+ * sample never allocates. Only the most recently used BSSIDs are kept.
+ */
+class RssiHistory {
+
+    static final int DEFAULT_CAPACITY = 512;
+    static final int DEFAULT_MAX_BSSIDS = 16;
+
+    static final class Stats {
+
+        final int count;
+        final int min;
+        final int max;
+        final double mean;
+        final double stddev;
+        final int p50;
+        final int p95;
+
+        Stats(int count, int min, int max, double mean, double stddev, int p50, int p95) {
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.stddev = stddev;
+            this.p50 = p50;
+            this.p95 = p95;
+        }
+    }
+
+    private static final class RingBuffer {
+
+        final int[] samples;
+        final long[] timestamps;
+        int next = 0;
+        int size = 0;
+
+        RingBuffer(int capacity) {
+            samples = new int[capacity];
+            timestamps = new long[capacity];
+        }
+
+        void add(int rssi, long timestamp) {
+            samples[next] = rssi;
+            timestamps[next] = timestamp;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+        }
+    }
+
+    private final ScanScheduler.Clock clock;
+    private final int capacity;
+    private final Map<String, RingBuffer> buffers;
+    // Reused by stats(), sized to one full buffer
+    private final int[] scratch;
+
+    RssiHistory(ScanScheduler.Clock clock) {
+        this(clock, DEFAULT_CAPACITY, DEFAULT_MAX_BSSIDS);
+    }
+
+    RssiHistory(ScanScheduler.Clock clock, int capacity, int maxBssids) {
+        this.clock = clock;
+        this.capacity = capacity;
+        this.scratch = new int[capacity];
+        this.buffers = new LinkedHashMap<String, RingBuffer>(maxBssids, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RingBuffer> eldest) {
+                return size() > maxBssids;
+            }
+        };
+    }
+
+    synchronized void record(String bssid, int rssi) {
+        if (bssid == null) {
+            return;
+        }
+        RingBuffer buffer = buffers.get(bssid);
+        if (buffer == null) {
+            buffer = new RingBuffer(capacity);
+            buffers.put(bssid, buffer);
+        }
+        buffer.add(rssi, clock.elapsedRealtime());
+    }
+
+    /** Statistics over the samples of {@code bssid} from the last {@code windowMs}, or {@code null} when there are none. */
+    synchronized Stats stats(String bssid, long windowMs) {
+        RingBuffer buffer = bssid != null ? buffers.get(bssid) : null;
+        if (buffer == null) {
+            return null;
+        }
+
+        long since = clock.elapsedRealtime() - windowMs;
+        int count = 0;
+        long sum = 0;
+        long sumOfSquares = 0;
+        // Walk back from the newest sample; timestamps are in recording order.
+        for (int i = 0; i < buffer.size; i++) {
+            int index = (buffer.next - 1 - i + capacity) % capacity;
+            if (buffer.timestamps[index] < since) {
+                break;
+            }
+            int rssi = buffer.samples[index];
+            scratch[count++] = rssi;
+            sum += rssi;
+            sumOfSquares += (long) rssi * rssi;
+        }
+        if (count == 0) {
+            return null;
+        }
+
+        Arrays.sort(scratch, 0, count);
+        double mean = (double) sum / count;
+        double variance = Math.max(0, (double) sumOfSquares / count - mean * mean);
+        return new Stats(
+            count,
+            scratch[0],
+            scratch[count - 1],
+            mean,
+            Math.sqrt(variance),
+            percentile(scratch, count, 50),
+            percentile(scratch, count, 95)
+        );
+    }
+
+    synchronized void clear() {
+        buffers.clear();
+    }
+
+    /** Nearest-rank percentile of the first {@code count} values of {@code sorted}. */
+    static int percentile(int[] sorted, int count, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * count);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,153 @@
+package app.capgo.capacitorwifi;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes scan results in a compact columnar layout, decoded on the JS side by
+ * {@code decodeNetworkColumns()} into typed arrays.
+ *
+ * Layout (little-endian), every column starts aligned on its element size:
+ * <pre>
+ * header     16 bytes  'W' 'C' version reserved, u32 count, u32 ssid count, u32 dictionary bytes
+ * frequency  u32 x count
+ * ssidIndex  u16 x count  index into the SSID dictionary
+ * rssi       i8  x count
+ * security   u8  x count  strongest NetworkSecurityType accepted
+ * bssid      6 bytes x count, 48-bit MAC address, most significant byte first
+ * dictionary for each distinct SSID: u16 byte length, UTF-8 bytes
+ * </pre>
+ */
+class ScanColumnsEncoder {
+
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int MAX_NETWORKS = 0xFFFF;
+
+    private int count = 0;
+    private int[] frequency;
+    private short[] ssidIndex;
+    private byte[] rssi;
+    private byte[] security;
+    private long[] bssid;
+
+    private final Map<String, Integer> ssidIds = new HashMap<>();
+    private final List<byte[]> ssidBytes = new ArrayList<>();
+    private int dictionaryBytes = 0;
+
+    ScanColumnsEncoder(int expectedCount) {
+        int capacity = Math.max(1, expectedCount);
+        frequency = new int[capacity];
+        ssidIndex = new short[capacity];
+        rssi = new byte[capacity];
+        security = new byte[capacity];
+        bssid = new long[capacity];
+    }
+
+    void add(String bssidText, String ssid, int rssiDbm, int frequencyMhz, int securityType) {
+        if (count == MAX_NETWORKS) {
+            throw new IllegalStateException("Too many networks for the columnar encoding");
+        }
+        if (count == frequency.length) {
+            grow();
+        }
+
+        frequency[count] = frequencyMhz;
+        ssidIndex[count] = (short) ssidId(ssid != null ? ssid : "");
+        rssi[count] = (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, rssiDbm));
+        security[count] = (byte) securityType;
+        bssid[count] = parseBssid(bssidText);
+        count++;
+    }
+
+    int size() {
+        return count;
+    }
+
+    byte[] encode() {
+        int size = HEADER_SIZE + count * (4 + 2 + 1 + 1 + 6) + ssidBytes.size() * 2 + dictionaryBytes;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.put((byte) 'W').put((byte) 'C').put(VERSION).put((byte) 0);
+        buffer.putInt(count);
+        buffer.putInt(ssidBytes.size());
+        buffer.putInt(dictionaryBytes + ssidBytes.size() * 2);
+
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(frequency[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putShort(ssidIndex[i]);
+        }
+        buffer.put(rssi, 0, count);
+        buffer.put(security, 0, count);
+        for (int i = 0; i < count; i++) {
+            long mac = bssid[i];
+            for (int shift = 40; shift >= 0; shift -= 8) {
+                buffer.put((byte) (mac >>> shift));
+            }
+        }
+        for (byte[] bytes : ssidBytes) {
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+
+        return buffer.array();
+    }
+
+    /** Parses {@code aa:bb:cc:dd:ee:ff} into a 48-bit value, 0 when it is missing or malformed. */
+    static long parseBssid(String text) {
+        if (text == null || text.length() != 17) {
+            return 0;
+        }
+
+        long value = 0;
+        for (int i = 0; i < 17; i++) {
+            char c = text.charAt(i);
+            if (i % 3 == 2) {
+                if (c != ':' && c != '-') {
+                    return 0;
+                }
+                continue;
+            }
+            int digit = Character.digit(c, 16);
+            if (digit < 0) {
+                return 0;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private int ssidId(String ssid) {
+        Integer id = ssidIds.get(ssid);
+        if (id != null) {
+            return id;
+        }
+
+        byte[] bytes = ssid.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            bytes = new byte[0];
+        }
+        id = ssidBytes.size();
+        ssidIds.put(ssid, id);
+        ssidBytes.add(bytes);
+        dictionaryBytes += bytes.length;
+        return id;
+    }
+
+    private void grow() {
+        int capacity = Math.min(MAX_NETWORKS, frequency.length * 2);
+        frequency = Arrays.copyOf(frequency, capacity);
+        ssidIndex = Arrays.copyOf(ssidIndex, capacity);
+        rssi = Arrays.copyOf(rssi, capacity);
+        security = Arrays.copyOf(security, capacity);
+        bssid = Arrays.copyOf(bssid, capacity);
+    }
+}
@@ -0,0 +1,267 @@
+package app.capgo.capacitorwifi;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps at most one Wi-Fi scan in flight. Callers that ask for a scan while one is already
+ * running join it instead of spending another slot of the system scan budget, and callers
+ * that want the results are completed together once the results broadcast arrives.
+ *
+ * The lifecycle is a lock-free state machine: every transition swaps an immutable {@link State}
+ * with compare-and-set, and waiters are drained by the same swap that moves the state back to
+ * idle, so each waiter is completed exactly once. Only the caller that moved the state to
+ * {@code STARTING} calls {@code startScan}, and only that caller leaves {@code STARTING}.
+ */
+class ScanCoordinator {
+
+    interface Waiter {
+        void onScanCompleted(boolean resultsUpdated);
+
+        void onScanFailed(String message);
+    }
+
+    enum Outcome {
+        STARTED,
+        JOINED,
+        THROTTLED,
+        FAILED
+    }
+
+    private enum Phase {
+        IDLE,
+        STARTING,
+        IN_FLIGHT
+    }
+
+    /** Immutable stack of waiters. */
+    private static final class Node {
+
+        final Waiter waiter;
+        final Node next;
+
+        Node(Waiter waiter, Node next) {
+            this.waiter = waiter;
+            this.next = next;
+        }
+    }
+
+    private static final class State {
+
+        final Phase phase;
+        final Node waiters;
+
+        State(Phase phase, Node waiters) {
+            this.phase = phase;
+            this.waiters = waiters;
+        }
+
+        State withWaiter(Waiter waiter) {
+            return waiter == null ? this : new State(phase, new Node(waiter, waiters));
+        }
+    }
+
+    private static final State IDLE = new State(Phase.IDLE, null);
+
+    private final AtomicReference<State> state = new AtomicReference<>(IDLE);
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+
+    static final String TRACE_SECTION = "wifiScan";
+    private volatile PluginTracer tracer = PluginTracer.NONE;
+    // Tracer the running scan's slice was begun on, ended by the transition out of IN_FLIGHT
+    private volatile PluginTracer scanSliceTracer = PluginTracer.NONE;
+    private int scanSliceCookie;
+
+    /**
+     * Starts a scan through {@code startScan} unless one is already running, in which case the
+     * request joins it. {@code waiter} may be null when the caller does not wait for results.
+     */
+    Outcome requestScan(Waiter waiter, BooleanSupplier startScan) {
+        requested.incrementAndGet();
+        while (true) {
+            State current = state.get();
+            if (current.phase != Phase.IDLE) {
+                if (state.compareAndSet(current, current.withWaiter(waiter))) {
+                    coalesced.incrementAndGet();
+                    return Outcome.JOINED;
+                }
+                continue;
+            }
+            // The caller's own waiter is only added once the scan is accepted, so a refused start
+            // never completes it.
+            if (state.compareAndSet(current, new State(Phase.STARTING, null))) {
+                break;
+            }
+        }
+
+        boolean accepted;
+        try {
+            accepted = startScan.getAsBoolean();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            abortStart("Failed to start scan");
+            return Outcome.FAILED;
+        }
+
+        if (!accepted) {
+            throttled.incrementAndGet();
+            abortStart("Scan was throttled");
+            return Outcome.THROTTLED;
+        }
+
+        started.incrementAndGet();
+        beginScanSlice();
+        State current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, new State(Phase.IN_FLIGHT, current.waiters).withWaiter(waiter)));
+        return Outcome.STARTED;
+    }
+
+    /**
+     * Called when {@code SCAN_RESULTS_AVAILABLE_ACTION} is received. Broadcasts that arrive
+     * while no scan of ours is running (scans triggered by the system or other apps) still
+     * release any waiters, since fresh results are available either way.
+     */
+    void onScanResults(boolean resultsUpdated) {
+        State previous = finish();
+        if (previous.phase == Phase.IN_FLIGHT) {
+            endScanSlice();
+            if (resultsUpdated) {
+                completed.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+        notifyCompleted(previous.waiters, resultsUpdated);
+    }
+
+    /**
+     * Called when the results broadcast did not arrive in time, so the next request can start a
+     * new scan instead of joining one that will never complete.
+     */
+    void onScanTimeout() {
+        State current;
+        do {
+            current = state.get();
+            if (current.phase != Phase.IN_FLIGHT) {
+                return;
+            }
+        } while (!state.compareAndSet(current, IDLE));
+
+        endScanSlice();
+        failed.incrementAndGet();
+        notifyFailed(current.waiters, "Timed out waiting for scan results");
+    }
+
+    /**
+     * Fails every pending waiter, used when the plugin is torn down.
+     */
+    void cancelAll(String message) {
+        State previous = finish();
+        if (previous.phase == Phase.IN_FLIGHT) {
+            endScanSlice();
+        }
+        notifyFailed(previous.waiters, message);
+    }
+
+    /** Traces each accepted scan, from the start to its results or timeout, as a {@link #TRACE_SECTION} async slice. */
+    void setTracer(PluginTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    boolean isScanInFlight() {
+        return state.get().phase != Phase.IDLE;
+    }
+
+    Stats getStats() {
+        return new Stats(
+            requested.get(),
+            started.get(),
+            coalesced.get(),
+            throttled.get(),
+            failed.get(),
+            completed.get(),
+            isScanInFlight()
+        );
+    }
+
+    /**
+     * Takes the waiters and moves to idle. While {@code startScan} is running the state stays
+     * {@code STARTING}: that scan was accepted or not, but its own results are still to come.
+     */
+    private State finish() {
+        while (true) {
+            State current = state.get();
+            State next = current.phase == Phase.STARTING ? new State(Phase.STARTING, null) : IDLE;
+            if (state.compareAndSet(current, next)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Only the caller in {@code STARTING} begins a slice, and only the swap out of
+     * {@code IN_FLIGHT} that follows it ends the slice, so the two never overlap.
+     */
+    private void beginScanSlice() {
+        PluginTracer sliceTracer = tracer;
+        scanSliceCookie++;
+        sliceTracer.beginAsyncSection(TRACE_SECTION, scanSliceCookie);
+        scanSliceTracer = sliceTracer;
+    }
+
+    private void endScanSlice() {
+        scanSliceTracer.endAsyncSection(TRACE_SECTION, scanSliceCookie);
+        scanSliceTracer = PluginTracer.NONE;
+    }
+
+    /** Leaves {@code STARTING} after a refused start, failing the callers that joined meanwhile. */
+    private void abortStart(String message) {
+        State current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, IDLE));
+        notifyFailed(current.waiters, message);
+    }
+
+    private static void notifyCompleted(Node waiters, boolean resultsUpdated) {
+        for (Node node = waiters; node != null; node = node.next) {
+            node.waiter.onScanCompleted(resultsUpdated);
+        }
+    }
+
+    private static void notifyFailed(Node waiters, String message) {
+        for (Node node = waiters; node != null; node = node.next) {
+            node.waiter.onScanFailed(message);
+        }
+    }
+
+    static final class Stats {
+
+        final long requested;
+        final long started;
+        final long coalesced;
+        final long throttled;
+        final long failed;
+        final long completed;
+        final boolean inFlight;
+
+        Stats(long requested, long started, long coalesced, long throttled, long failed, long completed, boolean inFlight) {
+            this.requested = requested;
+            this.started = started;
+            this.coalesced = coalesced;
+            this.throttled = throttled;
+            this.failed = failed;
+            this.completed = completed;
+            this.inFlight = inFlight;
+        }
+    }
+}
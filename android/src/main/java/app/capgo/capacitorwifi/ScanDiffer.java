@@ -0,0 +1,119 @@
+package app.capgo.capacitorwifi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps the recently reported scan snapshots keyed by BSSID and computes what changed since one
+ * of them. Every update advances a sequence number and keeps its snapshot under it, so several
+ * callers can each diff against the sequence they last applied; a caller whose sequence is
+ * unknown or no longer kept receives the full list again instead of a diff.
+ */
+class ScanDiffer<T> {
+
+    static final long NO_SEQUENCE = -1;
+    /** Snapshots kept for callers to diff against, older sequences get a full resync. */
+    static final int MAX_SNAPSHOTS = 8;
+
+    static final class Diff<T> {
+
+        final long baseSequence;
+        final long sequence;
+        final boolean full;
+        final List<T> added;
+        final List<T> changed;
+        final List<String> removed;
+
+        Diff(long baseSequence, long sequence, boolean full, List<T> added, List<T> changed, List<String> removed) {
+            this.baseSequence = baseSequence;
+            this.sequence = sequence;
+            this.full = full;
+            this.added = added;
+            this.changed = changed;
+            this.removed = removed;
+        }
+    }
+
+    private final Function<T, String> keyOf;
+    private final ToIntFunction<T> rssiOf;
+
+    // Per sequence, oldest first: the last RSSI reported to JS for each BSSID, not the last one
+    // seen, so that slow drifts are eventually reported once they add up to the threshold.
+    private final LinkedHashMap<Long, Map<String, Integer>> snapshots = new LinkedHashMap<>();
+    private long sequence = 0;
+
+    ScanDiffer(Function<T, String> keyOf, ToIntFunction<T> rssiOf) {
+        this.keyOf = keyOf;
+        this.rssiOf = rssiOf;
+        snapshots.put(sequence, Collections.emptyMap());
+    }
+
+    /**
+     * Diffs {@code results} against the last snapshot.
+     *
+     * @param sinceSequence sequence the caller last applied, {@link #NO_SEQUENCE} to force a full resync
+     * @param rssiThreshold minimum RSSI change in dB for an entry to be reported as changed
+     */
+    synchronized Diff<T> update(List<T> results, long sinceSequence, int rssiThreshold) {
+        Map<String, Integer> reported = sinceSequence == NO_SEQUENCE ? null : snapshots.get(sinceSequence);
+        boolean full = reported == null;
+        long baseSequence = full ? sequence : sinceSequence;
+        Map<String, Integer> next = new HashMap<>(Math.max(16, results.size() * 2));
+        List<T> added = new ArrayList<>();
+        List<T> changed = new ArrayList<>();
+
+        for (T result : results) {
+            String key = keyOf.apply(result);
+            if (key == null || next.containsKey(key)) {
+                continue;
+            }
+
+            int rssi = rssiOf.applyAsInt(result);
+            Integer previous = full ? null : reported.get(key);
+            if (previous == null) {
+                added.add(result);
+                next.put(key, rssi);
+            } else if (Math.abs(rssi - previous) >= rssiThreshold) {
+                changed.add(result);
+                next.put(key, rssi);
+            } else {
+                next.put(key, previous);
+            }
+        }
+
+        List<String> removed;
+        if (full) {
+            removed = Collections.emptyList();
+        } else {
+            removed = new ArrayList<>();
+            Set<String> current = next.keySet();
+            for (String key : reported.keySet()) {
+                if (!current.contains(key)) {
+                    removed.add(key);
+                }
+            }
+        }
+
+        sequence++;
+        snapshots.put(sequence, next);
+        Iterator<Long> oldest = snapshots.keySet().iterator();
+        while (snapshots.size() > MAX_SNAPSHOTS) {
+            oldest.next();
+            oldest.remove();
+        }
+        return new Diff<>(baseSequence, sequence, full, added, changed, removed);
+    }
+
+    /** Diffs {@code results} against the latest snapshot, for a single consumer that sees every update. */
+    synchronized Diff<T> updateFromLatest(List<T> results, int rssiThreshold) {
+        return update(results, sequence, rssiThreshold);
+    }
+}
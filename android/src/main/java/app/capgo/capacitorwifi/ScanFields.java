@@ -0,0 +1,111 @@
+package app.capgo.capacitorwifi;
+
+import java.util.List;
+
+/**
+ * Bit mask of the {@code ScanResult} attributes serialized for each network. Attributes that are
+ * not requested are never read.
+ */
+final class ScanFields {
+
+    static final int SSID = 1;
+    static final int BSSID = 1 << 1;
+    static final int RSSI = 1 << 2;
+    static final int SECURITY_TYPES = 1 << 3;
+    static final int FREQUENCY = 1 << 4;
+    static final int CHANNEL_WIDTH = 1 << 5;
+    static final int CENTER_FREQ_0 = 1 << 6;
+    static final int CENTER_FREQ_1 = 1 << 7;
+    static final int TIMESTAMP = 1 << 8;
+    static final int WIFI_STANDARD = 1 << 9;
+    static final int CAPABILITIES = 1 << 10;
+
+    /** Fields returned when the caller does not ask for specific ones. */
+    static final int DEFAULT = SSID | RSSI | SECURITY_TYPES;
+
+    private ScanFields() {}
+
+    static int parse(List<String> names) {
+        if (names == null || names.isEmpty()) {
+            return DEFAULT;
+        }
+
+        int mask = 0;
+        for (String name : names) {
+            mask |= of(name);
+        }
+        return mask;
+    }
+
+    static int of(String name) {
+        switch (name) {
+            case "ssid":
+                return SSID;
+            case "bssid":
+                return BSSID;
+            case "rssi":
+                return RSSI;
+            case "securityTypes":
+                return SECURITY_TYPES;
+            case "frequency":
+                return FREQUENCY;
+            case "channelWidth":
+                return CHANNEL_WIDTH;
+            case "centerFreq0":
+                return CENTER_FREQ_0;
+            case "centerFreq1":
+                return CENTER_FREQ_1;
+            case "timestamp":
+                return TIMESTAMP;
+            case "wifiStandard":
+                return WIFI_STANDARD;
+            case "capabilities":
+                return CAPABILITIES;
+            default:
+                throw new IllegalArgumentException("Unknown field: " + name);
+        }
+    }
+
+    static boolean has(int mask, int field) {
+        return (mask & field) != 0;
+    }
+
+    /** Converts a {@code ScanResult.CHANNEL_WIDTH_*} constant to its width in MHz. */
+    static int channelWidthMhz(int channelWidth) {
+        switch (channelWidth) {
+            case 0:
+                return 20;
+            case 1:
+                return 40;
+            case 2:
+                return 80;
+            case 3:
+            case 4:
+                return 160;
+            case 5:
+                return 320;
+            default:
+                return 0;
+        }
+    }
+
+    /** Converts a {@code ScanResult.WIFI_STANDARD_*} constant to its IEEE 802.11 name. */
+    static String wifiStandardName(int wifiStandard) {
+        switch (wifiStandard) {
+            case 1:
+                return "legacy";
+            case 4:
+                return "11n";
+            case 5:
+                return "11ac";
+            case 6:
+                return "11ax";
+            case 7:
+                return "11ad";
+            case 8:
+                return "11be";
+            default:
+                return "unknown";
+        }
+    }
+}
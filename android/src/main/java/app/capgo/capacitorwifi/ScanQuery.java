@@ -0,0 +1,162 @@
+package app.capgo.capacitorwifi;
+
+import android.net.wifi.ScanResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Filter, sort and limit options for scan results, applied on the raw {@link ScanResult} list
+ * so that networks the caller does not want are never serialized.
+ */
+class ScanQuery {
+
+    static final int BAND_ANY = 0;
+    static final int BAND_2_4_GHZ = 1;
+    static final int BAND_5_GHZ = 2;
+    static final int BAND_6_GHZ = 3;
+
+    enum SortKey {
+        NONE,
+        RSSI,
+        SSID,
+        FREQUENCY
+    }
+
+    private static final Comparator<ScanResult> BY_RSSI = (a, b) -> Integer.compare(b.level, a.level);
+    private static final Comparator<ScanResult> BY_SSID = (a, b) -> ssidOf(a).compareToIgnoreCase(ssidOf(b));
+    private static final Comparator<ScanResult> BY_FREQUENCY = (a, b) -> Integer.compare(a.frequency, b.frequency);
+
+    Integer minRssi;
+    String ssid;
+    String ssidPrefix;
+    Pattern ssidPattern;
+    int band = BAND_ANY;
+    Integer securityType;
+    SortKey sortBy = SortKey.NONE;
+    int limit = 0;
+    /** {@link ScanFields} mask of the attributes to serialize for each network. */
+    int fields = ScanFields.DEFAULT;
+    /** Serialize the networks with {@link ScanColumnsEncoder} instead of one JSObject per network. */
+    boolean columnar = false;
+
+    boolean isEmpty() {
+        return (
+            minRssi == null &&
+            ssid == null &&
+            ssidPrefix == null &&
+            ssidPattern == null &&
+            band == BAND_ANY &&
+            securityType == null &&
+            sortBy == SortKey.NONE &&
+            limit <= 0
+        );
+    }
+
+    List<ScanResult> apply(List<ScanResult> results) {
+        if (isEmpty()) {
+            return results;
+        }
+
+        List<ScanResult> matching = new ArrayList<>();
+        for (ScanResult result : results) {
+            if (matches(result)) {
+                matching.add(result);
+            }
+        }
+
+        SortKey key = sortBy;
+        if (key == SortKey.NONE && limit > 0) {
+            // A limit without an explicit order keeps the strongest networks.
+            key = SortKey.RSSI;
+        }
+        if (key == SortKey.NONE) {
+            return matching;
+        }
+
+        Comparator<ScanResult> comparator = comparatorFor(key);
+        if (limit > 0 && limit < matching.size()) {
+            return selectTop(matching, comparator, limit);
+        }
+        Collections.sort(matching, comparator);
+        return matching;
+    }
+
+    boolean matches(ScanResult result) {
+        if (minRssi != null && result.level < minRssi) {
+            return false;
+        }
+        if (band != BAND_ANY && bandOf(result.frequency) != band) {
+            return false;
+        }
+        if (ssid != null || ssidPrefix != null || ssidPattern != null) {
+            String name = ssidOf(result);
+            if (ssid != null && !ssid.equals(name)) {
+                return false;
+            }
+            if (ssidPrefix != null && !name.startsWith(ssidPrefix)) {
+                return false;
+            }
+            if (ssidPattern != null && !ssidPattern.matcher(name).matches()) {
+                return false;
+            }
+        }
+        if (securityType != null && !CapabilitiesParser.supportsSecurityType(CapabilitiesParser.parse(result.capabilities), securityType)) {
+            return false;
+        }
+        return true;
+    }
+
+    static int bandOf(int frequencyMhz) {
+        if (frequencyMhz >= 2400 && frequencyMhz < 2500) {
+            return BAND_2_4_GHZ;
+        }
+        if (frequencyMhz >= 4900 && frequencyMhz < 5900) {
+            return BAND_5_GHZ;
+        }
+        if (frequencyMhz >= 5925 && frequencyMhz <= 7125) {
+            return BAND_6_GHZ;
+        }
+        return BAND_ANY;
+    }
+
+    /**
+     * Returns the {@code k} first elements of {@code items} in {@code comparator} order, keeping only
+     * {@code k} candidates in a heap instead of sorting the whole list.
+     */
+    static <T> List<T> selectTop(List<T> items, Comparator<T> comparator, int k) {
+        // Max-heap on the comparator, so the head is the worst candidate kept so far.
+        PriorityQueue<T> heap = new PriorityQueue<>(k + 1, comparator.reversed());
+        for (T item : items) {
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (comparator.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+
+        List<T> top = new ArrayList<>(heap);
+        Collections.sort(top, comparator);
+        return top;
+    }
+
+    private static Comparator<ScanResult> comparatorFor(SortKey key) {
+        switch (key) {
+            case SSID:
+                return BY_SSID;
+            case FREQUENCY:
+                return BY_FREQUENCY;
+            case RSSI:
+            default:
+                return BY_RSSI;
+        }
+    }
+
+    private static String ssidOf(ScanResult result) {
+        return result.SSID != null ? result.SSID : "";
+    }
+}
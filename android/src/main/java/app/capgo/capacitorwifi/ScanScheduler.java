@@ -0,0 +1,141 @@
+package app.capgo.capacitorwifi;
+
+/**
+ * Tracks the Android scan budget (4 {@code WifiManager.startScan()} calls per 2 minutes for
+ * foreground apps) and decides whether a scan request should start a real scan, reuse the
+ * results already available, or wait until the budget allows another scan.
+ *
+ * The budget is a token bucket where each spent token comes back one window after it was
+ * spent, which matches the sliding window the framework enforces.
+ */
+class ScanScheduler {
+
+    static final int DEFAULT_SCAN_BUDGET = 4;
+    static final long DEFAULT_BUDGET_WINDOW_MS = 120000;
+
+    interface Clock {
+        long elapsedRealtime();
+    }
+
+    enum Action {
+        SCAN,
+        USE_CACHED,
+        DELAY
+    }
+
+    static final class Decision {
+
+        final Action action;
+        /** Time until the next real scan can start, 0 when one can start now. */
+        final long nextScanInMs;
+        /** Age of the results that would be served, -1 when no results were seen yet. */
+        final long resultAgeMs;
+
+        Decision(Action action, long nextScanInMs, long resultAgeMs) {
+            this.action = action;
+            this.nextScanInMs = nextScanInMs;
+            this.resultAgeMs = resultAgeMs;
+        }
+    }
+
+    private final Clock clock;
+    private final long windowMs;
+    private final long[] spentAt;
+    private int oldest = 0;
+    private int spent = 0;
+    private long lastResultsAt = -1;
+
+    ScanScheduler(Clock clock) {
+        this(clock, DEFAULT_SCAN_BUDGET, DEFAULT_BUDGET_WINDOW_MS);
+    }
+
+    ScanScheduler(Clock clock, int budget, long windowMs) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("budget must be at least 1");
+        }
+        this.clock = clock;
+        this.windowMs = windowMs;
+        this.spentAt = new long[budget];
+    }
+
+    /**
+     * Decides how to handle a scan request without spending any budget.
+     *
+     * @param maxResultAgeMs results younger than this are reused instead of scanning, 0 to always scan
+     * @param useCachedWhenThrottled whether known results may be served when the budget is spent
+     */
+    synchronized Decision evaluate(long maxResultAgeMs, boolean useCachedWhenThrottled) {
+        long now = clock.elapsedRealtime();
+        refill(now);
+        long resultAgeMs = lastResultsAt < 0 ? -1 : now - lastResultsAt;
+        long nextScanInMs = millisUntilNextToken(now);
+
+        if (maxResultAgeMs > 0 && resultAgeMs >= 0 && resultAgeMs <= maxResultAgeMs) {
+            return new Decision(Action.USE_CACHED, nextScanInMs, resultAgeMs);
+        }
+        if (nextScanInMs == 0) {
+            return new Decision(Action.SCAN, 0, resultAgeMs);
+        }
+        if (useCachedWhenThrottled && resultAgeMs >= 0) {
+            return new Decision(Action.USE_CACHED, nextScanInMs, resultAgeMs);
+        }
+        return new Decision(Action.DELAY, nextScanInMs, resultAgeMs);
+    }
+
+    /**
+     * Spends one token. Called right before {@code WifiManager.startScan()}.
+     */
+    synchronized void recordScanStarted() {
+        long now = clock.elapsedRealtime();
+        refill(now);
+        if (spent == spentAt.length) {
+            // Already over budget, replace the oldest token so the wait is measured from now.
+            oldest = (oldest + 1) % spentAt.length;
+            spent--;
+        }
+        spentAt[(oldest + spent) % spentAt.length] = now;
+        spent++;
+    }
+
+    /**
+     * The framework refused the scan, meaning scans made outside of this scheduler (or before the
+     * plugin was loaded) used the budget. Assume the whole budget was just spent.
+     */
+    synchronized void recordScanRefused() {
+        long now = clock.elapsedRealtime();
+        for (int i = 0; i < spentAt.length; i++) {
+            spentAt[i] = now;
+        }
+        oldest = 0;
+        spent = spentAt.length;
+    }
+
+    synchronized void recordResults() {
+        lastResultsAt = clock.elapsedRealtime();
+    }
+
+    synchronized int availableScans() {
+        refill(clock.elapsedRealtime());
+        return spentAt.length - spent;
+    }
+
+    synchronized long millisUntilNextScan() {
+        long now = clock.elapsedRealtime();
+        refill(now);
+        return millisUntilNextToken(now);
+    }
+
+    private void refill(long now) {
+        while (spent > 0 && now - spentAt[oldest] >= windowMs) {
+            oldest = (oldest + 1) % spentAt.length;
+            spent--;
+        }
+    }
+
+    private long millisUntilNextToken(long now) {
+        if (spent < spentAt.length) {
+            return 0;
+        }
+        return Math.max(0, spentAt[oldest] + windowMs - now);
+    }
+}
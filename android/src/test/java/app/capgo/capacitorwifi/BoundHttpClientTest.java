@@ -0,0 +1,283 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoundHttpClientTest {
+
+    /** Route over the default network of the test JVM, counting the connections it opens. */
+    private static final class LoopbackRoute implements BoundHttpClient.Route {
+
+        final AtomicInteger httpConnections = new AtomicInteger();
+        final AtomicInteger sockets = new AtomicInteger();
+
+        @Override
+        public Object key() {
+            return "loopback";
+        }
+
+        @Override
+        public HttpURLConnection open(URL url) throws IOException {
+            httpConnections.incrementAndGet();
+            return (HttpURLConnection) url.openConnection();
+        }
+
+        @Override
+        public Socket connect(String host, int port, int timeoutMs) throws IOException {
+            sockets.incrementAndGet();
+            Socket socket = new Socket();
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+            return socket;
+        }
+    }
+
+    private long now;
+    private BoundHttpClient client;
+    private LoopbackRoute route;
+    private HttpServer httpServer;
+    private ServerSocket echoServer;
+    private final AtomicInteger echoConnections = new AtomicInteger();
+    private final Queue<Socket> acceptedSockets = new ConcurrentLinkedQueue<>();
+    private final Queue<String> received = new ConcurrentLinkedQueue<>();
+
+    @Before
+    public void setUp() throws IOException {
+        now = 0;
+        client = new BoundHttpClient(() -> now);
+        route = new LoopbackRoute();
+
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/config", exchange -> {
+            byte[] request = readAll(exchange.getRequestBody());
+            byte[] reply = ("got " + exchange.getRequestMethod() + " " + new String(request, StandardCharsets.UTF_8)).getBytes(
+                StandardCharsets.UTF_8
+            );
+            String token = exchange.getRequestHeaders().getFirst("X-Token");
+            if (token != null) {
+                exchange.getResponseHeaders().add("X-Device", token);
+            }
+            exchange.sendResponseHeaders(201, reply.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(reply);
+            }
+        });
+        httpServer.createContext("/missing", exchange -> {
+            byte[] reply = "not found".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(404, reply.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(reply);
+            }
+        });
+        httpServer.start();
+
+        echoServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            while (!echoServer.isClosed()) {
+                try {
+                    Socket socket = echoServer.accept();
+                    echoConnections.incrementAndGet();
+                    acceptedSockets.add(socket);
+                    new Thread(() -> echo(socket, received)).start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.closeAll();
+        httpServer.stop(0);
+        echoServer.close();
+    }
+
+    @Test
+    public void runsHttpRequestThroughRoute() throws IOException {
+        BoundHttpClient.HttpResponse response = client.http(
+            route,
+            "POST",
+            httpUrl("/config"),
+            Collections.singletonMap("X-Token", "abc"),
+            "ssid=iot".getBytes(StandardCharsets.UTF_8),
+            2000,
+            BoundHttpClient.DEFAULT_MAX_BYTES
+        );
+
+        assertEquals(201, response.status);
+        assertEquals("got POST ssid=iot", new String(response.body, StandardCharsets.UTF_8));
+        assertEquals("abc", response.headers.get("X-device"));
+        assertFalse(response.truncated);
+        assertEquals(1, route.httpConnections.get());
+    }
+
+    @Test
+    public void returnsErrorStatusAndTruncatesBody() throws IOException {
+        BoundHttpClient.HttpResponse missing = client.http(route, "GET", httpUrl("/missing"), null, null, 2000, 1024);
+        assertEquals(404, missing.status);
+        assertEquals("not found", new String(missing.body, StandardCharsets.UTF_8));
+
+        BoundHttpClient.HttpResponse cut = client.http(route, "PUT", httpUrl("/config"), null, new byte[100], 2000, 8);
+        assertEquals(201, cut.status);
+        assertEquals("got PUT ", new String(cut.body, StandardCharsets.UTF_8));
+        assertTrue(cut.truncated);
+    }
+
+    @Test
+    public void reusesPooledSocket() throws IOException {
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        int port = echoServer.getLocalPort();
+
+        BoundHttpClient.TcpResponse first = client.exchange(route, host, port, bytes("hello"), 2000, 100, 1024, true);
+        assertEquals("hello", new String(first.data, StandardCharsets.UTF_8));
+        assertFalse(first.reusedSocket);
+        assertEquals(1, client.getIdleSocketCount());
+
+        BoundHttpClient.TcpResponse second = client.exchange(route, host, port, bytes("again"), 2000, 100, 1024, false);
+        assertEquals("again", new String(second.data, StandardCharsets.UTF_8));
+        assertTrue(second.reusedSocket);
+        assertEquals(0, client.getIdleSocketCount());
+        assertEquals(1, route.sockets.get());
+        assertEquals(1, echoConnections.get());
+    }
+
+    @Test
+    public void retriesOnFreshSocketWhenPeerClosedIdleOne() throws IOException, InterruptedException {
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        int port = echoServer.getLocalPort();
+
+        client.exchange(route, host, port, bytes("hello"), 2000, 100, 1024, true);
+        assertEquals(1, client.getIdleSocketCount());
+        // The server drops the connection while it sits in the pool
+        acceptedSockets.poll().close();
+        Thread.sleep(50);
+
+        BoundHttpClient.TcpResponse response = client.exchange(route, host, port, bytes("again"), 2000, 100, 1024, true);
+        assertEquals("again", new String(response.data, StandardCharsets.UTF_8));
+        assertFalse(response.reusedSocket);
+        assertFalse(response.closedByPeer);
+        assertEquals(2, route.sockets.get());
+        assertEquals(2, echoConnections.get());
+        assertEquals(1, client.getIdleSocketCount());
+    }
+
+    @Test
+    public void doesNotResendWhenPeerClosesAfterWrite() throws IOException {
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        int port = echoServer.getLocalPort();
+
+        client.exchange(route, host, port, bytes("hello"), 2000, 100, 1024, true);
+        // The peer takes the command and hangs up without a reply, it must not get it twice
+        BoundHttpClient.TcpResponse response = client.exchange(route, host, port, bytes("quit"), 2000, 100, 1024, true);
+        assertTrue(response.reusedSocket);
+        assertTrue(response.closedByPeer);
+        assertEquals(0, response.data.length);
+        assertEquals(1, route.sockets.get());
+        assertEquals(Arrays.asList("hello", "quit"), new ArrayList<>(received));
+        assertEquals(0, client.getIdleSocketCount());
+    }
+
+    @Test
+    public void dropsPooledSocketWithLateReplyBytes() throws IOException, InterruptedException {
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        int port = echoServer.getLocalPort();
+
+        // The reply stalls longer than the idle timeout, its tail arrives while the socket is pooled
+        BoundHttpClient.TcpResponse first = client.exchange(route, host, port, bytes("late"), 2000, 100, 1024, true);
+        assertEquals("la", new String(first.data, StandardCharsets.UTF_8));
+        Thread.sleep(400);
+
+        BoundHttpClient.TcpResponse second = client.exchange(route, host, port, bytes("next"), 2000, 100, 1024, true);
+        assertEquals("next", new String(second.data, StandardCharsets.UTF_8));
+        assertFalse(second.reusedSocket);
+        assertEquals(2, route.sockets.get());
+    }
+
+    @Test
+    public void dropsExpiredAndClosedRouteSockets() throws IOException {
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        int port = echoServer.getLocalPort();
+
+        client.exchange(route, host, port, bytes("one"), 2000, 100, 1024, true);
+        now += BoundHttpClient.IDLE_SOCKET_TTL_MS + 1;
+        assertFalse(client.exchange(route, host, port, bytes("two"), 2000, 100, 1024, true).reusedSocket);
+        assertEquals(1, client.getIdleSocketCount());
+
+        client.closeRoute("other");
+        assertEquals(1, client.getIdleSocketCount());
+        client.closeRoute("loopback");
+        assertEquals(0, client.getIdleSocketCount());
+        assertEquals(2, route.sockets.get());
+    }
+
+    private String httpUrl(String path) {
+        return "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + httpServer.getAddress().getPort() + path;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Echoes each message, except "quit" which closes without a reply and "late" which echoes in two parts. */
+    private static void echo(Socket socket, Queue<String> received) {
+        try (Socket s = socket) {
+            InputStream in = s.getInputStream();
+            OutputStream out = s.getOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                String message = new String(buffer, 0, read, StandardCharsets.UTF_8);
+                received.add(message);
+                if (message.equals("quit")) {
+                    return;
+                }
+                if (message.equals("late")) {
+                    out.write(buffer, 0, 2);
+                    out.flush();
+                    Thread.sleep(300);
+                    out.write(buffer, 2, read - 2);
+                } else {
+                    out.write(buffer, 0, read);
+                }
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,93 @@
+package app.capgo.capacitorwifi;
+
+import static app.capgo.capacitorwifi.CapabilitiesParser.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CapabilitiesParserTest {
+
+    /** Capability strings as reported by {@code ScanResult.capabilities} on real devices. */
+    private static final Object[][] CORPUS = {
+        { "[ESS]", new int[] { SECURITY_OPEN } },
+        { "", new int[] { SECURITY_OPEN } },
+        { "[IBSS]", new int[] { SECURITY_OPEN } },
+        { "[WEP][ESS]", new int[] { SECURITY_WEP } },
+        { "[WPA-PSK-TKIP][ESS]", new int[] { SECURITY_PSK } },
+        { "[WPA-PSK-TKIP+CCMP][WPA2-PSK-TKIP+CCMP][ESS][WPS]", new int[] { SECURITY_PSK } },
+        { "[WPA2-PSK-CCMP][RSN-PSK-CCMP][ESS]", new int[] { SECURITY_PSK } },
+        { "[WPA2-PSK-CCMP][RSN-PSK+FT/PSK-CCMP][ESS]", new int[] { SECURITY_PSK } },
+        { "[RSN-PSK-SHA256-CCMP][MFPC][ESS]", new int[] { SECURITY_PSK } },
+        { "[RSN-SAE-CCMP][MFPR][MFPC][ESS]", new int[] { SECURITY_SAE } },
+        { "[RSN-SAE+FT/SAE-CCMP][MFPR][MFPC][ESS]", new int[] { SECURITY_SAE } },
+        { "[WPA2-PSK+SAE-CCMP][RSN-PSK+SAE-CCMP][MFPC][ESS]", new int[] { SECURITY_PSK, SECURITY_SAE } },
+        { "[WPA2-PSK+SAE-CCMP]", new int[] { SECURITY_PSK, SECURITY_SAE } },
+        { "[WPA2-EAP-CCMP][RSN-EAP-CCMP][ESS]", new int[] { SECURITY_EAP } },
+        { "[WPA2-EAP+FT/EAP-CCMP][RSN-EAP+FT/EAP-CCMP][ESS]", new int[] { SECURITY_EAP } },
+        { "[RSN-EAP/SHA256-CCMP][MFPR][MFPC][ESS]", new int[] { SECURITY_WPA3_ENTERPRISE } },
+        { "[RSN-EAP+EAP/SHA256-CCMP][MFPC][ESS]", new int[] { SECURITY_EAP } },
+        { "[RSN-EAP_SUITE_B_192-GCMP-256][MFPR][MFPC][ESS]", new int[] { SECURITY_WPA3_ENTERPRISE_192_BIT } },
+        { "[RSN-EAP-SUITE-B-192-GCMP-256][MFPR][ESS]", new int[] { SECURITY_WPA3_ENTERPRISE_192_BIT } },
+        { "[RSN-OWE-CCMP][MFPR][MFPC][ESS]", new int[] { SECURITY_OWE } },
+        { "[ESS][OWE_TRANSITION]", new int[] { SECURITY_OPEN, SECURITY_OWE } },
+        { "[RSN-OWE-CCMP][MFPR][MFPC][ESS][OWE_TRANSITION]", new int[] { SECURITY_OWE } },
+        { "[WAPI-PSK-SMS4][ESS]", new int[] { SECURITY_WAPI_PSK } },
+        { "[WAPI-CERT-SMS4][ESS]", new int[] { SECURITY_WAPI_CERT } },
+        { "[RSN-DPP+SAE+PSK-CCMP][ESS]", new int[] { SECURITY_PSK, SECURITY_SAE } },
+        { "[RSN-UNKNOWN-CCMP][ESS][HS20]", new int[] { SECURITY_OPEN } }
+    };
+
+    @Test
+    public void decodesSecurityTypesOfCorpus() {
+        for (Object[] entry : CORPUS) {
+            String capabilities = (String) entry[0];
+            assertArrayEquals(capabilities, (int[]) entry[1], securityTypes(parse(capabilities)));
+        }
+    }
+
+    @Test
+    public void decodesProtocolsAndCiphers() {
+        long mask = parse("[WPA-PSK-TKIP+CCMP][WPA2-PSK-TKIP+CCMP][ESS][WPS]");
+        assertEquals(WPA | RSN | PSK | TKIP | CCMP | ESS | WPS, mask);
+
+        mask = parse("[RSN-EAP_SUITE_B_192-GCMP-256][MFPR][MFPC][ESS]");
+        assertEquals(RSN | EAP_SUITE_B_192 | GCMP_256 | MFP_REQUIRED | MFP_CAPABLE | ESS, mask);
+
+        // "PSK-SHA256" is one key management suite, not PSK followed by an unknown cipher.
+        mask = parse("[RSN-PSK-SHA256-CCMP-256][ESS]");
+        assertEquals(RSN | PSK_SHA256 | CCMP_256 | ESS, mask);
+
+        // WAPI reuses the PSK token, which must not be read as WPA-PSK.
+        assertEquals(0, parse("[WAPI-PSK-SMS4]") & PSK);
+        assertEquals(0, parse(null));
+    }
+
+    @Test
+    public void primaryTypeIsTheStrongest() {
+        assertEquals(SECURITY_SAE, primarySecurityType(parse("[RSN-PSK+SAE-CCMP][ESS]")));
+        assertEquals(SECURITY_OWE, primarySecurityType(parse("[RSN-OWE-CCMP][ESS]")));
+        assertEquals(SECURITY_PSK, primarySecurityType(parse("[WPA-PSK-TKIP][ESS]")));
+        assertEquals(SECURITY_OPEN, primarySecurityType(parse("[ESS][OWE_TRANSITION]")));
+        assertTrue(supportsSecurityType(parse("[RSN-PSK+SAE-CCMP][ESS]"), SECURITY_PSK));
+        assertFalse(supportsSecurityType(parse("[RSN-SAE-CCMP][ESS]"), SECURITY_PSK));
+    }
+
+    @Test
+    public void connectsTransitionModeWithWpa2UnlessSaeSupported() {
+        long mixed = parse("[WPA2-PSK+SAE-CCMP]");
+        assertEquals(SECURITY_PSK, connectSecurityType(mixed, false));
+        assertEquals(SECURITY_SAE, connectSecurityType(mixed, true));
+        assertEquals(SECURITY_SAE, connectSecurityType(parse("[RSN-SAE-CCMP][MFPR][ESS]"), false));
+        assertEquals(SECURITY_PSK, connectSecurityType(parse("[WPA2-PSK-CCMP][ESS]"), true));
+        assertEquals(SECURITY_OWE, connectSecurityType(parse("[RSN-OWE-CCMP][MFPR][MFPC][ESS]"), true));
+        assertEquals(SECURITY_OPEN, connectSecurityType(parse("[ESS][OWE_TRANSITION]"), true));
+        assertEquals(SECURITY_EAP, connectSecurityType(parse("[WPA2-EAP-CCMP][ESS]"), true));
+    }
+
+    @Test
+    public void memoizedResultMatchesParse() {
+        String capabilities = new StringBuilder("[RSN-PSK").append("+SAE-CCMP][ESS]").toString();
+        assertEquals(parseUncached(capabilities), parse(capabilities));
+        assertEquals(parse(capabilities), parse(new String(capabilities)));
+    }
+}
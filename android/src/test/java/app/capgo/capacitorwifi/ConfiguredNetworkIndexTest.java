@@ -0,0 +1,72 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class ConfiguredNetworkIndexTest {
+
+    private final List<ConfiguredNetworkIndex.Entry> configured = new ArrayList<>();
+    private int loads;
+    private Runnable duringLoad;
+
+    private final ConfiguredNetworkIndex index = new ConfiguredNetworkIndex(() -> {
+        loads++;
+        if (duringLoad != null) {
+            duringLoad.run();
+            duringLoad = null;
+        }
+        return new ArrayList<>(configured);
+    });
+
+    @Test
+    public void loadsOnceUntilInvalidated() {
+        configured.add(new ConfiguredNetworkIndex.Entry("\"kiosk\"", CapabilitiesParser.SECURITY_PSK, 4));
+        configured.add(new ConfiguredNetworkIndex.Entry("\"guest\"", CapabilitiesParser.SECURITY_OPEN, 7));
+
+        assertEquals(Integer.valueOf(4), index.find("\"kiosk\"", CapabilitiesParser.SECURITY_PSK));
+        assertEquals(Integer.valueOf(7), index.find("\"guest\"", CapabilitiesParser.SECURITY_OPEN));
+        assertNull(index.find("\"kiosk\"", CapabilitiesParser.SECURITY_OPEN));
+        assertEquals(1, loads);
+
+        configured.add(new ConfiguredNetworkIndex.Entry("\"office\"", CapabilitiesParser.SECURITY_PSK, 9));
+        assertNull(index.find("\"office\"", CapabilitiesParser.SECURITY_PSK));
+        index.invalidate();
+        assertEquals(Integer.valueOf(9), index.find("\"office\"", CapabilitiesParser.SECURITY_PSK));
+        assertEquals(2, loads);
+    }
+
+    @Test
+    public void putSkipsReload() {
+        index.find("\"kiosk\"", CapabilitiesParser.SECURITY_PSK);
+        index.put("\"kiosk\"", CapabilitiesParser.SECURITY_PSK, 12);
+        assertEquals(Integer.valueOf(12), index.find("\"kiosk\"", CapabilitiesParser.SECURITY_PSK));
+        assertEquals(1, loads);
+    }
+
+    @Test
+    public void changeDuringLoadKeepsIndexStale() {
+        duringLoad = index::invalidate;
+        index.find("\"kiosk\"", CapabilitiesParser.SECURITY_PSK);
+        index.find("\"kiosk\"", CapabilitiesParser.SECURITY_PSK);
+        index.find("\"kiosk\"", CapabilitiesParser.SECURITY_PSK);
+        assertEquals(2, loads);
+    }
+
+    @Test
+    public void unreadableListStaysStale() {
+        ConfiguredNetworkIndex unreadable = new ConfiguredNetworkIndex(() -> {
+            loads++;
+            return null;
+        });
+        assertNull(unreadable.find("\"kiosk\"", CapabilitiesParser.SECURITY_PSK));
+        assertNull(unreadable.find("\"kiosk\"", CapabilitiesParser.SECURITY_PSK));
+        assertEquals(2, loads);
+
+        // Readable again, the next lookup loads the list
+        configured.add(new ConfiguredNetworkIndex.Entry("\"kiosk\"", CapabilitiesParser.SECURITY_PSK, 4));
+        assertEquals(Integer.valueOf(4), index.find("\"kiosk\"", CapabilitiesParser.SECURITY_PSK));
+    }
+}
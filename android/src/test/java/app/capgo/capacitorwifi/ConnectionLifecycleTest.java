@@ -0,0 +1,509 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ConnectionLifecycleTest {
+
+    /** Fake ConnectivityManager keeping track of outstanding requests. */
+    private static class FakePlatform implements ConnectionLifecycle.Platform<String, String> {
+
+        final Set<Object> outstanding = ConcurrentHashMap.newKeySet();
+        final AtomicInteger doubleReleases = new AtomicInteger();
+        final List<ConnectionLifecycle.RequestCallback<String>> callbacks = new ArrayList<>();
+        final List<Runnable> scheduled = new ArrayList<>();
+        final List<Long> delays = new ArrayList<>();
+        volatile boolean inRange = false;
+        volatile boolean runScheduledInline = false;
+
+        @Override
+        public Object request(String request, int timeoutMs, ConnectionLifecycle.RequestCallback<String> callback) {
+            Object token = new Object();
+            outstanding.add(token);
+            synchronized (callbacks) {
+                callbacks.add(callback);
+            }
+            return token;
+        }
+
+        @Override
+        public void release(Object token) {
+            if (!outstanding.remove(token)) {
+                doubleReleases.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void schedule(Runnable task, long delayMs) {
+            if (runScheduledInline) {
+                task.run();
+                return;
+            }
+            synchronized (scheduled) {
+                scheduled.add(task);
+                delays.add(delayMs);
+            }
+        }
+
+        @Override
+        public boolean isInRange(String ssid, String bssid) {
+            return inRange;
+        }
+
+        void runScheduled() {
+            List<Runnable> tasks;
+            synchronized (scheduled) {
+                tasks = new ArrayList<>(scheduled);
+                scheduled.clear();
+            }
+            for (Runnable task : tasks) {
+                task.run();
+            }
+        }
+
+        ConnectionLifecycle.RequestCallback<String> lastCallback() {
+            synchronized (callbacks) {
+                return callbacks.get(callbacks.size() - 1);
+            }
+        }
+
+        ConnectionLifecycle.RequestCallback<String> randomCallback() {
+            synchronized (callbacks) {
+                return callbacks.isEmpty() ? null : callbacks.get(ThreadLocalRandom.current().nextInt(callbacks.size()));
+            }
+        }
+    }
+
+    private static final class CountingListener implements ConnectionLifecycle.Listener {
+
+        final AtomicInteger connected = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        volatile ConnectionLifecycle.Failure failure;
+        volatile ConnectionLifecycle.Timing timing;
+
+        @Override
+        public void onConnected(int handle, ConnectionLifecycle.Timing timing) {
+            this.timing = timing;
+            connected.incrementAndGet();
+        }
+
+        @Override
+        public void onFailed(ConnectionLifecycle.Failure failure, String message) {
+            this.failure = failure;
+            failed.incrementAndGet();
+        }
+    }
+
+    private final FakePlatform platform = new FakePlatform();
+    private long now = 0;
+    private final ConnectionLifecycle<String, String> lifecycle = new ConnectionLifecycle<>(platform, () -> now, () -> 0.5);
+
+    @Test
+    public void newConnectSupersedesPending() {
+        CountingListener first = new CountingListener();
+        CountingListener second = new CountingListener();
+        ConnectionLifecycle<String, String>.Attempt a = connect("iot", null, first);
+        ConnectionLifecycle.RequestCallback<String> aCallback = platform.lastCallback();
+        ConnectionLifecycle<String, String>.Attempt b = connect("iot", null, second);
+        ConnectionLifecycle.RequestCallback<String> bCallback = platform.lastCallback();
+
+        assertEquals(1, first.failed.get());
+        assertEquals(ConnectionLifecycle.Failure.CANCELLED, first.failure);
+        assertEquals(ConnectionLifecycle.State.RELEASED, a.getState());
+        assertEquals(1, platform.outstanding.size());
+
+        aCallback.onAvailable("net-a");
+        assertEquals(0, first.connected.get());
+        bCallback.onAvailable("net-b");
+        assertEquals(1, second.connected.get());
+        assertEquals(ConnectionLifecycle.State.CONNECTED, b.getState());
+
+        assertTrue(lifecycle.release(b.handle));
+        assertFalse(lifecycle.release(b.handle));
+        assertEquals(0, second.failed.get());
+        assertTrue(platform.outstanding.isEmpty());
+    }
+
+    @Test
+    public void unavailableReleasesRequest() {
+        CountingListener listener = new CountingListener();
+        connect("iot", null, listener);
+        platform.lastCallback().onUnavailable();
+        platform.lastCallback().onAvailable("net");
+
+        assertEquals(1, listener.failed.get());
+        assertEquals(ConnectionLifecycle.Failure.UNAVAILABLE, listener.failure);
+        assertEquals(0, listener.connected.get());
+        assertTrue(platform.outstanding.isEmpty());
+        assertEquals(0, lifecycle.disconnect());
+    }
+
+    @Test
+    public void classifiesTimeoutAndUserRejection() {
+        CountingListener timedOut = new CountingListener();
+        lifecycle.connect("iot-1", null, "a", settings(5000, ConnectionLifecycle.Readiness.AVAILABLE, RetryPolicy.NONE), timedOut);
+        now += 5000;
+        platform.lastCallback().onUnavailable();
+        assertEquals(ConnectionLifecycle.Failure.TIMEOUT, timedOut.failure);
+
+        platform.inRange = true;
+        CountingListener declined = new CountingListener();
+        lifecycle.connect("iot-2", null, "b", settings(5000, ConnectionLifecycle.Readiness.AVAILABLE, RetryPolicy.NONE), declined);
+        now += 1000;
+        platform.lastCallback().onUnavailable();
+        assertEquals(ConnectionLifecycle.Failure.USER_REJECTED, declined.failure);
+    }
+
+    @Test
+    public void retriesWithBackoffUnderSameHandle() {
+        CountingListener listener = new CountingListener();
+        RetryPolicy retry = new RetryPolicy(3, 1000, 30000, 2, 0.5);
+        ConnectionLifecycle.Settings settings = settings(5000, ConnectionLifecycle.Readiness.AVAILABLE, retry);
+        ConnectionLifecycle<String, String>.Attempt attempt = lifecycle.connect("iot", null, "a", settings, listener);
+
+        now += 5000;
+        platform.lastCallback().onUnavailable();
+        assertEquals(0, listener.failed.get());
+        assertEquals(ConnectionLifecycle.State.PENDING, attempt.getState());
+        assertTrue(platform.outstanding.isEmpty());
+        platform.runScheduled();
+        assertEquals(2, attempt.getTries());
+
+        now += 5000;
+        platform.lastCallback().onUnavailable();
+        platform.runScheduled();
+        assertEquals(3, attempt.getTries());
+        assertEquals(1, platform.outstanding.size());
+        // Jitter takes half of each delay, the fake random picks the middle of it.
+        assertEquals(Long.valueOf(750), platform.delays.get(0));
+        assertEquals(Long.valueOf(1500), platform.delays.get(1));
+
+        now += 5000;
+        platform.lastCallback().onUnavailable();
+        assertEquals(1, listener.failed.get());
+        assertEquals(ConnectionLifecycle.Failure.TIMEOUT, listener.failure);
+        assertTrue(platform.outstanding.isEmpty());
+        assertNull(lifecycle.get(attempt.handle));
+    }
+
+    @Test
+    public void cancelStopsPendingRetry() {
+        CountingListener listener = new CountingListener();
+        ConnectionLifecycle.Settings settings = settings(0, ConnectionLifecycle.Readiness.AVAILABLE, new RetryPolicy(3, 1000, 30000, 2, 0));
+        ConnectionLifecycle<String, String>.Attempt attempt = lifecycle.connect("iot", null, "a", settings, listener);
+        platform.lastCallback().onUnavailable();
+
+        assertTrue(lifecycle.cancel(attempt.handle));
+        assertFalse(lifecycle.cancel(attempt.handle));
+        assertEquals(ConnectionLifecycle.Failure.CANCELLED, listener.failure);
+        platform.runScheduled();
+        assertEquals(1, attempt.getTries());
+        assertEquals(1, listener.failed.get());
+        assertTrue(platform.outstanding.isEmpty());
+    }
+
+    @Test
+    public void cancelLeavesConnectedRequest() {
+        CountingListener listener = new CountingListener();
+        ConnectionLifecycle<String, String>.Attempt attempt = connect("iot", null, listener);
+        platform.lastCallback().onAvailable("net");
+
+        assertFalse(lifecycle.cancel(attempt.handle));
+        assertEquals(ConnectionLifecycle.State.CONNECTED, attempt.getState());
+    }
+
+    @Test
+    public void requestFailureFailsCall() {
+        ConnectionLifecycle<String, String> failing = new ConnectionLifecycle<>(
+            new FakePlatform() {
+                @Override
+                public Object request(String request, int timeoutMs, ConnectionLifecycle.RequestCallback<String> callback) {
+                    throw new SecurityException("no permission");
+                }
+            },
+            () -> now,
+            () -> 0.5
+        );
+        CountingListener listener = new CountingListener();
+        ConnectionLifecycle<String, String>.Attempt attempt = failing.connect(
+            "iot",
+            null,
+            "a",
+            ConnectionLifecycle.Settings.DEFAULT,
+            listener
+        );
+        assertEquals(1, listener.failed.get());
+        assertEquals(ConnectionLifecycle.Failure.REQUEST_FAILED, listener.failure);
+        assertEquals(ConnectionLifecycle.State.RELEASED, attempt.getState());
+        assertTrue(failing.list().isEmpty());
+    }
+
+    @Test
+    public void keepsRequestsForDifferentNetworks() {
+        CountingListener first = new CountingListener();
+        CountingListener second = new CountingListener();
+        CountingListener pinned = new CountingListener();
+        ConnectionLifecycle<String, String>.Attempt a = connect("iot-1", null, first);
+        ConnectionLifecycle.RequestCallback<String> aCallback = platform.lastCallback();
+        ConnectionLifecycle<String, String>.Attempt b = connect("iot-2", null, second);
+        ConnectionLifecycle.RequestCallback<String> bCallback = platform.lastCallback();
+        connect("iot-2", "AA:BB:CC:DD:EE:FF", pinned);
+
+        assertEquals(3, lifecycle.list().size());
+        assertEquals(3, platform.outstanding.size());
+        assertNotEquals(a.handle, b.handle);
+        aCallback.onAvailable("net-1");
+        bCallback.onAvailable("net-2");
+        assertEquals(1, first.connected.get());
+        assertEquals(1, second.connected.get());
+        assertEquals(0, pinned.failed.get());
+        assertEquals("net-2", lifecycle.get(b.handle).getNetwork());
+
+        bCallback.onLost();
+        assertEquals(ConnectionLifecycle.State.LOST, b.getState());
+        assertNull(b.getNetwork());
+        bCallback.onAvailable("net-2");
+        assertEquals(ConnectionLifecycle.State.CONNECTED, b.getState());
+        assertEquals(1, second.connected.get());
+
+        assertEquals(2, lifecycle.releaseSsid("iot-2"));
+        assertEquals(1, pinned.failed.get());
+        assertEquals(1, lifecycle.list().size());
+        assertEquals(1, platform.outstanding.size());
+    }
+
+    @Test
+    public void connectShortCircuitsWhenNetworkIsAvailable() {
+        CountingListener first = new CountingListener();
+        ConnectionLifecycle<String, String>.Attempt attempt = connect("iot", null, first);
+        platform.lastCallback().onAvailable("net");
+
+        CountingListener again = new CountingListener();
+        assertSame(attempt, connect("iot", null, again));
+        assertEquals(1, again.connected.get());
+        assertEquals(1, platform.outstanding.size());
+        assertEquals(ConnectionLifecycle.State.CONNECTED, attempt.getState());
+    }
+
+    @Test
+    public void connectedNetworkWaitsForHigherReadiness() {
+        CountingListener first = new CountingListener();
+        ConnectionLifecycle<String, String>.Attempt attempt = connect("iot", null, first);
+        platform.lastCallback().onAvailable("net");
+
+        CountingListener validated = new CountingListener();
+        ConnectionLifecycle.Settings settings = settings(0, ConnectionLifecycle.Readiness.VALIDATED, RetryPolicy.NONE);
+        assertSame(attempt, lifecycle.connect("iot", null, "net", settings, validated));
+        assertEquals(0, validated.connected.get());
+        platform.lastCallback().onLinkPropertiesChanged(true);
+        assertEquals(0, validated.connected.get());
+        platform.lastCallback().onCapabilitiesChanged(true);
+        assertEquals(1, validated.connected.get());
+        assertEquals(1, platform.outstanding.size());
+
+        // Now validated, the next call asking for an address is answered right away
+        CountingListener ipAssigned = new CountingListener();
+        lifecycle.connect("iot", null, "net", settings(0, ConnectionLifecycle.Readiness.IP_ASSIGNED, RetryPolicy.NONE), ipAssigned);
+        assertEquals(1, ipAssigned.connected.get());
+        assertEquals(1, first.connected.get());
+    }
+
+    @Test
+    public void readinessUpgradeTimesOutOrFailsWithTheNetwork() {
+        connect("iot", null, new CountingListener());
+        platform.lastCallback().onAvailable("net");
+
+        CountingListener timedOut = new CountingListener();
+        lifecycle.connect("iot", null, "net", settings(5000, ConnectionLifecycle.Readiness.VALIDATED, RetryPolicy.NONE), timedOut);
+        platform.runScheduled();
+        assertEquals(ConnectionLifecycle.Failure.TIMEOUT, timedOut.failure);
+
+        CountingListener lost = new CountingListener();
+        lifecycle.connect("iot", null, "net", settings(0, ConnectionLifecycle.Readiness.IP_ASSIGNED, RetryPolicy.NONE), lost);
+        platform.lastCallback().onLost();
+        assertEquals(ConnectionLifecycle.Failure.CANCELLED, lost.failure);
+        assertEquals(1, lost.failed.get());
+        // The call that timed out is settled once
+        assertEquals(0, timedOut.connected.get());
+        assertEquals(1, timedOut.failed.get());
+    }
+
+    @Test
+    public void otherCredentialsReplaceConnectedNetwork() {
+        CountingListener first = new CountingListener();
+        ConnectionLifecycle<String, String>.Attempt attempt = connect("iot", null, first);
+        platform.lastCallback().onAvailable("net");
+
+        CountingListener second = new CountingListener();
+        ConnectionLifecycle<String, String>.Attempt replaced = lifecycle.connect(
+            "iot",
+            null,
+            "other-password",
+            ConnectionLifecycle.Settings.DEFAULT,
+            second
+        );
+        assertNotSame(attempt, replaced);
+        assertEquals(ConnectionLifecycle.State.RELEASED, attempt.getState());
+        assertEquals(0, second.connected.get());
+        assertEquals(1, platform.outstanding.size());
+        platform.lastCallback().onAvailable("net");
+        assertEquals(1, second.connected.get());
+    }
+
+    @Test
+    public void waitsForReadinessAndReportsPhaseTiming() {
+        CountingListener listener = new CountingListener();
+        now = 1000;
+        lifecycle.connect("iot", null, "a", settings(0, ConnectionLifecycle.Readiness.VALIDATED, RetryPolicy.NONE), listener);
+        ConnectionLifecycle.RequestCallback<String> callback = platform.lastCallback();
+
+        now += 800;
+        callback.onAvailable("net");
+        callback.onLinkPropertiesChanged(false);
+        now += 300;
+        callback.onLinkPropertiesChanged(true);
+        assertEquals(0, listener.connected.get());
+        now += 1200;
+        callback.onCapabilitiesChanged(true);
+
+        assertEquals(1, listener.connected.get());
+        assertEquals(800, listener.timing.toAvailableMs);
+        assertEquals(300, listener.timing.toIpAssignedMs);
+        assertEquals(1200, listener.timing.toValidatedMs);
+        assertEquals(2300, listener.timing.totalMs);
+        assertEquals(1, listener.timing.tries);
+    }
+
+    @Test
+    public void timesOutWhenNetworkIsNeverReady() {
+        CountingListener listener = new CountingListener();
+        lifecycle.connect("iot", null, "a", settings(5000, ConnectionLifecycle.Readiness.IP_ASSIGNED, RetryPolicy.NONE), listener);
+        platform.lastCallback().onAvailable("net");
+        assertEquals(0, listener.connected.get());
+
+        now += 5000;
+        platform.runScheduled();
+        assertEquals(1, listener.failed.get());
+        assertEquals(ConnectionLifecycle.Failure.TIMEOUT, listener.failure);
+        assertTrue(platform.outstanding.isEmpty());
+    }
+
+    @Test
+    public void readinessTimeoutIgnoredOnceConnected() {
+        CountingListener listener = new CountingListener();
+        lifecycle.connect("iot", null, "a", settings(5000, ConnectionLifecycle.Readiness.IP_ASSIGNED, RetryPolicy.NONE), listener);
+        platform.lastCallback().onAvailable("net");
+        platform.lastCallback().onLinkPropertiesChanged(true);
+
+        now += 5000;
+        platform.runScheduled();
+        assertEquals(1, listener.connected.get());
+        assertEquals(0, listener.failed.get());
+        assertEquals(1, platform.outstanding.size());
+    }
+
+    @Test
+    public void concurrentCallsSettleOnceAndReleaseEverything() throws InterruptedException {
+        int threads = 8;
+        int iterations = 5000;
+        List<List<CountingListener>> listeners = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        // Retries are filed right away from the failing callback, racing with everything else.
+        RetryPolicy retry = new RetryPolicy(3, 0, 0, 1, 0);
+        ConnectionLifecycle.Settings available = settings(0, ConnectionLifecycle.Readiness.AVAILABLE, retry);
+        ConnectionLifecycle.Settings ipAssigned = settings(0, ConnectionLifecycle.Readiness.IP_ASSIGNED, retry);
+        platform.runScheduledInline = true;
+
+        for (int t = 0; t < threads; t++) {
+            List<CountingListener> mine = new ArrayList<>();
+            listeners.add(mine);
+            new Thread(() -> {
+                await(start);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < iterations; i++) {
+                    ConnectionLifecycle.RequestCallback<String> callback;
+                    String ssid = "iot-" + random.nextInt(3);
+                    switch (random.nextInt(9)) {
+                        case 0:
+                            lifecycle.disconnect();
+                            break;
+                        case 1:
+                            callback = platform.randomCallback();
+                            if (callback != null) {
+                                callback.onAvailable(ssid);
+                            }
+                            break;
+                        case 2:
+                            callback = platform.randomCallback();
+                            if (callback != null) {
+                                callback.onUnavailable();
+                            }
+                            break;
+                        case 3:
+                            callback = platform.randomCallback();
+                            if (callback != null) {
+                                callback.onLost();
+                            }
+                            break;
+                        case 4:
+                            lifecycle.releaseSsid(ssid);
+                            break;
+                        case 5:
+                            lifecycle.cancel(random.nextInt(iterations));
+                            break;
+                        case 6:
+                            callback = platform.randomCallback();
+                            if (callback != null) {
+                                callback.onLinkPropertiesChanged(true);
+                            }
+                            break;
+                        default:
+                            CountingListener listener = new CountingListener();
+                            mine.add(listener);
+                            String bssid = random.nextBoolean() ? null : "aa:bb:cc:dd:ee:ff";
+                            lifecycle.connect(ssid, bssid, "net", random.nextBoolean() ? available : ipAssigned, listener);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+
+        start.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        lifecycle.disconnect();
+
+        assertTrue("every request is released", platform.outstanding.isEmpty());
+        assertEquals(0, platform.doubleReleases.get());
+        for (List<CountingListener> mine : listeners) {
+            for (CountingListener listener : mine) {
+                assertEquals(1, listener.connected.get() + listener.failed.get());
+            }
+        }
+    }
+
+    private static ConnectionLifecycle.Settings settings(int timeoutMs, ConnectionLifecycle.Readiness waitFor, RetryPolicy retry) {
+        return new ConnectionLifecycle.Settings(timeoutMs, waitFor, retry);
+    }
+
+    private ConnectionLifecycle<String, String>.Attempt connect(String ssid, String bssid, CountingListener listener) {
+        return lifecycle.connect(ssid, bssid, "net", ConnectionLifecycle.Settings.DEFAULT, listener);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class DiagnosticsTest {
+
+    private static final class RecordingSink implements Diagnostics.Sink {
+
+        int level = Diagnostics.OFF;
+        final List<String> lines = new ArrayList<>();
+
+        @Override
+        public boolean isLoggable(int level) {
+            return level >= this.level;
+        }
+
+        @Override
+        public void write(int level, String line, Throwable error) {
+            lines.add(line);
+        }
+    }
+
+    /** Counts how often an argument is turned into text. */
+    private static final class CountingArg {
+
+        int formatted;
+
+        @Override
+        public String toString() {
+            formatted++;
+            return "arg";
+        }
+    }
+
+    private long now = 1000;
+    private final RecordingSink sink = new RecordingSink();
+    private final Diagnostics diagnostics = new Diagnostics(4, sink, () -> now);
+
+    @Test
+    public void skipsFormattingBelowBothLevels() {
+        CountingArg arg = new CountingArg();
+        diagnostics.log(Diagnostics.DEBUG, "getBssid", "Valid BSSID found", arg);
+        assertEquals(0, arg.formatted);
+        assertTrue(diagnostics.dump(false).isEmpty());
+        assertTrue(sink.lines.isEmpty());
+
+        diagnostics.log(Diagnostics.WARN, "getBssid", "BSSID is null or placeholder value");
+        assertEquals(1, diagnostics.dump(false).size());
+    }
+
+    @Test
+    public void formatsRingEventsOnlyWhenDumped() {
+        CountingArg arg = new CountingArg();
+        diagnostics.setLevel(Diagnostics.DEBUG);
+        diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "Found private IPv4", arg);
+        diagnostics.log(Diagnostics.DEBUG, "getIpAddresses", "WifiInfo.getIpAddress() returned", 16885952L);
+        diagnostics.log(Diagnostics.INFO, "getIpAddresses", "Using NetworkInterface fallback", true, false);
+        diagnostics.log(Diagnostics.WARN, "getBssid", "BSSID is null or placeholder value", (Object) null);
+        assertEquals(0, arg.formatted);
+
+        List<Diagnostics.Event> events = diagnostics.dump(false);
+        assertEquals(1, arg.formatted);
+        assertEquals(4, events.size());
+        assertEquals("Found private IPv4: arg", events.get(0).message);
+        assertEquals("getIpAddresses", events.get(0).source);
+        assertEquals(1000, events.get(0).time);
+        assertEquals("WifiInfo.getIpAddress() returned: 16885952", events.get(1).message);
+        assertEquals("Using NetworkInterface fallback: true, false", events.get(2).message);
+        assertEquals(Diagnostics.WARN, events.get(3).level);
+        assertEquals("BSSID is null or placeholder value: null", events.get(3).message);
+        assertTrue(sink.lines.isEmpty());
+    }
+
+    @Test
+    public void ringKeepsNewestEvents() {
+        for (int i = 0; i < 6; i++) {
+            now = i;
+            diagnostics.log(Diagnostics.ERROR, "getIpAddresses", "Attempt", i);
+        }
+        assertEquals(2, diagnostics.getDroppedCount());
+        List<Diagnostics.Event> events = diagnostics.dump(true);
+        assertEquals(4, events.size());
+        assertEquals("Attempt: 2", events.get(0).message);
+        assertEquals("Attempt: 5", events.get(3).message);
+        assertEquals(0, diagnostics.getDroppedCount());
+        assertTrue(diagnostics.dump(false).isEmpty());
+    }
+
+    @Test
+    public void writesToSinkAtItsOwnLevel() {
+        sink.level = Diagnostics.DEBUG;
+        diagnostics.setLevel(Diagnostics.OFF);
+        IllegalStateException error = new IllegalStateException("boom");
+        diagnostics.log(Diagnostics.DEBUG, "getBssid", "Starting BSSID collection");
+        diagnostics.log(Diagnostics.ERROR, "getIpAddresses", "Overall method failed", error);
+
+        assertEquals(2, sink.lines.size());
+        assertEquals("getBssid: Starting BSSID collection", sink.lines.get(0));
+        assertEquals("getIpAddresses: Overall method failed", sink.lines.get(1));
+        assertTrue(diagnostics.dump(false).isEmpty());
+    }
+}
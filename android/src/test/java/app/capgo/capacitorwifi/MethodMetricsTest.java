@@ -0,0 +1,132 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import org.junit.Test;
+
+public class MethodMetricsTest {
+
+    private long now = 1_000_000_000L;
+    private final MethodMetrics metrics = new MethodMetrics(() -> now);
+
+    @Test
+    public void bucketsCoverEveryValue() {
+        long previous = -1;
+        for (int bucket = 0; bucket < MethodMetrics.Histogram.BUCKETS - 1; bucket++) {
+            long upper = MethodMetrics.Histogram.upperBoundOf(bucket);
+            assertTrue(upper > previous);
+            assertEquals(bucket, MethodMetrics.Histogram.bucketOf(previous + 1));
+            assertEquals(bucket, MethodMetrics.Histogram.bucketOf(upper));
+            previous = upper;
+        }
+        assertEquals(MethodMetrics.Histogram.BUCKETS - 1, MethodMetrics.Histogram.bucketOf(previous + 1));
+        assertEquals(MethodMetrics.Histogram.BUCKETS - 1, MethodMetrics.Histogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentilesStayWithinBucketError() {
+        MethodMetrics.Histogram histogram = new MethodMetrics.Histogram();
+        for (int micros = 1; micros <= 10000; micros++) {
+            histogram.record(micros * 10L);
+        }
+        MethodMetrics.Summary summary = histogram.summarize(false);
+        assertEquals(10000, summary.count);
+        assertEquals(50.0, summary.p50Ms, 50.0 * 0.125);
+        assertEquals(90.0, summary.p90Ms, 90.0 * 0.125);
+        assertEquals(99.0, summary.p99Ms, 99.0 * 0.125);
+        assertEquals(100.0, summary.maxMs, 0.0);
+        assertEquals(50.005, summary.meanMs, 0.001);
+        assertTrue(summary.p99Ms <= summary.maxMs);
+    }
+
+    @Test
+    public void timesCallsAndCountsOutcomes() {
+        Object first = new Object();
+        Object second = new Object();
+        metrics.begin(first, "getRssi");
+        metrics.begin(second, "getRssi");
+        now += 2_000_000;
+        metrics.end(first, "getRssi", true);
+        now += 3_000_000;
+        metrics.end(second, "getRssi", false);
+        // Later outcomes of a keep-alive call are counted without timing it again
+        metrics.end(first, "getRssi", true);
+
+        MethodMetrics.Snapshot snapshot = only(metrics.snapshot(false));
+        assertEquals("getRssi", snapshot.method);
+        assertEquals(2, snapshot.calls);
+        assertEquals(2, snapshot.resolved);
+        assertEquals(1, snapshot.rejected);
+        assertEquals(2, snapshot.latency.count);
+        assertEquals(5.0, snapshot.latency.maxMs, 0.0);
+        assertEquals(3.5, snapshot.latency.meanMs, 0.0);
+        assertEquals(0, snapshot.permissionWait.count);
+    }
+
+    @Test
+    public void recordsPermissionWaitApart() {
+        Object call = new Object();
+        metrics.begin(call, "getSsid");
+        metrics.permissionRequested(call);
+        now += 800_000_000;
+        metrics.permissionResult(call, "getSsid");
+        // The method runs again from the permission callback, the call keeps its start
+        metrics.begin(call, "getSsid");
+        now += 1_000_000;
+        metrics.end(call, "getSsid", true);
+
+        MethodMetrics.Snapshot snapshot = only(metrics.snapshot(false));
+        assertEquals(1, snapshot.calls);
+        assertEquals(801.0, snapshot.latency.maxMs, 0.0);
+        assertEquals(1, snapshot.permissionWait.count);
+        assertEquals(800.0, snapshot.permissionWait.maxMs, 0.0);
+    }
+
+    @Test
+    public void resetStartsNewPeriod() {
+        Object call = new Object();
+        metrics.begin(call, "isEnabled");
+        now += 1_000_000;
+        metrics.end(call, "isEnabled", true);
+        assertEquals(1, metrics.getPeriodMs());
+
+        assertEquals(1, only(metrics.snapshot(true)).calls);
+        MethodMetrics.Snapshot after = only(metrics.snapshot(false));
+        assertEquals(0, after.calls);
+        assertEquals(0, after.resolved);
+        assertEquals(0, after.latency.count);
+        assertEquals(0, metrics.getPeriodMs());
+    }
+
+    @Test
+    public void fullTableCountsUntimedCallsAndFreesStaleSlots() {
+        for (int i = 0; i < MethodMetrics.MAX_IN_FLIGHT; i++) {
+            metrics.begin(new Object(), "startRssiUpdates");
+        }
+        Object overflow = new Object();
+        metrics.begin(overflow, "getRssi");
+        assertEquals(1, metrics.getUntimedCount());
+        metrics.end(overflow, "getRssi", true);
+
+        now += (MethodMetrics.STALE_AFTER_MS + 1) * 1_000_000;
+        Object late = new Object();
+        metrics.begin(late, "getRssi");
+        now += 1_000_000;
+        metrics.end(late, "getRssi", true);
+        assertEquals(1, metrics.getUntimedCount());
+
+        for (MethodMetrics.Snapshot snapshot : metrics.snapshot(false)) {
+            if (snapshot.method.equals("getRssi")) {
+                assertEquals(2, snapshot.resolved);
+                assertEquals(1, snapshot.latency.count);
+                assertEquals(1.0, snapshot.latency.maxMs, 0.0);
+            }
+        }
+    }
+
+    private static MethodMetrics.Snapshot only(List<MethodMetrics.Snapshot> snapshots) {
+        assertEquals(1, snapshots.size());
+        return snapshots.get(0);
+    }
+}
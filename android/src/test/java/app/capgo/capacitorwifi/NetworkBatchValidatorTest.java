@@ -0,0 +1,60 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class NetworkBatchValidatorTest {
+
+    private final NetworkBatchValidator validator = new NetworkBatchValidator();
+
+    @Test
+    public void acceptsSupportedSecurityTypes() {
+        assertNull(validator.validate("open", null, CapabilitiesParser.SECURITY_OPEN));
+        assertNull(validator.validate("owe", "", CapabilitiesParser.SECURITY_OWE));
+        assertNull(validator.validate("wpa2", "password", CapabilitiesParser.SECURITY_PSK));
+        assertNull(validator.validate("wpa3", "pw", CapabilitiesParser.SECURITY_SAE));
+        assertNull(validator.validate("wep", "0a1b2c3d4e", CapabilitiesParser.SECURITY_WEP));
+    }
+
+    @Test
+    public void rejectsInvalidEntries() {
+        assertEquals("SSID is required", validator.validate("", null, CapabilitiesParser.SECURITY_OPEN));
+        assertNotNull(validator.validate("ssid-that-is-way-longer-than-32-bytes", null, CapabilitiesParser.SECURITY_OPEN));
+        assertNotNull(validator.validate("short", "1234567", CapabilitiesParser.SECURITY_PSK));
+        assertNotNull(validator.validate("long", "0123456789abcdef".repeat(4), CapabilitiesParser.SECURITY_PSK));
+        assertNotNull(validator.validate("unicode", "pässwörd", CapabilitiesParser.SECURITY_PSK));
+        assertNotNull(validator.validate("open", "secret123", CapabilitiesParser.SECURITY_OPEN));
+        assertNotNull(validator.validate("sae", null, CapabilitiesParser.SECURITY_SAE));
+        assertNotNull(validator.validate("wep", "0a1b2c3d4g", CapabilitiesParser.SECURITY_WEP));
+        assertEquals("Unsupported security type: 3", validator.validate("eap", "x", CapabilitiesParser.SECURITY_EAP));
+    }
+
+    @Test
+    public void flagsDuplicatesOfValidEntriesOnly() {
+        assertNotNull(validator.validate("site", "short", CapabilitiesParser.SECURITY_PSK));
+        assertNull(validator.validate("site", "password", CapabilitiesParser.SECURITY_PSK));
+        assertEquals("Duplicate network in batch", validator.validate("site", "password2", CapabilitiesParser.SECURITY_PSK));
+        assertNull(validator.validate("site", "password", CapabilitiesParser.SECURITY_SAE));
+    }
+
+    @Test
+    public void tellsHexWepKeysFromPassphrases() {
+        assertTrue(NetworkBatchValidator.isHexWepKey("0a1b2c3d4e"));
+        assertTrue(NetworkBatchValidator.isHexWepKey("0123456789ABCDEF0123456789"));
+        // Ten or 26 characters are not enough on their own
+        assertFalse(NetworkBatchValidator.isHexWepKey("passphrase"));
+        assertFalse(NetworkBatchValidator.isHexWepKey("\u0660123456789"));
+        assertFalse(NetworkBatchValidator.isHexWepKey("abcde"));
+        assertFalse(NetworkBatchValidator.isHexWepKey(null));
+        assertNotNull(validator.validate("wep", "passphrase", CapabilitiesParser.SECURITY_WEP));
+        assertNull(validator.validate("wep", "abcde", CapabilitiesParser.SECURITY_WEP));
+    }
+
+    @Test
+    public void defaultsToWpa2WithPassword() {
+        assertEquals(CapabilitiesParser.SECURITY_PSK, NetworkBatchValidator.defaultSecurityType("password"));
+        assertEquals(CapabilitiesParser.SECURITY_OPEN, NetworkBatchValidator.defaultSecurityType(""));
+        assertEquals(CapabilitiesParser.SECURITY_OPEN, NetworkBatchValidator.defaultSecurityType(null));
+    }
+}
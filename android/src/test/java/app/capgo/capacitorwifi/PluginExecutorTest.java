@@ -0,0 +1,169 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PluginExecutorTest {
+
+    private PluginExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new PluginExecutor("test", 2, 8);
+        executor.setMethodLimit("slow", 1);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void slowMethodDoesNotHoldUpCheapCalls() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger slowRunning = new AtomicInteger();
+        AtomicInteger maxSlowRunning = new AtomicInteger();
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch slowDone = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(
+                executor.execute("slow", () -> {
+                    maxSlowRunning.accumulateAndGet(slowRunning.incrementAndGet(), Math::max);
+                    slowStarted.countDown();
+                    await(release);
+                    slowRunning.decrementAndGet();
+                    slowDone.countDown();
+                })
+            );
+        }
+
+        // Only one slow call holds a worker, the others wait in their lane.
+        CountDownLatch cheapDone = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(executor.execute("cheap", cheapDone::countDown));
+        }
+        assertTrue("cheap calls should complete while slow ones are blocked", cheapDone.await(2, TimeUnit.SECONDS));
+        assertTrue(slowStarted.await(2, TimeUnit.SECONDS));
+
+        assertEquals(2, executor.getQueueDepth());
+        PluginExecutor.MethodStats slow = statsOf("slow");
+        assertEquals(1, slow.running);
+        assertEquals(2, slow.queued);
+
+        release.countDown();
+        assertTrue(slowDone.await(2, TimeUnit.SECONDS));
+        assertEquals(1, maxSlowRunning.get());
+        waitForIdle();
+        assertEquals(3, statsOf("slow").completed);
+        assertEquals(5, statsOf("cheap").completed);
+        assertEquals(0, executor.getQueueDepth());
+    }
+
+    @Test
+    public void shutdownDropsTasksThatDidNotStart() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger ran = new AtomicInteger();
+        AtomicInteger dropped = new AtomicInteger();
+        for (String method : new String[] { "slow", "other" }) {
+            assertTrue(
+                executor.execute(method, () -> {
+                    started.countDown();
+                    await(release);
+                })
+            );
+        }
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        // Two wait in the slow lane, one in the pool queue behind the busy workers.
+        for (String method : new String[] { "slow", "slow", "cheap" }) {
+            assertTrue(executor.execute(method, ran::incrementAndGet, dropped::incrementAndGet));
+        }
+
+        assertFalse(executor.isShutdown());
+        executor.shutdown();
+        assertTrue(executor.isShutdown());
+        assertEquals(3, dropped.get());
+        assertEquals(0, executor.getQueueDepth());
+        // Refused outright, the caller settles the call itself.
+        assertFalse(executor.execute("cheap", ran::incrementAndGet, dropped::incrementAndGet));
+        assertEquals(3, dropped.get());
+        assertEquals(0, ran.get());
+    }
+
+    @Test
+    public void rejectsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        assertTrue(
+            executor.execute("slow", () -> {
+                started.countDown();
+                await(release);
+            })
+        );
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        // One running plus eight queued fill the executor.
+        for (int i = 0; i < 8; i++) {
+            assertTrue(executor.execute("slow", () -> await(release)));
+        }
+        assertFalse(executor.execute("cheap", () -> {}));
+        assertEquals(1, statsOf("cheap").rejected);
+
+        release.countDown();
+        waitForIdle();
+        assertTrue(executor.execute("cheap", () -> {}));
+    }
+
+    @Test
+    public void measuresWaitTime() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        executor.execute("slow", () -> {
+            await(release);
+            done.countDown();
+        });
+        executor.execute("slow", done::countDown);
+
+        Thread.sleep(50);
+        release.countDown();
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        waitForIdle();
+        assertTrue("second call waited behind the first", statsOf("slow").maxWaitMs >= 40);
+    }
+
+    private PluginExecutor.MethodStats statsOf(String method) {
+        for (PluginExecutor.MethodStats stats : executor.getMethodStats()) {
+            if (stats.method.equals(method)) {
+                return stats;
+            }
+        }
+        throw new AssertionError("No stats for " + method);
+    }
+
+    private void waitForIdle() throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            boolean idle = executor.getQueueDepth() == 0;
+            for (PluginExecutor.MethodStats stats : executor.getMethodStats()) {
+                idle &= stats.running == 0;
+            }
+            if (idle) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("executor did not become idle");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class PluginTracerTest {
+
+    /** Records sections as "begin name" / "end name" lines, checking each thread ends the section it began last. */
+    private static final class FakeTracer implements PluginTracer {
+
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> openAsync = Collections.synchronizedSet(new HashSet<>());
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private final ThreadLocal<Deque<String>> stack = ThreadLocal.withInitial(ArrayDeque::new);
+
+        @Override
+        public void beginSection(String name) {
+            stack.get().push(name);
+            events.add("begin " + name);
+        }
+
+        @Override
+        public void endSection() {
+            String name = stack.get().poll();
+            if (name == null) {
+                errors.add("end without begin");
+                return;
+            }
+            events.add("end " + name);
+        }
+
+        @Override
+        public void beginAsyncSection(String name, int cookie) {
+            if (!openAsync.add(name + "#" + cookie)) {
+                errors.add("async " + name + "#" + cookie + " begun twice");
+            }
+            events.add("beginAsync " + name);
+        }
+
+        @Override
+        public void endAsyncSection(String name, int cookie) {
+            if (!openAsync.remove(name + "#" + cookie)) {
+                errors.add("async " + name + "#" + cookie + " ended without begin");
+            }
+            events.add("endAsync " + name);
+        }
+
+        void assertBalanced() {
+            assertEquals(Collections.emptyList(), errors);
+            assertTrue(stack.get().isEmpty());
+            assertTrue(openAsync.isEmpty());
+        }
+    }
+
+    private final FakeTracer tracer = new FakeTracer();
+    private final PluginExecutor executor = new PluginExecutor("test", 2, 8);
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void methodSectionWrapsPhaseSections() throws InterruptedException {
+        executor.setTracer(tracer);
+        // One at a time, so the two calls' sections follow each other
+        executor.setMethodLimit("getIpAddresses", 1);
+        CountDownLatch done = new CountDownLatch(2);
+        executor.execute("getIpAddresses", () -> {
+            tracer.beginSection("enumerateInterfaces");
+            tracer.endSection();
+            done.countDown();
+        });
+        executor.execute("getIpAddresses", () -> {
+            try {
+                throw new IllegalStateException("boom");
+            } finally {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        awaitEvents(6);
+
+        List<String> expected = new ArrayList<>();
+        expected.add("begin getIpAddresses");
+        expected.add("begin enumerateInterfaces");
+        expected.add("end enumerateInterfaces");
+        expected.add("end getIpAddresses");
+        // The task that throws still ends its section
+        expected.add("begin getIpAddresses");
+        expected.add("end getIpAddresses");
+        assertEquals(expected, tracer.events);
+        tracer.assertBalanced();
+    }
+
+    @Test
+    public void switchingTracerMidTaskKeepsSectionsBalanced() throws InterruptedException {
+        executor.setTracer(tracer);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute("getRssi", () -> {
+            started.countDown();
+            await(release);
+            done.countDown();
+        });
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        executor.setTracer(PluginTracer.NONE);
+        release.countDown();
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        awaitEvents(2);
+
+        CountDownLatch untraced = new CountDownLatch(1);
+        executor.execute("getRssi", untraced::countDown);
+        assertTrue(untraced.await(2, TimeUnit.SECONDS));
+        assertEquals(2, tracer.events.size());
+        tracer.assertBalanced();
+    }
+
+    @Test
+    public void scanSliceSpansAcceptedScanOnly() {
+        ScanCoordinator coordinator = new ScanCoordinator();
+        coordinator.setTracer(tracer);
+
+        assertEquals(ScanCoordinator.Outcome.THROTTLED, coordinator.requestScan(null, () -> false));
+        assertTrue(tracer.events.isEmpty());
+
+        assertEquals(ScanCoordinator.Outcome.STARTED, coordinator.requestScan(null, () -> true));
+        assertEquals(ScanCoordinator.Outcome.JOINED, coordinator.requestScan(null, () -> true));
+        // Switching off mid-scan still ends the slice on the tracer that began it
+        coordinator.setTracer(PluginTracer.NONE);
+        coordinator.onScanResults(true);
+        // Results of a scan started by the system end nothing
+        coordinator.onScanResults(true);
+
+        coordinator.setTracer(tracer);
+        assertEquals(ScanCoordinator.Outcome.STARTED, coordinator.requestScan(null, () -> true));
+        coordinator.onScanTimeout();
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            expected.add("beginAsync " + ScanCoordinator.TRACE_SECTION);
+            expected.add("endAsync " + ScanCoordinator.TRACE_SECTION);
+        }
+        assertEquals(expected, tracer.events);
+        tracer.assertBalanced();
+    }
+
+    @Test
+    public void networkRequestSliceEndsOnceOnRelease() {
+        List<ConnectionLifecycle.RequestCallback<String>> callbacks = new ArrayList<>();
+        ConnectionLifecycle<String, String> lifecycle = new ConnectionLifecycle<>(
+            new ConnectionLifecycle.Platform<String, String>() {
+                @Override
+                public Object request(String request, int timeoutMs, ConnectionLifecycle.RequestCallback<String> callback) {
+                    callbacks.add(callback);
+                    return new Object();
+                }
+
+                @Override
+                public void release(Object token) {}
+
+                @Override
+                public void schedule(Runnable task, long delayMs) {}
+
+                @Override
+                public boolean isInRange(String ssid, String bssid) {
+                    return false;
+                }
+            },
+            () -> 0,
+            () -> 0.5
+        );
+        lifecycle.setTracer(tracer);
+        ConnectionLifecycle.Listener listener = new ConnectionLifecycle.Listener() {
+            @Override
+            public void onConnected(int handle, ConnectionLifecycle.Timing timing) {}
+
+            @Override
+            public void onFailed(ConnectionLifecycle.Failure failure, String message) {}
+        };
+
+        ConnectionLifecycle.Settings settings = ConnectionLifecycle.Settings.DEFAULT;
+        ConnectionLifecycle<String, String>.Attempt first = lifecycle.connect("iot", null, "net", settings, listener);
+        // Superseding releases the first request, releasing it again ends nothing
+        ConnectionLifecycle<String, String>.Attempt second = lifecycle.connect("iot", null, "net", settings, listener);
+        assertFalse(lifecycle.release(first.handle));
+        assertEquals(1, tracer.openAsync.size());
+        callbacks.get(1).onAvailable("net");
+        assertTrue(lifecycle.release(second.handle));
+        callbacks.get(1).onUnavailable();
+
+        List<String> expected = new ArrayList<>();
+        expected.add("beginAsync " + ConnectionLifecycle.TRACE_SECTION);
+        expected.add("endAsync " + ConnectionLifecycle.TRACE_SECTION);
+        expected.add("beginAsync " + ConnectionLifecycle.TRACE_SECTION);
+        expected.add("endAsync " + ConnectionLifecycle.TRACE_SECTION);
+        assertEquals(expected, tracer.events);
+        tracer.assertBalanced();
+    }
+
+    /** The section ends after the task body, so wait for the worker to record it. */
+    private void awaitEvents(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (tracer.events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, tracer.events.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
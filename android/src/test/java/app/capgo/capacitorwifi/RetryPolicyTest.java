@@ -0,0 +1,37 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void backsOffExponentiallyUpToMaximum() {
+        RetryPolicy policy = new RetryPolicy(10, 1000, 5000, 2, 0);
+        assertEquals(1000, policy.delayMs(1, () -> 0.7));
+        assertEquals(2000, policy.delayMs(2, () -> 0.7));
+        assertEquals(4000, policy.delayMs(3, () -> 0.7));
+        assertEquals(5000, policy.delayMs(4, () -> 0.7));
+        assertEquals(5000, policy.delayMs(9, () -> 0.7));
+    }
+
+    @Test
+    public void jitterRandomizesFractionOfDelay() {
+        RetryPolicy policy = new RetryPolicy(3, 1000, 30000, 2, 0.5);
+        assertEquals(1000, policy.delayMs(2, () -> 0.0));
+        assertEquals(1500, policy.delayMs(2, () -> 0.5));
+        assertEquals(2000, policy.delayMs(2, () -> 0.9999), 1);
+    }
+
+    @Test
+    public void retriesOnlyTransientFailures() {
+        RetryPolicy policy = new RetryPolicy(3, 1000, 30000, 2, 0.5);
+        assertTrue(policy.shouldRetry(1, ConnectionLifecycle.Failure.TIMEOUT));
+        assertTrue(policy.shouldRetry(2, ConnectionLifecycle.Failure.UNAVAILABLE));
+        assertFalse(policy.shouldRetry(3, ConnectionLifecycle.Failure.UNAVAILABLE));
+        assertFalse(policy.shouldRetry(1, ConnectionLifecycle.Failure.USER_REJECTED));
+        assertFalse(policy.shouldRetry(1, ConnectionLifecycle.Failure.CANCELLED));
+        assertFalse(RetryPolicy.NONE.shouldRetry(1, ConnectionLifecycle.Failure.TIMEOUT));
+    }
+}
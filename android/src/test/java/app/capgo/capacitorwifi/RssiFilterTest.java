@@ -0,0 +1,68 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RssiFilterTest {
+
+    private long now;
+    private RssiFilter filter;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        filter = new RssiFilter(() -> now, 1000, 3);
+    }
+
+    @Test
+    public void emitsFirstSampleThenOnlyMovesBeyondHysteresis() {
+        assertTrue(filter.offer(-60));
+        now += 5000;
+        assertFalse(filter.offer(-61));
+        assertFalse(filter.offer(-58));
+        assertTrue(filter.offer(-63));
+        assertEquals(-63, filter.lastEmitted());
+        assertEquals(RssiFilter.NO_PENDING, filter.millisUntilFlush());
+    }
+
+    @Test
+    public void keepsEarlySampleAsPendingUntilIntervalElapses() {
+        assertTrue(filter.offer(-60));
+        now += 200;
+        assertFalse(filter.offer(-70));
+        assertEquals(800, filter.millisUntilFlush());
+
+        now += 300;
+        assertFalse(filter.flushPending());
+        // A newer sample replaces the pending one.
+        assertFalse(filter.offer(-75));
+
+        now += 500;
+        assertTrue(filter.flushPending());
+        assertEquals(-75, filter.lastEmitted());
+        assertFalse(filter.flushPending());
+    }
+
+    @Test
+    public void dropsPendingSampleWhenSignalComesBack() {
+        assertTrue(filter.offer(-60));
+        now += 100;
+        assertFalse(filter.offer(-70));
+        assertFalse(filter.offer(-61));
+        assertEquals(RssiFilter.NO_PENDING, filter.millisUntilFlush());
+
+        now += 2000;
+        assertFalse(filter.flushPending());
+        assertEquals(-60, filter.lastEmitted());
+    }
+
+    @Test
+    public void zeroHysteresisStillIgnoresIdenticalSamples() {
+        filter = new RssiFilter(() -> now, 0, 0);
+        assertTrue(filter.offer(-50));
+        assertFalse(filter.offer(-50));
+        assertTrue(filter.offer(-51));
+    }
+}
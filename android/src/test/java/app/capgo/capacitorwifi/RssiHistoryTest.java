@@ -0,0 +1,79 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RssiHistoryTest {
+
+    private static final String AP1 = "aa:bb:cc:dd:ee:01";
+    private static final String AP2 = "aa:bb:cc:dd:ee:02";
+
+    private long now;
+    private RssiHistory history;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        history = new RssiHistory(() -> now, 8, 2);
+    }
+
+    @Test
+    public void computesStatisticsOverWindow() {
+        int[] samples = { -50, -52, -54, -56, -58 };
+        for (int rssi : samples) {
+            history.record(AP1, rssi);
+            now += 1000;
+        }
+
+        RssiHistory.Stats stats = history.stats(AP1, 60000);
+        assertEquals(5, stats.count);
+        assertEquals(-58, stats.min);
+        assertEquals(-50, stats.max);
+        assertEquals(-54.0, stats.mean, 1e-9);
+        assertEquals(Math.sqrt(8), stats.stddev, 1e-9);
+        assertEquals(-54, stats.p50);
+        assertEquals(-50, stats.p95);
+
+        // Only the last two samples (recorded 2 s and 1 s ago) fall in a 2 s window.
+        stats = history.stats(AP1, 2000);
+        assertEquals(2, stats.count);
+        assertEquals(-57.0, stats.mean, 1e-9);
+    }
+
+    @Test
+    public void ringBufferKeepsNewestSamples() {
+        for (int i = 0; i < 20; i++) {
+            history.record(AP1, -40 - i);
+        }
+
+        RssiHistory.Stats stats = history.stats(AP1, 60000);
+        assertEquals(8, stats.count);
+        assertEquals(-59, stats.min);
+        assertEquals(-52, stats.max);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBssid() {
+        history.record(AP1, -50);
+        history.record(AP2, -60);
+        history.record(AP1, -51);
+        history.record("aa:bb:cc:dd:ee:03", -70);
+
+        assertNotNull(history.stats(AP1, 60000));
+        assertNull(history.stats(AP2, 60000));
+        assertNull(history.stats(null, 60000));
+    }
+
+    @Test
+    public void percentileUsesNearestRank() {
+        int[] sorted = new int[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+        assertEquals(50, RssiHistory.percentile(sorted, 100, 50));
+        assertEquals(95, RssiHistory.percentile(sorted, 100, 95));
+        assertEquals(1, RssiHistory.percentile(sorted, 1, 95));
+    }
+}
@@ -0,0 +1,89 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import org.junit.Test;
+
+public class ScanColumnsEncoderTest {
+
+    /**
+     * Columns of the networks added by {@link #encodeFixtureNetworks}, as produced by the encoder.
+     * test/columns.test.mjs runs decodeNetworkColumns() of src/columns.ts on the same file.
+     */
+    private static final String FIXTURE = "network-columns.txt";
+
+    @Test
+    public void encodesDecoderFixture() throws IOException {
+        String expected;
+        try (InputStream in = ScanColumnsEncoderTest.class.getResourceAsStream(FIXTURE)) {
+            assertNotNull(FIXTURE, in);
+            expected = new String(in.readAllBytes(), StandardCharsets.US_ASCII).trim();
+        }
+        ScanColumnsEncoder encoder = new ScanColumnsEncoder(1);
+        encodeFixtureNetworks(encoder);
+        assertEquals(expected, Base64.getEncoder().encodeToString(encoder.encode()));
+    }
+
+    /** Covers a shared SSID, a multi-byte SSID, a clamped RSSI, an uppercase BSSID and missing values. */
+    private static void encodeFixtureNetworks(ScanColumnsEncoder encoder) {
+        encoder.add("aa:bb:cc:dd:ee:ff", "Office", -45, 5180, 2);
+        encoder.add("00:11:22:33:44:55", "Caf\u00e9 \u2615", -88, 2412, 0);
+        encoder.add("AA:BB:CC:DD:EE:01", "Office", -200, 60480, 4);
+        encoder.add(null, null, 10, 5955, 8);
+    }
+
+    @Test
+    public void parseBssidRejectsMalformedValues() {
+        assertEquals(0xaabbccddeeffL, ScanColumnsEncoder.parseBssid("aa:bb:cc:dd:ee:ff"));
+        assertEquals(0xaabbccddeeffL, ScanColumnsEncoder.parseBssid("AA-BB-CC-DD-EE-FF"));
+        assertEquals(0, ScanColumnsEncoder.parseBssid("aa:bb:cc:dd:ee"));
+        assertEquals(0, ScanColumnsEncoder.parseBssid("aa:bb:cc:dd:ee:fg"));
+        assertEquals(0, ScanColumnsEncoder.parseBssid("aa.bb.cc.dd.ee.ff"));
+    }
+
+    @Test
+    public void columnarPayloadIsUnderAThirdOfJson() {
+        int networks = 300;
+        Random random = new Random(42);
+        JSArray json = new JSArray();
+        ScanColumnsEncoder encoder = new ScanColumnsEncoder(networks);
+        for (int i = 0; i < networks; i++) {
+            String bssid = String.format("%02x:%02x:%02x:%02x:%02x:%02x", 0x10, 0x20, random.nextInt(256), random.nextInt(256), i >> 8, i & 0xFF);
+            // Dense offices have many BSSIDs for a handful of SSIDs.
+            String ssid = "Office-" + random.nextInt(12);
+            int rssi = -30 - random.nextInt(65);
+            int frequency = random.nextBoolean() ? 2412 + 5 * random.nextInt(11) : 5180 + 20 * random.nextInt(8);
+
+            // Same attributes and keys as toNetworkObject() in the plugin
+            JSObject network = new JSObject();
+            network.put("ssid", ssid);
+            network.put("bssid", bssid);
+            network.put("rssi", rssi);
+            network.put("frequency", frequency);
+            JSArray securityTypes = new JSArray();
+            securityTypes.put(CapabilitiesParser.SECURITY_PSK);
+            network.put("securityTypes", securityTypes);
+            json.put(network);
+            encoder.add(bssid, ssid, rssi, frequency, CapabilitiesParser.SECURITY_PSK);
+        }
+        JSObject result = new JSObject();
+        result.put("networks", json);
+
+        int jsonBytes = result.toString().getBytes(StandardCharsets.UTF_8).length;
+        byte[] columns = encoder.encode();
+        int columnsBytes = Base64.getEncoder().encodeToString(columns).length();
+
+        // 14 bytes per network plus the dictionary, vs ~90 bytes of JSON per network.
+        assertTrue("columnar payload should be under a third of the JSON one", columnsBytes * 3 < jsonBytes);
+        assertEquals(networks, ByteBuffer.wrap(columns).order(ByteOrder.LITTLE_ENDIAN).getInt(4));
+    }
+}
@@ -0,0 +1,227 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ScanCoordinatorTest {
+
+    private static final class CountingWaiter implements ScanCoordinator.Waiter {
+
+        final AtomicInteger completions = new AtomicInteger();
+        volatile String failure;
+
+        @Override
+        public void onScanCompleted(boolean resultsUpdated) {
+            completions.incrementAndGet();
+        }
+
+        @Override
+        public void onScanFailed(String message) {
+            failure = message;
+            completions.incrementAndGet();
+        }
+    }
+
+    private final ScanCoordinator coordinator = new ScanCoordinator();
+
+    @Test
+    public void joinsScanInFlight() {
+        CountingWaiter first = new CountingWaiter();
+        CountingWaiter second = new CountingWaiter();
+        assertEquals(ScanCoordinator.Outcome.STARTED, coordinator.requestScan(first, () -> true));
+        ScanCoordinator.Outcome joined = coordinator.requestScan(second, () -> {
+            throw new AssertionError("no second scan");
+        });
+        assertEquals(ScanCoordinator.Outcome.JOINED, joined);
+        assertTrue(coordinator.isScanInFlight());
+
+        coordinator.onScanResults(true);
+        assertEquals(1, first.completions.get());
+        assertEquals(1, second.completions.get());
+        assertFalse(coordinator.isScanInFlight());
+
+        ScanCoordinator.Stats stats = coordinator.getStats();
+        assertEquals(2, stats.requested);
+        assertEquals(1, stats.started);
+        assertEquals(1, stats.coalesced);
+        assertEquals(1, stats.completed);
+    }
+
+    @Test
+    public void throttledStartDoesNotNotifyCaller() {
+        CountingWaiter waiter = new CountingWaiter();
+        assertEquals(ScanCoordinator.Outcome.THROTTLED, coordinator.requestScan(waiter, () -> false));
+        assertEquals(0, waiter.completions.get());
+        assertFalse(coordinator.isScanInFlight());
+
+        coordinator.onScanResults(true);
+        assertEquals(0, waiter.completions.get());
+    }
+
+    @Test
+    public void timeoutFailsWaitersOnce() {
+        CountingWaiter waiter = new CountingWaiter();
+        coordinator.requestScan(waiter, () -> true);
+        coordinator.onScanTimeout();
+        coordinator.onScanTimeout();
+        coordinator.onScanResults(true);
+        assertEquals(1, waiter.completions.get());
+    }
+
+    @Test
+    public void timeoutLetsNextRequestStartNewScan() {
+        CountingWaiter stuck = new CountingWaiter();
+        coordinator.requestScan(stuck, () -> true);
+        coordinator.onScanTimeout();
+        assertEquals("Timed out waiting for scan results", stuck.failure);
+        assertFalse(coordinator.isScanInFlight());
+
+        AtomicInteger starts = new AtomicInteger();
+        CountingWaiter next = new CountingWaiter();
+        assertEquals(ScanCoordinator.Outcome.STARTED, coordinator.requestScan(next, () -> starts.incrementAndGet() > 0));
+        assertEquals(1, starts.get());
+        coordinator.onScanResults(true);
+        assertEquals(1, next.completions.get());
+        assertNull(next.failure);
+
+        ScanCoordinator.Stats stats = coordinator.getStats();
+        assertEquals(2, stats.started);
+        assertEquals(1, stats.failed);
+        assertEquals(1, stats.completed);
+    }
+
+    @Test
+    public void failedStartIsCountedAndDoesNotNotifyCaller() {
+        CountingWaiter waiter = new CountingWaiter();
+        ScanCoordinator.Outcome outcome = coordinator.requestScan(waiter, () -> {
+            throw new SecurityException("missing permission");
+        });
+        assertEquals(ScanCoordinator.Outcome.FAILED, outcome);
+        assertEquals(0, waiter.completions.get());
+        assertFalse(coordinator.isScanInFlight());
+
+        assertEquals(ScanCoordinator.Outcome.THROTTLED, coordinator.requestScan(null, () -> false));
+        ScanCoordinator.Stats stats = coordinator.getStats();
+        assertEquals(2, stats.requested);
+        assertEquals(0, stats.started);
+        assertEquals(1, stats.throttled);
+        assertEquals(1, stats.failed);
+    }
+
+    @Test
+    public void staleResultsCountAsFailedScan() {
+        CountingWaiter waiter = new CountingWaiter();
+        coordinator.requestScan(waiter, () -> true);
+        coordinator.onScanResults(false);
+        // The caller still gets the cached results, only the stats tell the scan apart
+        assertEquals(1, waiter.completions.get());
+        assertNull(waiter.failure);
+        assertEquals(1, coordinator.getStats().failed);
+        assertEquals(0, coordinator.getStats().completed);
+    }
+
+    @Test
+    public void systemScanResultsDoNotCountAsOurScan() {
+        coordinator.onScanResults(true);
+        ScanCoordinator.Stats stats = coordinator.getStats();
+        assertEquals(0, stats.completed);
+        assertEquals(0, stats.failed);
+        assertFalse(stats.inFlight);
+    }
+
+    @Test
+    public void cancelAllFailsWaitersAndReturnsToIdle() {
+        CountingWaiter first = new CountingWaiter();
+        CountingWaiter second = new CountingWaiter();
+        coordinator.requestScan(first, () -> true);
+        coordinator.requestScan(second, () -> true);
+        coordinator.cancelAll("Plugin destroyed");
+        assertEquals("Plugin destroyed", first.failure);
+        assertEquals("Plugin destroyed", second.failure);
+        assertFalse(coordinator.isScanInFlight());
+
+        // The results of the cancelled scan complete nobody
+        coordinator.onScanResults(true);
+        assertEquals(1, first.completions.get());
+        assertEquals(1, second.completions.get());
+    }
+
+    @Test
+    public void concurrentRequestsSettleEachWaiterOnce() throws InterruptedException {
+        int threads = 8;
+        int iterations = 5000;
+        AtomicInteger scanning = new AtomicInteger();
+        AtomicInteger maxScanning = new AtomicInteger();
+        List<List<CountingWaiter>> settled = new ArrayList<>();
+        List<List<CountingWaiter>> refused = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            List<CountingWaiter> mySettled = new ArrayList<>();
+            List<CountingWaiter> myRefused = new ArrayList<>();
+            settled.add(mySettled);
+            refused.add(myRefused);
+            new Thread(() -> {
+                await(start);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < iterations; i++) {
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            coordinator.onScanResults(random.nextBoolean());
+                            break;
+                        case 1:
+                            coordinator.onScanTimeout();
+                            break;
+                        default:
+                            CountingWaiter waiter = new CountingWaiter();
+                            ScanCoordinator.Outcome outcome = coordinator.requestScan(waiter, () -> {
+                                maxScanning.accumulateAndGet(scanning.incrementAndGet(), Math::max);
+                                Thread.yield();
+                                scanning.decrementAndGet();
+                                return random.nextInt(5) != 0;
+                            });
+                            if (outcome == ScanCoordinator.Outcome.STARTED || outcome == ScanCoordinator.Outcome.JOINED) {
+                                mySettled.add(waiter);
+                            } else {
+                                myRefused.add(waiter);
+                            }
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+
+        start.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        coordinator.cancelAll("done");
+
+        assertEquals("startScan never runs twice at once", 1, maxScanning.get());
+        assertFalse(coordinator.isScanInFlight());
+        for (List<CountingWaiter> waiters : settled) {
+            for (CountingWaiter waiter : waiters) {
+                assertEquals(1, waiter.completions.get());
+            }
+        }
+        for (List<CountingWaiter> waiters : refused) {
+            for (CountingWaiter waiter : waiters) {
+                assertEquals(0, waiter.completions.get());
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
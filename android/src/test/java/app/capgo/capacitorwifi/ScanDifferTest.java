@@ -0,0 +1,116 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class ScanDifferTest {
+
+    private static final class Entry {
+
+        final String bssid;
+        final int rssi;
+
+        Entry(String bssid, int rssi) {
+            this.bssid = bssid;
+            this.rssi = rssi;
+        }
+    }
+
+    private final ScanDiffer<Entry> differ = new ScanDiffer<>(e -> e.bssid, e -> e.rssi);
+
+    @Test
+    public void firstUpdateIsFullSnapshot() {
+        ScanDiffer.Diff<Entry> diff = differ.update(list(new Entry("a", -50), new Entry("b", -60)), ScanDiffer.NO_SEQUENCE, 5);
+
+        assertTrue(diff.full);
+        assertEquals(0, diff.baseSequence);
+        assertEquals(1, diff.sequence);
+        assertEquals(2, diff.added.size());
+        assertTrue(diff.removed.isEmpty());
+    }
+
+    @Test
+    public void reportsAddedChangedAndRemoved() {
+        ScanDiffer.Diff<Entry> first = differ.update(list(new Entry("a", -50), new Entry("b", -60)), ScanDiffer.NO_SEQUENCE, 5);
+
+        ScanDiffer.Diff<Entry> diff = differ.update(list(new Entry("a", -58), new Entry("c", -70)), first.sequence, 5);
+
+        assertFalse(diff.full);
+        assertEquals(first.sequence, diff.baseSequence);
+        assertEquals("c", diff.added.get(0).bssid);
+        assertEquals(1, diff.added.size());
+        assertEquals("a", diff.changed.get(0).bssid);
+        assertEquals(Collections.singletonList("b"), diff.removed);
+    }
+
+    @Test
+    public void smallRssiChangesAccumulateUntilThreshold() {
+        long seq = differ.update(list(new Entry("a", -50)), ScanDiffer.NO_SEQUENCE, 5).sequence;
+
+        ScanDiffer.Diff<Entry> diff = differ.update(list(new Entry("a", -52)), seq, 5);
+        assertTrue(diff.changed.isEmpty());
+
+        diff = differ.update(list(new Entry("a", -54)), diff.sequence, 5);
+        assertTrue(diff.changed.isEmpty());
+
+        diff = differ.update(list(new Entry("a", -55)), diff.sequence, 5);
+        assertEquals(1, diff.changed.size());
+    }
+
+    @Test
+    public void unknownSequenceForcesFullResync() {
+        long seq = differ.update(list(new Entry("a", -50)), ScanDiffer.NO_SEQUENCE, 5).sequence;
+        for (int i = 0; i < ScanDiffer.MAX_SNAPSHOTS; i++) {
+            differ.update(list(new Entry("a", -50), new Entry("b", -40)), ScanDiffer.NO_SEQUENCE, 5);
+        }
+
+        // The caller's snapshot is no longer kept, and 42 was never handed out.
+        ScanDiffer.Diff<Entry> diff = differ.update(list(new Entry("a", -50), new Entry("b", -40)), seq, 5);
+        assertTrue(diff.full);
+        assertEquals(2, diff.added.size());
+        assertTrue(diff.removed.isEmpty());
+        assertTrue(differ.update(list(new Entry("a", -50)), 42, 5).full);
+    }
+
+    @Test
+    public void callersDiffAgainstTheirOwnSequence() {
+        long first = differ.update(list(new Entry("a", -50)), ScanDiffer.NO_SEQUENCE, 5).sequence;
+        long second = differ.update(list(new Entry("a", -50)), ScanDiffer.NO_SEQUENCE, 5).sequence;
+
+        // Each poller gets a delta from what it applied, whatever the other pulled meanwhile.
+        ScanDiffer.Diff<Entry> diff = differ.update(list(new Entry("a", -50), new Entry("b", -40)), first, 5);
+        assertFalse(diff.full);
+        assertEquals(first, diff.baseSequence);
+        assertEquals("b", diff.added.get(0).bssid);
+
+        diff = differ.update(list(new Entry("b", -40)), second, 5);
+        assertFalse(diff.full);
+        assertEquals(1, diff.added.size());
+        assertEquals(Collections.singletonList("a"), diff.removed);
+    }
+
+    @Test
+    public void updateFromLatestFollowsEveryUpdate() {
+        assertEquals(1, differ.updateFromLatest(list(new Entry("a", -50)), 5).added.size());
+        ScanDiffer.Diff<Entry> diff = differ.updateFromLatest(list(new Entry("a", -50), new Entry("b", -40)), 5);
+        assertFalse(diff.full);
+        assertEquals(1, diff.added.size());
+        assertEquals(diff.baseSequence + 1, diff.sequence);
+    }
+
+    @Test
+    public void duplicateBssidsAreReportedOnce() {
+        ScanDiffer.Diff<Entry> diff = differ.update(list(new Entry("a", -50), new Entry("a", -80)), ScanDiffer.NO_SEQUENCE, 5);
+
+        assertEquals(1, diff.added.size());
+        assertEquals(-50, diff.added.get(0).rssi);
+    }
+
+    private static List<Entry> list(Entry... entries) {
+        return Arrays.asList(entries);
+    }
+}
@@ -0,0 +1,145 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import android.net.wifi.ScanResult;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class ScanQueryTest {
+
+    @Test
+    public void selectTopKeepsBestInOrder() {
+        List<Integer> rssi = Arrays.asList(-70, -40, -90, -55, -60, -30, -80);
+
+        List<Integer> top = ScanQuery.selectTop(rssi, Comparator.reverseOrder(), 3);
+
+        assertEquals(Arrays.asList(-30, -40, -55), top);
+    }
+
+    @Test
+    public void selectTopWithLargerLimitReturnsEverythingSorted() {
+        List<Integer> top = ScanQuery.selectTop(Arrays.asList(3, 1, 2), Comparator.naturalOrder(), 10);
+
+        assertEquals(Arrays.asList(1, 2, 3), top);
+    }
+
+    private static final ScanResult OFFICE = network("Office", -50, 5180, "[WPA2-PSK-CCMP][ESS]");
+    private static final ScanResult OFFICE_GUEST = network("Office-Guest", -75, 2437, "[ESS]");
+    private static final ScanResult CAMERA = network("cam-0042", -60, 2412, "[RSN-SAE-CCMP][ESS]");
+    private static final ScanResult HIDDEN = network(null, -40, 5955, "[RSN-SAE-CCMP][ESS]");
+
+    @Test
+    public void emptyQueryMatchesEverything() {
+        ScanQuery query = new ScanQuery();
+        assertTrue(query.isEmpty());
+        for (ScanResult result : Arrays.asList(OFFICE, OFFICE_GUEST, CAMERA, HIDDEN)) {
+            assertTrue(query.matches(result));
+        }
+    }
+
+    @Test
+    public void matchesSsidExactlyByPrefixOrPattern() {
+        ScanQuery exact = new ScanQuery();
+        exact.ssid = "Office";
+        assertTrue(exact.matches(OFFICE));
+        assertFalse(exact.matches(OFFICE_GUEST));
+        assertFalse(exact.matches(HIDDEN));
+
+        ScanQuery prefix = new ScanQuery();
+        prefix.ssidPrefix = "Office";
+        assertTrue(prefix.matches(OFFICE));
+        assertTrue(prefix.matches(OFFICE_GUEST));
+        assertFalse(prefix.matches(CAMERA));
+        // A hidden network has an empty name, only an empty prefix takes it
+        assertFalse(prefix.matches(HIDDEN));
+
+        ScanQuery pattern = new ScanQuery();
+        pattern.ssidPattern = Pattern.compile("cam-\\d{4}");
+        assertTrue(pattern.matches(CAMERA));
+        assertFalse(pattern.matches(OFFICE));
+        // The whole name must match, not a part of it
+        pattern.ssidPattern = Pattern.compile("cam");
+        assertFalse(pattern.matches(CAMERA));
+    }
+
+    @Test
+    public void matchesBand() {
+        ScanQuery query = new ScanQuery();
+        query.band = ScanQuery.BAND_2_4_GHZ;
+        assertTrue(query.matches(OFFICE_GUEST));
+        assertTrue(query.matches(CAMERA));
+        assertFalse(query.matches(OFFICE));
+
+        query.band = ScanQuery.BAND_6_GHZ;
+        assertTrue(query.matches(HIDDEN));
+        assertFalse(query.matches(OFFICE));
+    }
+
+    @Test
+    public void matchesMinRssiInclusively() {
+        ScanQuery query = new ScanQuery();
+        query.minRssi = -60;
+        assertTrue(query.matches(OFFICE));
+        assertTrue(query.matches(CAMERA));
+        assertFalse(query.matches(OFFICE_GUEST));
+    }
+
+    @Test
+    public void matchesSecurityType() {
+        ScanQuery query = new ScanQuery();
+        query.securityType = CapabilitiesParser.SECURITY_PSK;
+        assertTrue(query.matches(OFFICE));
+        assertFalse(query.matches(OFFICE_GUEST));
+        assertFalse(query.matches(CAMERA));
+
+        query.securityType = CapabilitiesParser.SECURITY_OPEN;
+        assertTrue(query.matches(OFFICE_GUEST));
+        assertFalse(query.matches(OFFICE));
+
+        query.securityType = CapabilitiesParser.SECURITY_SAE;
+        assertTrue(query.matches(CAMERA));
+        assertTrue(query.matches(HIDDEN));
+    }
+
+    @Test
+    public void combinedFiltersMustAllMatch() {
+        ScanQuery query = new ScanQuery();
+        query.ssidPrefix = "Office";
+        query.band = ScanQuery.BAND_5_GHZ;
+        query.minRssi = -70;
+        query.securityType = CapabilitiesParser.SECURITY_PSK;
+        assertTrue(query.matches(OFFICE));
+        assertFalse(query.matches(OFFICE_GUEST));
+
+        query.minRssi = -45;
+        assertFalse(query.matches(OFFICE));
+
+        ScanQuery limited = new ScanQuery();
+        limited.securityType = CapabilitiesParser.SECURITY_SAE;
+        limited.limit = 1;
+        assertEquals(Arrays.asList(HIDDEN), limited.apply(Arrays.asList(OFFICE, OFFICE_GUEST, CAMERA, HIDDEN)));
+    }
+
+    @Test
+    public void bandOfFrequency() {
+        assertEquals(ScanQuery.BAND_2_4_GHZ, ScanQuery.bandOf(2412));
+        assertEquals(ScanQuery.BAND_2_4_GHZ, ScanQuery.bandOf(2484));
+        assertEquals(ScanQuery.BAND_5_GHZ, ScanQuery.bandOf(5180));
+        assertEquals(ScanQuery.BAND_5_GHZ, ScanQuery.bandOf(5825));
+        assertEquals(ScanQuery.BAND_6_GHZ, ScanQuery.bandOf(5955));
+        assertEquals(ScanQuery.BAND_ANY, ScanQuery.bandOf(60480));
+    }
+
+    private static ScanResult network(String ssid, int level, int frequency, String capabilities) {
+        ScanResult result = new ScanResult();
+        result.SSID = ssid;
+        result.level = level;
+        result.frequency = frequency;
+        result.capabilities = capabilities;
+        return result;
+    }
+}
@@ -0,0 +1,108 @@
+package app.capgo.capacitorwifi;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScanSchedulerTest {
+
+    private long now;
+    private ScanScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        scheduler = new ScanScheduler(() -> now);
+    }
+
+    @Test
+    public void allowsFourScansThenDelays() {
+        for (int i = 0; i < 4; i++) {
+            ScanScheduler.Decision decision = scheduler.evaluate(0, false);
+            assertEquals(ScanScheduler.Action.SCAN, decision.action);
+            scheduler.recordScanStarted();
+            now += 10000;
+        }
+
+        ScanScheduler.Decision decision = scheduler.evaluate(0, false);
+        assertEquals(ScanScheduler.Action.DELAY, decision.action);
+        // First scan was at 1000, budget frees up one window later.
+        assertEquals(1000 + 120000 - now, decision.nextScanInMs);
+    }
+
+    @Test
+    public void tokenComesBackOneWindowAfterItWasSpent() {
+        for (int i = 0; i < 4; i++) {
+            scheduler.recordScanStarted();
+        }
+        assertEquals(0, scheduler.availableScans());
+
+        now += 119999;
+        assertEquals(0, scheduler.availableScans());
+        assertEquals(1, scheduler.millisUntilNextScan());
+
+        now += 1;
+        assertEquals(4, scheduler.availableScans());
+        assertEquals(ScanScheduler.Action.SCAN, scheduler.evaluate(0, false).action);
+    }
+
+    @Test
+    public void servesCachedResultsWhenThrottled() {
+        for (int i = 0; i < 4; i++) {
+            scheduler.recordScanStarted();
+        }
+        now += 5000;
+        scheduler.recordResults();
+        now += 2000;
+
+        ScanScheduler.Decision decision = scheduler.evaluate(0, true);
+        assertEquals(ScanScheduler.Action.USE_CACHED, decision.action);
+        assertEquals(2000, decision.resultAgeMs);
+        assertEquals(120000 - 7000, decision.nextScanInMs);
+    }
+
+    @Test
+    public void delaysWhenThrottledWithoutKnownResults() {
+        for (int i = 0; i < 4; i++) {
+            scheduler.recordScanStarted();
+        }
+
+        ScanScheduler.Decision decision = scheduler.evaluate(0, true);
+        assertEquals(ScanScheduler.Action.DELAY, decision.action);
+        assertEquals(-1, decision.resultAgeMs);
+    }
+
+    @Test
+    public void reusesFreshResultsWithoutSpendingBudget() {
+        scheduler.recordResults();
+        now += 3000;
+
+        ScanScheduler.Decision decision = scheduler.evaluate(5000, false);
+        assertEquals(ScanScheduler.Action.USE_CACHED, decision.action);
+        assertEquals(4, scheduler.availableScans());
+
+        now += 3000;
+        assertEquals(ScanScheduler.Action.SCAN, scheduler.evaluate(5000, false).action);
+    }
+
+    @Test
+    public void refusedScanExhaustsBudget() {
+        scheduler.recordScanStarted();
+        now += 1000;
+        scheduler.recordScanRefused();
+
+        assertEquals(0, scheduler.availableScans());
+        assertEquals(120000, scheduler.millisUntilNextScan());
+    }
+
+    @Test
+    public void customBudget() {
+        ScanScheduler background = new ScanScheduler(() -> now, 1, 30 * 60 * 1000);
+        background.recordScanStarted();
+
+        ScanScheduler.Decision decision = background.evaluate(0, false);
+        assertEquals(ScanScheduler.Action.DELAY, decision.action);
+        assertEquals(30 * 60 * 1000, decision.nextScanInMs);
+    }
+}
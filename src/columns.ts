@@ -0,0 +1,103 @@
+/**
+ * Scan results decoded from the `columnar` encoding, one typed array per attribute.
+ * The network at index `i` is described by `rssi[i]`, `frequency[i]`, `securityType[i]`,
+ * the six bytes of `bssid` starting at `i * 6` and `ssids[ssidIndex[i]]`.
+ *
+ * @since 8.1.0
+ */
+export interface NetworkColumns {
+  /**
+   * Number of networks
+   */
+  count: number;
+
+  /**
+   * Signal strength in dBm
+   */
+  rssi: Int8Array;
+
+  /**
+   * Primary channel frequency in MHz
+   */
+  frequency: Uint32Array;
+
+  /**
+   * Strongest security type accepted by each network (see `NetworkSecurityType`)
+   */
+  securityType: Uint8Array;
+
+  /**
+   * BSSIDs packed as 6 bytes per network, most significant byte first
+   */
+  bssid: Uint8Array;
+
+  /**
+   * Index of each network's SSID in `ssids`
+   */
+  ssidIndex: Uint16Array;
+
+  /**
+   * Distinct SSIDs
+   */
+  ssids: string[];
+}
+
+const HEADER_SIZE = 16;
+const VERSION = 1;
+
+/**
+ * Decode the `columns` string returned by getAvailableNetworks() or the 'networksScanned'
+ * event when `encoding: 'columnar'` is used.
+ *
+ * @since 8.1.0
+ */
+export function decodeNetworkColumns(columns: string): NetworkColumns {
+  const binary = atob(columns);
+  const bytes = new Uint8Array(binary.length);
+  for (let i = 0; i < binary.length; i++) {
+    bytes[i] = binary.charCodeAt(i);
+  }
+
+  const view = new DataView(bytes.buffer);
+  if (bytes[0] !== 0x57 || bytes[1] !== 0x43 || bytes[2] !== VERSION) {
+    throw new Error('Unsupported network columns format');
+  }
+  const count = view.getUint32(4, true);
+  const ssidCount = view.getUint32(8, true);
+
+  let offset = HEADER_SIZE;
+  const frequency = new Uint32Array(bytes.buffer, offset, count);
+  offset += count * 4;
+  const ssidIndex = new Uint16Array(bytes.buffer, offset, count);
+  offset += count * 2;
+  const rssi = new Int8Array(bytes.buffer, offset, count);
+  offset += count;
+  const securityType = new Uint8Array(bytes.buffer, offset, count);
+  offset += count;
+  const bssid = new Uint8Array(bytes.buffer, offset, count * 6);
+  offset += count * 6;
+
+  const decoder = new TextDecoder();
+  const ssids: string[] = new Array(ssidCount);
+  for (let i = 0; i < ssidCount; i++) {
+    const length = view.getUint16(offset, true);
+    offset += 2;
+    ssids[i] = decoder.decode(bytes.subarray(offset, offset + length));
+    offset += length;
+  }
+
+  return { count, rssi, frequency, securityType, bssid, ssidIndex, ssids };
+}
+
+/**
+ * Format the BSSID of the network at `index` as `aa:bb:cc:dd:ee:ff`.
+ *
+ * @since 8.1.0
+ */
+export function formatBssid(columns: NetworkColumns, index: number): string {
+  const parts: string[] = [];
+  for (let i = index * 6; i < index * 6 + 6; i++) {
+    parts.push(columns.bssid[i].toString(16).padStart(2, '0'));
+  }
+  return parts.join(':');
+}
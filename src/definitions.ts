@@ -1,4 +1,35 @@
-import type { PluginListenerHandle } from '@capacitor/core';
+/// <reference types="@capacitor/cli" />
+
+import type { CallbackID, PluginListenerHandle } from '@capacitor/core';
+
+declare module '@capacitor/cli' {
+  export interface PluginsConfig {
+    /**
+     * Native configuration of the Wi-Fi plugin
+     *
+     * @since 8.1.0
+     */
+    CapacitorWifi?: {
+      /**
+       * Number of Android worker threads running plugin methods off the Capacitor plugin thread
+       *
+       * @since 8.1.0
+       * @default 4
+       * @example 2
+       */
+      executorPoolSize?: number;
+
+      /**
+       * Write Android trace sections for the plugin methods from startup, see configureTracing()
+       *
+       * @since 8.1.0
+       * @default false
+       * @example true
+       */
+      tracing?: boolean;
+    };
+  }
+}
 
 /**
  * WiFi plugin for managing device WiFi connectivity
@@ -27,29 +58,61 @@ export interface CapacitorWifiPlugin {
    */
   addNetwork(options: AddNetworkOptions): Promise<void>;
 
+  /**
+   * Add many Wi-Fi networks in one call (Android only).
+   * On Android 10+ the valid entries are suggested to the system in a single batch, the user approves
+   * suggestions from the app once. On older versions they are saved to the device configuration.
+   * Every entry gets its own result, in the order of `networks`.
+   *
+   * @param options - Networks to add
+   * @returns Promise that resolves with the result of each network
+   * @throws Error if `networks` is missing
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const { results } = await CapacitorWifi.addNetworks({
+   *   networks: [
+   *     { ssid: 'Site-A', password: 'password-a' },
+   *     { ssid: 'Site-B', password: 'password-b', securityType: NetworkSecurityType.SAE },
+   *   ],
+   * });
+   * const failed = results.filter((result) => result.status !== 'added');
+   * ```
+   */
+  addNetworks(options: AddNetworksOptions): Promise<AddNetworksResult>;
+
   /**
    * Connect to a Wi-Fi network.
    * On Android, this creates a temporary connection that doesn't route traffic through the network by default.
    * For a persistent connection on Android, use addNetwork() instead.
    * On iOS, this creates a persistent connection.
    *
+   * On Android, requests for different networks are kept side by side, so several access points can be
+   * connected at once. Each request has a handle to release it with `disconnect({ handle })`. Connecting to
+   * a network that is already connected with the same password and security type resolves with the
+   * existing handle, right away or once the network reaches `waitFor`. Other credentials replace the request.
+   * A failed request is filed again as allowed by `retry`. The call rejects with code `TIMEOUT`,
+   * `UNAVAILABLE`, `USER_REJECTED`, `CANCELLED` or `REQUEST_FAILED`.
+   *
    * @param options - Connection options
    * @returns Promise that resolves when connected
    * @throws Error if connection fails
    * @since 7.0.0
    * @example
    * ```typescript
-   * await CapacitorWifi.connect({
+   * const { handle } = await CapacitorWifi.connect({
    *   ssid: 'MyNetwork',
    *   password: 'mypassword'
    * });
    * ```
    */
-  connect(options: ConnectOptions): Promise<void>;
+  connect(options: ConnectOptions): Promise<ConnectResult>;
 
   /**
    * Disconnect from the current Wi-Fi network.
    * On iOS, only disconnects from networks that were added via this plugin.
+   * On Android, releases the request with the given `handle`, the requests for the given `ssid`, or all
+   * requests made with connect() when neither is set.
    *
    * @param options - Optional disconnect options
    * @returns Promise that resolves when disconnected
@@ -62,10 +125,87 @@ export interface CapacitorWifiPlugin {
    */
   disconnect(options?: DisconnectOptions): Promise<void>;
 
+  /**
+   * Get the network requests made with connect() that are still active.
+   * Only available on Android.
+   *
+   * @returns Promise that resolves with the active requests
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const { requests } = await CapacitorWifi.getNetworkRequests();
+   * const connected = requests.filter((request) => request.state === 'connected');
+   * ```
+   */
+  getNetworkRequests(): Promise<GetNetworkRequestsResult>;
+
+  /**
+   * Cancel a pending connect() call. The call rejects with code `CANCELLED`, including while it waits
+   * to retry. Requests that are already connected are left alone, use disconnect() to release them.
+   * The handle of a pending request is listed by getNetworkRequests().
+   * Only available on Android.
+   *
+   * @param options - The handle of the request to cancel
+   * @returns Promise that resolves with whether a pending request was cancelled
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const { requests } = await CapacitorWifi.getNetworkRequests();
+   * const pending = requests.find((request) => request.ssid === 'IoT-Device' && request.state === 'pending');
+   * if (pending) {
+   *   await CapacitorWifi.cancelConnect({ handle: pending.handle });
+   * }
+   * ```
+   */
+  cancelConnect(options: CancelConnectOptions): Promise<CancelConnectResult>;
+
+  /**
+   * Send an HTTP request over the network of a connect() request, without routing the rest of the app
+   * through it. Connections are pooled per network.
+   * Error statuses resolve like any other response, the call only rejects when the request can't be sent
+   * (code `TIMEOUT` when it timed out, `UNAVAILABLE` while the network is not connected).
+   * Only available on Android.
+   *
+   * @param options - The request, and the handle returned by connect()
+   * @returns Promise that resolves with the response
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const { handle } = await CapacitorWifi.connect({ ssid: 'IoT-Device', password: 'setup1234' });
+   * const { status, data } = await CapacitorWifi.httpRequest({
+   *   handle,
+   *   url: 'http://192.168.4.1/config',
+   *   method: 'POST',
+   *   headers: { 'Content-Type': 'application/json' },
+   *   data: JSON.stringify({ ssid: 'Home', password: 'secret' }),
+   * });
+   * ```
+   */
+  httpRequest(options: HttpRequestOptions): Promise<HttpRequestResult>;
+
+  /**
+   * Send bytes to a TCP server over the network of a connect() request and read the reply.
+   * The reply ends when the server closes the connection, `maxBytes` are read, or nothing arrives for
+   * `idleTimeout` after the first bytes. With `keepAlive` the connection is kept for the next exchange
+   * with the same server.
+   * Only available on Android.
+   *
+   * @param options - The exchange, and the handle returned by connect()
+   * @returns Promise that resolves with the reply
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const { data } = await CapacitorWifi.tcpExchange({ handle, host: '192.168.4.1', port: 8266, data: 'STATUS\n' });
+   * ```
+   */
+  tcpExchange(options: TcpExchangeOptions): Promise<TcpExchangeResult>;
+
   /**
    * Get a list of available Wi-Fi networks from the last scan.
    * Only available on Android.
+   * Filtering, sorting and limiting options are applied natively before the results are serialized.
    *
+   * @param options - Optional filter, sort and limit options
    * @returns Promise that resolves with the list of networks
    * @throws Error if getting networks fails or on unsupported platform
    * @since 7.0.0
@@ -75,9 +215,71 @@ export interface CapacitorWifiPlugin {
    * networks.forEach(network => {
    *   console.log(`SSID: ${network.ssid}, Signal: ${network.rssi} dBm`);
    * });
+   *
+   * // Only the 5 strongest 5 GHz networks of the office
+   * const { networks: office } = await CapacitorWifi.getAvailableNetworks({
+   *   ssidPrefix: 'Office-',
+   *   band: '5GHz',
+   *   minRssi: -75,
+   *   limit: 5,
+   * });
+   * ```
+   */
+  getAvailableNetworks(options?: GetAvailableNetworksOptions): Promise<GetAvailableNetworksResult>;
+
+  /**
+   * Get the available networks in fixed-size chunks, strongest networks first,
+   * so the first page can be rendered before the whole list is parsed.
+   * Only available on Android.
+   *
+   * The callback is called once per chunk; the last chunk has `done` set to true.
+   * Accepts the same filter, sort and field options as getAvailableNetworks().
+   *
+   * @param options - Chunk size plus optional filter, sort and limit options
+   * @param callback - Called with each chunk, or with an error
+   * @returns Promise that resolves with the callback ID
+   * @throws Error on unsupported platform
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * await CapacitorWifi.streamAvailableNetworks({ chunkSize: 25 }, (chunk, err) => {
+   *   if (err || !chunk) return;
+   *   renderNetworks(chunk.networks);
+   *   if (chunk.done) console.log(`Received all ${chunk.total} networks`);
+   * });
+   * ```
+   */
+  streamAvailableNetworks(
+    options: StreamAvailableNetworksOptions,
+    callback: NetworksChunkCallback,
+  ): Promise<CallbackID>;
+
+  /**
+   * Get the networks that appeared, disappeared or changed signal since the last call,
+   * instead of the full list returned by getAvailableNetworks().
+   * Only available on Android.
+   *
+   * Pass the `sequence` of the last applied result. Each caller gets the changes since its own
+   * sequence, the last 8 are kept. When it is unknown or too old (or on the first call), the full
+   * list is returned in `added` with `full` set to true.
+   *
+   * @param options - Optional diff options
+   * @returns Promise that resolves with the changes since the given sequence
+   * @throws Error if getting networks fails or on unsupported platform
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const known = new Map<string, Network>();
+   * let sequence: number | undefined;
+   *
+   * const changes = await CapacitorWifi.getNetworkChanges({ sequence });
+   * if (changes.full) known.clear();
+   * [...changes.added, ...changes.changed].forEach((n) => known.set(n.bssid!, n));
+   * changes.removed.forEach((bssid) => known.delete(bssid));
+   * sequence = changes.sequence;
    * ```
    */
-  getAvailableNetworks(): Promise<GetAvailableNetworksResult>;
+  getNetworkChanges(options?: GetNetworkChangesOptions): Promise<NetworkChanges>;
 
   /**
    * Get the device's current IP address.
@@ -159,6 +361,25 @@ export interface CapacitorWifiPlugin {
    */
   getBssid(): Promise<GetBssidResult>;
 
+  /**
+   * Get the SSID, BSSID, signal, link speed, IP addresses, VPN and validation state of the current
+   * connection in one call. All values are read from the same network, so they are consistent
+   * with each other, and it costs a single round trip instead of one per getter.
+   * On Android the connection state is kept up to date from network callbacks, so this and the
+   * other connection getters answer from memory.
+   * Only available on Android.
+   *
+   * @returns Promise that resolves with the connection snapshot
+   * @throws Error if location permission is denied or on unsupported platform
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const snapshot = await CapacitorWifi.getConnectionSnapshot();
+   * console.log(snapshot.ssid, snapshot.rssi, 'dBm', snapshot.linkSpeed, 'Mbps');
+   * ```
+   */
+  getConnectionSnapshot(): Promise<ConnectionSnapshot>;
+
   /**
    * Check if Wi-Fi is enabled on the device.
    * Only available on Android.
@@ -178,9 +399,13 @@ export interface CapacitorWifiPlugin {
    * Start scanning for Wi-Fi networks.
    * Only available on Android.
    * Results are delivered via the 'networksScanned' event listener.
+   * Calls made while a scan is already running join that scan instead of starting a new one,
+   * so they don't count against the system scan budget.
+   * When the budget is spent, the call is served from the last results or delayed (see `whenThrottled`).
    * Note: May fail due to system throttling or hardware issues.
    *
-   * @returns Promise that resolves when scan starts
+   * @param options - Optional scan options
+   * @returns Promise that resolves when the scan starts, or with the results when `waitForResults` is set
    * @throws Error if scan fails or on unsupported platform
    * @since 7.0.0
    * @example
@@ -189,9 +414,27 @@ export interface CapacitorWifiPlugin {
    *   console.log('Scan completed');
    * });
    * await CapacitorWifi.startScan();
+   *
+   * // Or wait for the scan to complete and get the results directly
+   * const { networks } = await CapacitorWifi.startScan({ waitForResults: true });
+   * ```
+   */
+  startScan(options?: StartScanOptions): Promise<StartScanResult>;
+
+  /**
+   * Get counters describing how scan requests were handled since the plugin was loaded.
+   * Only available on Android.
+   *
+   * @returns Promise that resolves with the scan counters
+   * @throws Error on unsupported platform
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const stats = await CapacitorWifi.getScanStats();
+   * console.log(`Coalesced: ${stats.coalesced}, throttled: ${stats.throttled}`);
    * ```
    */
-  startScan(): Promise<void>;
+  getScanStats(): Promise<ScanStats>;
 
   /**
    * Check the current permission status for location access.
@@ -226,6 +469,26 @@ export interface CapacitorWifiPlugin {
    */
   requestPermissions(options?: RequestPermissionsOptions): Promise<PermissionStatus>;
 
+  /**
+   * Configure the payload of the 'networksScanned' event.
+   * Only available on Android.
+   * When `includeResults` is enabled, the event carries the scan results so listeners
+   * don't need a second call to getAvailableNetworks().
+   *
+   * @param options - Event options
+   * @returns Promise that resolves when the options are applied
+   * @throws Error on unsupported platform
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * await CapacitorWifi.configureScanEvents({ includeResults: true });
+   * await CapacitorWifi.addListener('networksScanned', ({ networks }) => {
+   *   console.log('Found networks:', networks);
+   * });
+   * ```
+   */
+  configureScanEvents(options: ScanEventOptions): Promise<void>;
+
   /**
    * Add a listener for the 'networksScanned' event.
    * Only available on Android.
@@ -243,7 +506,166 @@ export interface CapacitorWifiPlugin {
    * });
    * ```
    */
-  addListener(eventName: 'networksScanned', listenerFunc: () => void): Promise<PluginListenerHandle>;
+  addListener(
+    eventName: 'networksScanned',
+    listenerFunc: (event: NetworksScannedEvent) => void,
+  ): Promise<PluginListenerHandle>;
+
+  /**
+   * Get signal strength statistics of an access point over a recent time window.
+   * Only available on Android.
+   * Samples are kept natively, in a fixed-size buffer per BSSID, from getRssi() calls and from
+   * every system update while startRssiUpdates() is active, so no raw samples cross the bridge.
+   *
+   * @param options - BSSID and time window
+   * @returns Promise that resolves with the statistics (`count` is 0 when there are no samples)
+   * @throws Error if location permission is denied or on unsupported platform
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const stats = await CapacitorWifi.getRssiStatistics({ window: 30000 });
+   * console.log('Median:', stats.p50, 'dBm, jitter:', stats.stddev);
+   * ```
+   */
+  getRssiStatistics(options?: RssiStatisticsOptions): Promise<RssiStatistics>;
+
+  /**
+   * Start delivering 'rssiChanged' events for the current network.
+   * Only available on Android.
+   * Signal updates are pushed by the system, filtered natively and emitted only when the value moves
+   * by at least `hysteresis` dB, at most once per `minInterval`. The current value is emitted right away.
+   * Calling it again replaces the previous options.
+   *
+   * @param options - Filtering options
+   * @returns Promise that resolves once updates are started
+   * @throws Error if the options are invalid or on unsupported platform
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * await CapacitorWifi.addListener('rssiChanged', ({ rssi, delta }) => {
+   *   console.log('Signal:', rssi, 'dBm', delta);
+   * });
+   * await CapacitorWifi.startRssiUpdates({ minInterval: 2000, hysteresis: 3 });
+   * ```
+   */
+  startRssiUpdates(options?: RssiUpdatesOptions): Promise<void>;
+
+  /**
+   * Stop delivering 'rssiChanged' events.
+   * Only available on Android.
+   *
+   * @returns Promise that resolves once updates are stopped
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * await CapacitorWifi.stopRssiUpdates();
+   * ```
+   */
+  stopRssiUpdates(): Promise<void>;
+
+  /**
+   * Add a listener for the 'rssiChanged' event, fired after startRssiUpdates() when the signal
+   * strength of the current network changes.
+   * Only available on Android.
+   *
+   * @param eventName - The event name ('rssiChanged')
+   * @param listenerFunc - The callback function to execute
+   * @returns Promise that resolves with a listener handle
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const listener = await CapacitorWifi.addListener('rssiChanged', ({ rssi }) => {
+   *   console.log('Signal strength:', rssi, 'dBm');
+   * });
+   * ```
+   */
+  addListener(eventName: 'rssiChanged', listenerFunc: (event: RssiChangedEvent) => void): Promise<PluginListenerHandle>;
+
+  /**
+   * Get statistics of the Android executor running plugin methods in the background.
+   * Getters and scan result queries run on a small pool of worker threads, with a concurrency
+   * limit per method so slow calls don't hold up cheap ones. Calls are rejected with code `BUSY`
+   * when too many are pending, and with "Plugin destroyed" when the plugin is torn down before they run.
+   * Only available on Android.
+   *
+   * @returns Promise that resolves with the executor statistics
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const { queueDepth, methods } = await CapacitorWifi.getExecutorStats();
+   * console.log('Pending calls:', queueDepth, methods);
+   * ```
+   */
+  getExecutorStats(): Promise<ExecutorStats>;
+
+  /**
+   * Get call counts and latency percentiles of each plugin method since the plugin was loaded
+   * or the last reset. Latency runs from the call to its result, permission prompts included,
+   * and the time spent waiting for permission prompts is also reported on its own.
+   * Only available on Android.
+   *
+   * @param options - Whether to reset the metrics after reading them
+   * @returns Promise that resolves with the metrics of each method called so far
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const { methods } = await CapacitorWifi.getMetrics({ reset: true });
+   * for (const { method, calls, latency } of methods) {
+   *   console.log(method, calls, latency.p50, latency.p99);
+   * }
+   * ```
+   */
+  getMetrics(options?: GetMetricsOptions): Promise<PluginMetrics>;
+
+  /**
+   * Set which diagnostic events the plugin keeps in memory for getDiagnostics().
+   * Events below the level are not recorded at all, so keeping it at `warn` costs nothing on
+   * the hot paths. Logcat output is controlled on its own with
+   * `adb shell setprop log.tag.CapacitorWifi DEBUG`.
+   * Only available on Android.
+   *
+   * @param options - Diagnostics level
+   * @returns Promise that resolves once the level is applied
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * await CapacitorWifi.configureDiagnostics({ level: 'debug' });
+   * ```
+   */
+  configureDiagnostics(options: DiagnosticsOptions): Promise<void>;
+
+  /**
+   * Get the diagnostic events kept in memory, oldest first. Only the latest 256 events are kept.
+   * Only available on Android.
+   *
+   * @param options - Whether to clear the events after reading them
+   * @returns Promise that resolves with the events
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * const { events } = await CapacitorWifi.getDiagnostics({ clear: true });
+   * events.forEach((event) => console.log(event.source, event.message));
+   * ```
+   */
+  getDiagnostics(options?: GetDiagnosticsOptions): Promise<DiagnosticsResult>;
+
+  /**
+   * Turn Android trace sections on or off. While on, each call shows up in Perfetto and systrace
+   * captures as an async slice named after the method, its work on the plugin threads and slow
+   * phases (scan result reads, serialization, interface enumeration) as nested sections, and each
+   * scan and network request as a `wifiScan` or `networkRequest` slice. Async slices need Android 10.
+   * While off no section is written. Record with the app listed in the Perfetto `atrace_apps`.
+   * Only available on Android.
+   *
+   * @param options - Whether tracing is on
+   * @returns Promise that resolves once tracing is switched
+   * @since 8.1.0
+   * @example
+   * ```typescript
+   * await CapacitorWifi.configureTracing({ enabled: true });
+   * ```
+   */
+  configureTracing(options: TracingOptions): Promise<void>;
 
   /**
    * Remove all listeners for this plugin.
@@ -310,135 +732,1593 @@ export interface AddNetworkOptions {
 }
 
 /**
- * Options for connecting to a network
+ * Options for adding many networks
  *
- * @since 7.0.0
+ * @since 8.1.0
  */
-export interface ConnectOptions {
-  /**
-   * The SSID of the network to connect to
-   *
-   * @since 7.0.0
-   */
-  ssid: string;
-
+export interface AddNetworksOptions {
   /**
-   * The password for the network (optional for open networks)
+   * Networks to add. Without `securityType` an entry is WPA2 personal when it has a password and open
+   * otherwise. Open, WEP (before Android 10), WPA2 personal, WPA3 personal and enhanced open
+   * (Android 10+) networks are supported.
    *
-   * @since 7.0.0
+   * @since 8.1.0
    */
-  password?: string;
+  networks: AddNetworkOptions[];
+}
 
+/**
+ * Result of addNetworks()
+ *
+ * @since 8.1.0
+ */
+export interface AddNetworksResult {
   /**
-   * Whether the network is hidden (Android only)
+   * Result of each network, in the order they were given
    *
-   * @since 7.0.0
-   * @default false
+   * @since 8.1.0
    */
-  isHiddenSsid?: boolean;
+  results: AddNetworkResult[];
 }
 
 /**
- * Options for disconnecting from a network
+ * Result of one network of addNetworks()
  *
- * @since 7.0.0
+ * @since 8.1.0
  */
-export interface DisconnectOptions {
+export interface AddNetworkResult {
   /**
-   * The SSID of the network to disconnect from (optional)
+   * The SSID of the network, missing when the entry had none
    *
-   * @since 7.0.0
+   * @since 8.1.0
    */
   ssid?: string;
-}
 
-/**
- * Result from getAvailableNetworks()
- *
- * @since 7.0.0
- */
-export interface GetAvailableNetworksResult {
   /**
-   * List of available networks
+   * `added` when the system took the network, `invalid` when the entry was refused before reaching the
+   * system, `failed` when the system refused it. On Android 10+ the system takes or refuses the valid
+   * entries of a batch together.
    *
-   * @since 7.0.0
+   * @since 8.1.0
    */
-  networks: Network[];
+  status: 'added' | 'invalid' | 'failed';
+
+  /**
+   * Why the network was not added
+   *
+   * @since 8.1.0
+   */
+  error?: string;
 }
 
 /**
- * Represents a Wi-Fi network
+ * Options for connecting to a network
  *
  * @since 7.0.0
  */
-export interface Network {
+export interface ConnectOptions {
   /**
-   * The SSID of the network
+   * The SSID of the network to connect to
    *
    * @since 7.0.0
    */
   ssid: string;
 
   /**
-   * The signal strength in dBm
+   * The password for the network (optional for open networks)
    *
    * @since 7.0.0
    */
-  rssi: number;
+  password?: string;
 
   /**
-   * The security types supported by this network (Android SDK 33+ only)
+   * Whether the network is hidden (Android only)
    *
    * @since 7.0.0
+   * @default false
    */
-  securityTypes?: NetworkSecurityType[];
-}
+  isHiddenSsid?: boolean;
 
-/**
- * Result from getIpAddress()
- *
- * @since 7.0.0
- */
-export interface GetIpAddressResult {
   /**
-   * The device's IP address
+   * Only connect to the access point with this BSSID (Android only).
+   * Requests for the same SSID with different BSSIDs are kept apart.
    *
-   * @since 7.0.0
+   * @since 8.1.0
    */
-  ipAddress: string;
-}
+  bssid?: string;
 
-/**
- * Result from getIpAddresses()
- *
- * @since 7.0.0
- */
-export interface GetIpAddressesResult {
   /**
-   * Private IPv4 address (e.g., 192.168.1.100)
+   * Pin the request to the strongest access point of `ssid` in the last scan results, when `bssid`
+   * is not given (Android only). Association then skips the discovery scan. Without location
+   * permission or a matching scan result, any access point of the SSID is used.
    *
-   * @since 7.0.0
+   * @since 8.1.0
+   * @default false
    */
-  ipv4?: string;
+  useScannedBssid?: boolean;
 
   /**
-   * Public IPv4 address
+   * Security of the network (Android only). Open, WPA2 personal, WPA3 personal (SAE) and enhanced
+   * open (OWE, Android 11+) are supported. When omitted it is read from the last scan results, or
+   * else WPA2 personal is assumed with a password and open without. WPA2/WPA3 transition mode
+   * networks are joined with WPA3 only on devices that support it.
    *
-   * @since 7.0.0
+   * @since 8.1.0
    */
-  publicIpv4?: string;
+  securityType?: NetworkSecurityType;
 
   /**
-   * Private IPv6 address
+   * Band of the access point (Android only). Only the strongest access point on this band is picked
+   * with `useScannedBssid`, and the request is limited to it on Android 13+.
    *
-   * @since 7.0.0
+   * @since 8.1.0
    */
-  ipv6?: string;
+  band?: WifiBand;
 
   /**
-   * Public IPv6 address
+   * Time to wait for the network on each try, in milliseconds (Android only).
+   * Without a timeout the request waits until the user dismisses the system dialog.
    *
-   * @since 7.0.0
+   * @since 8.1.0
+   */
+  timeout?: number;
+
+  /**
+   * When the call resolves (Android only): `available` as soon as the system hands out the network,
+   * `ipAssigned` once it also has a routable IP address, `validated` once the system checked it has
+   * internet access. Access points without internet never validate, use `ipAssigned` for them.
+   * With a `timeout`, each try must reach this point in time.
+   *
+   * @since 8.1.0
+   * @default 'available'
+   */
+  waitFor?: 'available' | 'ipAssigned' | 'validated';
+
+  /**
+   * Retry requests that timed out or found no network (Android only).
+   * Requests declined by the user or cancelled are not retried.
+   *
+   * @since 8.1.0
+   */
+  retry?: ConnectRetryOptions;
+}
+
+/**
+ * Retry policy of connect(). The delay before each retry grows exponentially up to `maxDelay`, and the
+ * `jitter` fraction of it is random.
+ *
+ * @since 8.1.0
+ */
+export interface ConnectRetryOptions {
+  /**
+   * Total number of tries, the first one included
+   *
+   * @since 8.1.0
+   * @default 3
+   */
+  maxAttempts?: number;
+
+  /**
+   * Delay before the first retry, in milliseconds
+   *
+   * @since 8.1.0
+   * @default 1000
+   */
+  initialDelay?: number;
+
+  /**
+   * Longest delay between tries, in milliseconds
+   *
+   * @since 8.1.0
+   * @default 30000
+   */
+  maxDelay?: number;
+
+  /**
+   * Factor applied to the delay after each retry
+   *
+   * @since 8.1.0
+   * @default 2
+   */
+  multiplier?: number;
+
+  /**
+   * Fraction of each delay that is randomized, between 0 and 1
+   *
+   * @since 8.1.0
+   * @default 0.5
+   */
+  jitter?: number;
+}
+
+/**
+ * Result from connect()
+ *
+ * @since 8.1.0
+ */
+export interface ConnectResult {
+  /**
+   * Handle of the network request, to pass to `disconnect()` (Android only)
+   *
+   * @since 8.1.0
+   */
+  handle?: number;
+
+  /**
+   * Time taken by each connection phase (Android only)
+   *
+   * @since 8.1.0
+   */
+  timing?: ConnectTiming;
+}
+
+/**
+ * Time taken by each phase of the try that connected, in milliseconds. Phases that were not reached
+ * before the call resolved are omitted.
+ *
+ * @since 8.1.0
+ */
+export interface ConnectTiming {
+  /**
+   * From the request to the network being available
+   *
+   * @since 8.1.0
+   */
+  toAvailable?: number;
+
+  /**
+   * From the network being available to its IP address being assigned
+   *
+   * @since 8.1.0
+   */
+  toIpAssigned?: number;
+
+  /**
+   * From the IP address being assigned (or the network being available) to the network being validated
+   *
+   * @since 8.1.0
+   */
+  toValidated?: number;
+
+  /**
+   * From the connect() call to its completion, retries included
+   *
+   * @since 8.1.0
+   */
+  total: number;
+
+  /**
+   * Number of tries
+   *
+   * @since 8.1.0
+   */
+  tries: number;
+}
+
+/**
+ * Options for disconnecting from a network
+ *
+ * @since 7.0.0
+ */
+export interface DisconnectOptions {
+  /**
+   * The SSID of the network to disconnect from (optional)
+   *
+   * @since 7.0.0
+   */
+  ssid?: string;
+
+  /**
+   * Handle of the request to release, as returned by `connect()` (Android only)
+   *
+   * @since 8.1.0
+   */
+  handle?: number;
+}
+
+/**
+ * Result from getNetworkRequests()
+ *
+ * @since 8.1.0
+ */
+export interface GetNetworkRequestsResult {
+  /**
+   * The active network requests
+   *
+   * @since 8.1.0
+   */
+  requests: NetworkRequestInfo[];
+}
+
+/**
+ * A network request made with connect()
+ *
+ * @since 8.1.0
+ */
+export interface NetworkRequestInfo {
+  /**
+   * Handle of the request
+   *
+   * @since 8.1.0
+   */
+  handle: number;
+
+  /**
+   * SSID of the requested network
+   *
+   * @since 8.1.0
+   */
+  ssid: string;
+
+  /**
+   * BSSID the request is pinned to, if any
+   *
+   * @since 8.1.0
+   */
+  bssid?: string;
+
+  /**
+   * `pending` while waiting for the network, `connected` while it is available, `lost` after it went away
+   * until the system finds it again
+   *
+   * @since 8.1.0
+   */
+  state: 'pending' | 'connected' | 'lost';
+
+  /**
+   * Number of times the request was filed, retries included
+   *
+   * @since 8.1.0
+   */
+  tries: number;
+}
+
+/**
+ * Options for cancelConnect()
+ *
+ * @since 8.1.0
+ */
+export interface CancelConnectOptions {
+  /**
+   * Handle of the pending request, as listed by getNetworkRequests()
+   *
+   * @since 8.1.0
+   */
+  handle: number;
+}
+
+/**
+ * Result from cancelConnect()
+ *
+ * @since 8.1.0
+ */
+export interface CancelConnectResult {
+  /**
+   * Whether a pending request was cancelled
+   *
+   * @since 8.1.0
+   */
+  cancelled: boolean;
+}
+
+/**
+ * Options for httpRequest()
+ *
+ * @since 8.1.0
+ */
+export interface HttpRequestOptions {
+  /**
+   * Handle of the connect() request whose network carries the request
+   *
+   * @since 8.1.0
+   */
+  handle: number;
+
+  /**
+   * The URL to request
+   *
+   * @since 8.1.0
+   */
+  url: string;
+
+  /**
+   * The HTTP method
+   *
+   * @since 8.1.0
+   * @default 'GET'
+   */
+  method?: string;
+
+  /**
+   * Request headers
+   *
+   * @since 8.1.0
+   */
+  headers?: Record<string, string>;
+
+  /**
+   * Request body
+   *
+   * @since 8.1.0
+   */
+  data?: string;
+
+  /**
+   * Encoding of `data`
+   *
+   * @since 8.1.0
+   * @default 'text'
+   */
+  dataType?: 'text' | 'base64';
+
+  /**
+   * Encoding of the response `data`
+   *
+   * @since 8.1.0
+   * @default 'text'
+   */
+  responseType?: 'text' | 'base64';
+
+  /**
+   * Connect and read timeout in milliseconds
+   *
+   * @since 8.1.0
+   * @default 10000
+   */
+  timeout?: number;
+
+  /**
+   * Maximum number of response bytes to return
+   *
+   * @since 8.1.0
+   * @default 4194304
+   */
+  maxBytes?: number;
+}
+
+/**
+ * Result from httpRequest()
+ *
+ * @since 8.1.0
+ */
+export interface HttpRequestResult {
+  /**
+   * HTTP status code
+   *
+   * @since 8.1.0
+   */
+  status: number;
+
+  /**
+   * Response headers
+   *
+   * @since 8.1.0
+   */
+  headers: Record<string, string>;
+
+  /**
+   * Response body, encoded as requested by `responseType`
+   *
+   * @since 8.1.0
+   */
+  data: string;
+
+  /**
+   * Whether the body was cut at `maxBytes`
+   *
+   * @since 8.1.0
+   */
+  truncated: boolean;
+}
+
+/**
+ * Options for tcpExchange()
+ *
+ * @since 8.1.0
+ */
+export interface TcpExchangeOptions {
+  /**
+   * Handle of the connect() request whose network carries the exchange
+   *
+   * @since 8.1.0
+   */
+  handle: number;
+
+  /**
+   * Host name or IP address of the server
+   *
+   * @since 8.1.0
+   */
+  host: string;
+
+  /**
+   * Port of the server
+   *
+   * @since 8.1.0
+   */
+  port: number;
+
+  /**
+   * Bytes to send, nothing is sent when omitted
+   *
+   * @since 8.1.0
+   */
+  data?: string;
+
+  /**
+   * Encoding of `data`
+   *
+   * @since 8.1.0
+   * @default 'text'
+   */
+  dataType?: 'text' | 'base64';
+
+  /**
+   * Encoding of the reply `data`
+   *
+   * @since 8.1.0
+   * @default 'text'
+   */
+  responseType?: 'text' | 'base64';
+
+  /**
+   * Connect timeout and time to wait for the first bytes of the reply, in milliseconds
+   *
+   * @since 8.1.0
+   * @default 10000
+   */
+  timeout?: number;
+
+  /**
+   * Silence after which the reply is considered complete, in milliseconds
+   *
+   * @since 8.1.0
+   * @default 200
+   */
+  idleTimeout?: number;
+
+  /**
+   * Maximum number of reply bytes to read
+   *
+   * @since 8.1.0
+   * @default 4194304
+   */
+  maxBytes?: number;
+
+  /**
+   * Keep the connection open for the next exchange with the same server.
+   * It is dropped instead when reply bytes are still arriving after the reply ended, or when the
+   * server closed it meanwhile. The data is never sent twice: it is only resent over a new
+   * connection when writing to the kept one fails.
+   *
+   * @since 8.1.0
+   * @default false
+   */
+  keepAlive?: boolean;
+}
+
+/**
+ * Result from tcpExchange()
+ *
+ * @since 8.1.0
+ */
+export interface TcpExchangeResult {
+  /**
+   * The reply, encoded as requested by `responseType`
+   *
+   * @since 8.1.0
+   */
+  data: string;
+
+  /**
+   * Whether a kept-alive connection was reused
+   *
+   * @since 8.1.0
+   */
+  reusedConnection: boolean;
+
+  /**
+   * Whether the server closed the connection
+   *
+   * @since 8.1.0
+   */
+  closedByPeer: boolean;
+}
+
+/**
+ * Options for getAvailableNetworks()
+ *
+ * @since 8.1.0
+ */
+export interface GetAvailableNetworksOptions {
+  /**
+   * Only return networks with a signal strength of at least this many dBm
+   *
+   * @since 8.1.0
+   */
+  minRssi?: number;
+
+  /**
+   * Only return networks with exactly this SSID
+   *
+   * @since 8.1.0
+   */
+  ssid?: string;
+
+  /**
+   * Only return networks whose SSID starts with this prefix
+   *
+   * @since 8.1.0
+   */
+  ssidPrefix?: string;
+
+  /**
+   * Only return networks whose whole SSID matches this regular expression (Java syntax)
+   *
+   * @since 8.1.0
+   */
+  ssidPattern?: string;
+
+  /**
+   * Only return networks on this frequency band
+   *
+   * @since 8.1.0
+   */
+  band?: WifiBand;
+
+  /**
+   * Only return networks that accept this security type (transition mode networks match each of their types)
+   *
+   * @since 8.1.0
+   */
+  securityType?: NetworkSecurityType;
+
+  /**
+   * Sort the networks. `rssi` puts the strongest first.
+   * Defaults to `rssi` when `limit` is set, otherwise the scan order is kept.
+   *
+   * @since 8.1.0
+   */
+  sortBy?: 'rssi' | 'ssid' | 'frequency';
+
+  /**
+   * Maximum number of networks to return
+   *
+   * @since 8.1.0
+   */
+  limit?: number;
+
+  /**
+   * Attributes to include for each network. Attributes that are not listed are not read or serialized.
+   *
+   * @since 8.1.0
+   * @default ['ssid', 'rssi', 'securityTypes']
+   */
+  fields?: NetworkField[];
+
+  /**
+   * Serialization of the networks. `columnar` returns them packed in the `columns` string,
+   * to be decoded with `decodeNetworkColumns()`, which is much smaller and faster to parse
+   * for large lists. The columnar encoding always contains the SSID, BSSID, RSSI,
+   * frequency and security type, regardless of `fields`.
+   *
+   * @since 8.1.0
+   * @default 'json'
+   */
+  encoding?: 'json' | 'columnar';
+}
+
+/**
+ * Options for streamAvailableNetworks()
+ *
+ * @since 8.1.0
+ */
+export interface StreamAvailableNetworksOptions extends GetAvailableNetworksOptions {
+  /**
+   * Number of networks per chunk
+   *
+   * @since 8.1.0
+   * @default 20
+   */
+  chunkSize?: number;
+}
+
+/**
+ * A chunk of networks delivered by streamAvailableNetworks()
+ *
+ * @since 8.1.0
+ */
+export interface NetworksChunk extends GetAvailableNetworksResult {
+  /**
+   * Index of this chunk, starting at 0
+   *
+   * @since 8.1.0
+   */
+  index: number;
+
+  /**
+   * Total number of chunks
+   *
+   * @since 8.1.0
+   */
+  chunkCount: number;
+
+  /**
+   * Total number of networks across all chunks
+   *
+   * @since 8.1.0
+   */
+  total: number;
+
+  /**
+   * Whether this is the last chunk
+   *
+   * @since 8.1.0
+   */
+  done: boolean;
+}
+
+/**
+ * Callback receiving the chunks of streamAvailableNetworks()
+ *
+ * @since 8.1.0
+ */
+export type NetworksChunkCallback = (chunk: NetworksChunk | null, err?: any) => void;
+
+/**
+ * Wi-Fi frequency bands
+ *
+ * @since 8.1.0
+ */
+export type WifiBand = '2.4GHz' | '5GHz' | '6GHz';
+
+/**
+ * Attributes that can be requested for each network
+ *
+ * @since 8.1.0
+ */
+export type NetworkField =
+  | 'ssid'
+  | 'bssid'
+  | 'rssi'
+  | 'securityTypes'
+  | 'frequency'
+  | 'channelWidth'
+  | 'centerFreq0'
+  | 'centerFreq1'
+  | 'timestamp'
+  | 'wifiStandard'
+  | 'capabilities';
+
+/**
+ * Result from getAvailableNetworks()
+ *
+ * @since 7.0.0
+ */
+export interface GetAvailableNetworksResult {
+  /**
+   * List of available networks (not set when `encoding` is `columnar`)
+   *
+   * @since 7.0.0
+   */
+  networks: Network[];
+
+  /**
+   * Networks packed with the columnar encoding, to be decoded with `decodeNetworkColumns()`
+   * (only set when `encoding` is `columnar`)
+   *
+   * @since 8.1.0
+   */
+  columns?: string;
+
+  /**
+   * Number of networks in `columns` (only set when `encoding` is `columnar`)
+   *
+   * @since 8.1.0
+   */
+  count?: number;
+}
+
+/**
+ * Represents a Wi-Fi network.
+ * `ssid`, `rssi` and `securityTypes` are included by default, other attributes only when requested with `fields`.
+ *
+ * @since 7.0.0
+ */
+export interface Network {
+  /**
+   * The SSID of the network
+   *
+   * @since 7.0.0
+   */
+  ssid: string;
+
+  /**
+   * The signal strength in dBm
+   *
+   * @since 7.0.0
+   */
+  rssi: number;
+
+  /**
+   * The security types supported by this network, decoded from the advertised capabilities.
+   * Transition mode networks report every type they accept, e.g. `[WPA2_PSK, SAE]`.
+   *
+   * @since 7.0.0
+   */
+  securityTypes?: NetworkSecurityType[];
+
+  /**
+   * The BSSID (MAC address) of the access point (always set in getNetworkChanges() results)
+   *
+   * @since 8.1.0
+   */
+  bssid?: string;
+
+  /**
+   * The primary channel frequency in MHz
+   *
+   * @since 8.1.0
+   */
+  frequency?: number;
+
+  /**
+   * The channel width in MHz (20, 40, 80, 160 or 320)
+   *
+   * @since 8.1.0
+   */
+  channelWidth?: number;
+
+  /**
+   * The center frequency in MHz of the whole channel, or of the first segment for 80+80 MHz channels
+   *
+   * @since 8.1.0
+   */
+  centerFreq0?: number;
+
+  /**
+   * The center frequency in MHz of the second segment for 80+80 MHz channels
+   *
+   * @since 8.1.0
+   */
+  centerFreq1?: number;
+
+  /**
+   * Time the network was last seen, in microseconds since boot
+   *
+   * @since 8.1.0
+   */
+  timestamp?: number;
+
+  /**
+   * The Wi-Fi standard of the access point (Android SDK 30+ only)
+   *
+   * @since 8.1.0
+   */
+  wifiStandard?: 'legacy' | '11n' | '11ac' | '11ax' | '11ad' | '11be' | 'unknown';
+
+  /**
+   * The raw capabilities string advertised by the access point (e.g. `[WPA2-PSK-CCMP][ESS]`)
+   *
+   * @since 8.1.0
+   */
+  capabilities?: string;
+}
+
+/**
+ * Options for startScan()
+ *
+ * @since 8.1.0
+ */
+export interface StartScanOptions {
+  /**
+   * Wait until the scan results are available and resolve with them,
+   * instead of resolving as soon as the scan is requested.
+   *
+   * @since 8.1.0
+   * @default false
+   */
+  waitForResults?: boolean;
+
+  /**
+   * Reuse the results of a previous scan instead of starting a new one
+   * when they are younger than this many milliseconds.
+   *
+   * @since 8.1.0
+   * @default 0
+   */
+  maxAge?: number;
+
+  /**
+   * What to do when the Android scan budget (4 scans every 2 minutes) is spent.
+   * `cached` resolves right away with the last known results when there are any,
+   * `delay` waits until the budget allows a new scan before starting it.
+   *
+   * @since 8.1.0
+   * @default 'cached'
+   */
+  whenThrottled?: 'cached' | 'delay';
+}
+
+/**
+ * Result from startScan()
+ *
+ * @since 8.1.0
+ */
+export interface StartScanResult {
+  /**
+   * List of networks found by the scan (only set when `waitForResults` is true)
+   *
+   * @since 8.1.0
+   */
+  networks?: Network[];
+
+  /**
+   * Whether the request was served from previous results instead of a new scan
+   *
+   * @since 8.1.0
+   */
+  fromCache: boolean;
+
+  /**
+   * Age in milliseconds of the served results (only set when `fromCache` is true, -1 if unknown)
+   *
+   * @since 8.1.0
+   */
+  resultAgeMs?: number;
+
+  /**
+   * Estimated time in milliseconds until a new scan can be started without being throttled
+   *
+   * @since 8.1.0
+   */
+  nextScanInMs: number;
+}
+
+/**
+ * Options for configureScanEvents()
+ *
+ * @since 8.1.0
+ */
+export interface ScanEventOptions {
+  /**
+   * Include the scan results in the 'networksScanned' event payload
+   *
+   * @since 8.1.0
+   * @default false
+   */
+  includeResults: boolean;
+
+  /**
+   * Only include what changed since the previous event (see getNetworkChanges())
+   * instead of the full list. Takes precedence over `includeResults`.
+   *
+   * @since 8.1.0
+   * @default false
+   */
+  changesOnly?: boolean;
+
+  /**
+   * Minimum signal change in dB for a network to be reported as changed when `changesOnly` is set
+   *
+   * @since 8.1.0
+   * @default 5
+   */
+  rssiThreshold?: number;
+
+  /**
+   * Attributes to include for each network. Attributes that are not listed are not read or serialized.
+   *
+   * @since 8.1.0
+   * @default ['ssid', 'rssi', 'securityTypes']
+   */
+  fields?: NetworkField[];
+
+  /**
+   * Serialization of the networks when `includeResults` is set. `columnar` returns them packed in the `columns` string,
+   * to be decoded with `decodeNetworkColumns()`, which is much smaller and faster to parse
+   * for large lists. The columnar encoding always contains the SSID, BSSID, RSSI,
+   * frequency and security type, regardless of `fields`.
+   *
+   * @since 8.1.0
+   * @default 'json'
+   */
+  encoding?: 'json' | 'columnar';
+}
+
+/**
+ * Payload of the 'networksScanned' event
+ *
+ * @since 8.1.0
+ */
+export interface NetworksScannedEvent {
+  /**
+   * Whether the scan produced fresh results. When false, the results are the ones of a previous scan.
+   *
+   * @since 8.1.0
+   */
+  success: boolean;
+
+  /**
+   * Time the results were received, in milliseconds since epoch
+   *
+   * @since 8.1.0
+   */
+  timestamp: number;
+
+  /**
+   * List of networks found by the scan (only set when enabled with configureScanEvents())
+   *
+   * @since 8.1.0
+   */
+  networks?: Network[];
+
+  /**
+   * Networks packed with the columnar encoding (only set when enabled with configureScanEvents())
+   *
+   * @since 8.1.0
+   */
+  columns?: string;
+
+  /**
+   * Number of networks in `columns`
+   *
+   * @since 8.1.0
+   */
+  count?: number;
+
+  /**
+   * Changes since the previous event (only set when `changesOnly` is enabled with configureScanEvents()).
+   * Events have their own sequence, apart from getNetworkChanges(). If `baseSequence` doesn't match
+   * the `sequence` of the previous event, one was missed: rebuild the list with getNetworkChanges().
+   *
+   * @since 8.1.0
+   */
+  changes?: NetworkChanges;
+}
+
+/**
+ * Options for getNetworkChanges()
+ *
+ * @since 8.1.0
+ */
+export interface GetNetworkChangesOptions {
+  /**
+   * Sequence of the last applied changes. Omit to get the full list.
+   *
+   * @since 8.1.0
+   */
+  sequence?: number;
+
+  /**
+   * Minimum signal change in dB for a network to be reported as changed
+   *
+   * @since 8.1.0
+   * @default 5
+   */
+  rssiThreshold?: number;
+
+  /**
+   * Attributes to include for each network (`bssid` is always included). Attributes that are not listed are not read or serialized.
+   *
+   * @since 8.1.0
+   * @default ['ssid', 'rssi', 'securityTypes']
+   */
+  fields?: NetworkField[];
+}
+
+/**
+ * Changes in the list of available networks, keyed by BSSID
+ *
+ * @since 8.1.0
+ */
+export interface NetworkChanges {
+  /**
+   * Sequence these changes apply on top of
+   *
+   * @since 8.1.0
+   */
+  baseSequence: number;
+
+  /**
+   * Sequence reached once these changes are applied
+   *
+   * @since 8.1.0
+   */
+  sequence: number;
+
+  /**
+   * Whether this is a full resync, in which case `added` holds every network and previous state must be dropped
+   *
+   * @since 8.1.0
+   */
+  full: boolean;
+
+  /**
+   * Networks that appeared
+   *
+   * @since 8.1.0
+   */
+  added: Network[];
+
+  /**
+   * Networks whose signal changed by at least the RSSI threshold
+   *
+   * @since 8.1.0
+   */
+  changed: Network[];
+
+  /**
+   * BSSIDs of networks that disappeared
+   *
+   * @since 8.1.0
+   */
+  removed: string[];
+}
+
+/**
+ * Result from getScanStats()
+ *
+ * @since 8.1.0
+ */
+export interface ScanStats {
+  /**
+   * Number of startScan() calls handled
+   *
+   * @since 8.1.0
+   */
+  requested: number;
+
+  /**
+   * Number of scans actually started on the device
+   *
+   * @since 8.1.0
+   */
+  started: number;
+
+  /**
+   * Number of calls that joined a scan already in flight
+   *
+   * @since 8.1.0
+   */
+  coalesced: number;
+
+  /**
+   * Number of scans refused by the system (usually because of scan throttling)
+   *
+   * @since 8.1.0
+   */
+  throttled: number;
+
+  /**
+   * Number of scans that failed to start, timed out or completed without fresh results
+   *
+   * @since 8.1.0
+   */
+  failed: number;
+
+  /**
+   * Number of scans that completed with fresh results
+   *
+   * @since 8.1.0
+   */
+  completed: number;
+
+  /**
+   * Whether a scan is currently running
+   *
+   * @since 8.1.0
+   */
+  inFlight: boolean;
+
+  /**
+   * Number of scans that can be started right now without being throttled
+   *
+   * @since 8.1.0
+   */
+  availableScans: number;
+
+  /**
+   * Estimated time in milliseconds until a new scan can be started without being throttled
+   *
+   * @since 8.1.0
+   */
+  nextScanInMs: number;
+}
+
+/**
+ * Result from getExecutorStats()
+ *
+ * @since 8.1.0
+ */
+export interface ExecutorStats {
+  /**
+   * Number of worker threads
+   *
+   * @since 8.1.0
+   */
+  poolSize: number;
+
+  /**
+   * Number of workers currently running a call
+   *
+   * @since 8.1.0
+   */
+  active: number;
+
+  /**
+   * Number of calls waiting for a worker
+   *
+   * @since 8.1.0
+   */
+  queueDepth: number;
+
+  /**
+   * Statistics of each method that ran on the executor
+   *
+   * @since 8.1.0
+   */
+  methods: MethodExecutorStats[];
+}
+
+/**
+ * Executor statistics of one plugin method
+ *
+ * @since 8.1.0
+ */
+export interface MethodExecutorStats {
+  /**
+   * The plugin method name
+   *
+   * @since 8.1.0
+   */
+  method: string;
+
+  /**
+   * Maximum number of calls of this method running at once
+   *
+   * @since 8.1.0
+   */
+  limit: number;
+
+  /**
+   * Calls currently running
+   *
+   * @since 8.1.0
+   */
+  running: number;
+
+  /**
+   * Calls waiting for their turn
+   *
+   * @since 8.1.0
+   */
+  queued: number;
+
+  /**
+   * Calls completed since the plugin was loaded
+   *
+   * @since 8.1.0
+   */
+  completed: number;
+
+  /**
+   * Calls rejected because too many were pending
+   *
+   * @since 8.1.0
+   */
+  rejected: number;
+
+  /**
+   * Average time between the call and the start of its execution, in milliseconds
+   *
+   * @since 8.1.0
+   */
+  averageWaitMs: number;
+
+  /**
+   * Longest time a call waited before running, in milliseconds
+   *
+   * @since 8.1.0
+   */
+  maxWaitMs: number;
+}
+
+/**
+ * Options for getMetrics()
+ *
+ * @since 8.1.0
+ */
+export interface GetMetricsOptions {
+  /**
+   * Reset the counters and histograms after reading them, starting a new period
+   *
+   * @since 8.1.0
+   * @default false
+   */
+  reset?: boolean;
+}
+
+/**
+ * Result from getMetrics()
+ *
+ * @since 8.1.0
+ */
+export interface PluginMetrics {
+  /**
+   * Milliseconds covered by the metrics, since the plugin was loaded or the last reset
+   *
+   * @since 8.1.0
+   */
+  periodMs: number;
+
+  /**
+   * Calls that were counted but not timed because too many calls were pending at once
+   *
+   * @since 8.1.0
+   */
+  untimed: number;
+
+  /**
+   * Metrics of each method called during the period
+   *
+   * @since 8.1.0
+   */
+  methods: MethodMetrics[];
+}
+
+/**
+ * Metrics of one plugin method
+ *
+ * @since 8.1.0
+ */
+export interface MethodMetrics {
+  /**
+   * The plugin method name
+   *
+   * @since 8.1.0
+   */
+  method: string;
+
+  /**
+   * Number of calls
+   *
+   * @since 8.1.0
+   */
+  calls: number;
+
+  /**
+   * Number of results the calls resolved with. Streaming methods resolve more than once per call.
+   *
+   * @since 8.1.0
+   */
+  resolved: number;
+
+  /**
+   * Number of calls rejected
+   *
+   * @since 8.1.0
+   */
+  rejected: number;
+
+  /**
+   * Time from each call to its first result
+   *
+   * @since 8.1.0
+   */
+  latency: LatencySummary;
+
+  /**
+   * Time calls spent waiting for the user to answer a permission prompt
+   *
+   * @since 8.1.0
+   */
+  permissionWait: LatencySummary;
+}
+
+/**
+ * Options for configureDiagnostics()
+ *
+ * @since 8.1.0
+ */
+export interface DiagnosticsOptions {
+  /**
+   * Lowest level of the events kept, `off` keeps none
+   *
+   * @since 8.1.0
+   * @default 'warn'
+   */
+  level?: 'debug' | 'info' | 'warn' | 'error' | 'off';
+}
+
+/**
+ * Options for configureTracing()
+ *
+ * @since 8.1.0
+ */
+export interface TracingOptions {
+  /**
+   * Write trace sections
+   *
+   * @since 8.1.0
+   * @default false
+   */
+  enabled?: boolean;
+}
+
+/**
+ * Options for getDiagnostics()
+ *
+ * @since 8.1.0
+ */
+export interface GetDiagnosticsOptions {
+  /**
+   * Clear the events after reading them
+   *
+   * @since 8.1.0
+   * @default false
+   */
+  clear?: boolean;
+}
+
+/**
+ * Result from getDiagnostics()
+ *
+ * @since 8.1.0
+ */
+export interface DiagnosticsResult {
+  /**
+   * Events kept in memory, oldest first
+   *
+   * @since 8.1.0
+   */
+  events: DiagnosticEvent[];
+
+  /**
+   * Older events overwritten since the last clear
+   *
+   * @since 8.1.0
+   */
+  dropped: number;
+}
+
+/**
+ * A diagnostic event of the plugin
+ *
+ * @since 8.1.0
+ */
+export interface DiagnosticEvent {
+  /**
+   * When the event happened, in milliseconds since epoch
+   *
+   * @since 8.1.0
+   */
+  time: number;
+
+  /**
+   * Level of the event
+   *
+   * @since 8.1.0
+   */
+  level: 'debug' | 'info' | 'warn' | 'error';
+
+  /**
+   * The plugin method that recorded the event
+   *
+   * @since 8.1.0
+   */
+  source: string;
+
+  /**
+   * What happened
+   *
+   * @since 8.1.0
+   */
+  message: string;
+
+  /**
+   * The error attached to the event, if any
+   *
+   * @since 8.1.0
+   */
+  error?: string;
+}
+
+/**
+ * Latency distribution, in milliseconds. Percentiles are read from log-scaled buckets and may be
+ * up to 12.5% above the exact value.
+ *
+ * @since 8.1.0
+ */
+export interface LatencySummary {
+  /**
+   * Number of samples
+   *
+   * @since 8.1.0
+   */
+  count: number;
+
+  /**
+   * Median
+   *
+   * @since 8.1.0
+   */
+  p50: number;
+
+  /**
+   * 90th percentile
+   *
+   * @since 8.1.0
+   */
+  p90: number;
+
+  /**
+   * 99th percentile
+   *
+   * @since 8.1.0
+   */
+  p99: number;
+
+  /**
+   * Largest sample
+   *
+   * @since 8.1.0
+   */
+  max: number;
+
+  /**
+   * Mean of the samples
+   *
+   * @since 8.1.0
+   */
+  mean: number;
+}
+
+/**
+ * Result from getIpAddress()
+ *
+ * @since 7.0.0
+ */
+export interface GetIpAddressResult {
+  /**
+   * The device's IP address
+   *
+   * @since 7.0.0
+   */
+  ipAddress: string;
+}
+
+/**
+ * Result from getIpAddresses()
+ *
+ * @since 7.0.0
+ */
+export interface GetIpAddressesResult {
+  /**
+   * Private IPv4 address (e.g., 192.168.1.100)
+   *
+   * @since 7.0.0
+   */
+  ipv4?: string;
+
+  /**
+   * Public IPv4 address
+   *
+   * @since 7.0.0
+   */
+  publicIpv4?: string;
+
+  /**
+   * Private IPv6 address
+   *
+   * @since 7.0.0
+   */
+  ipv6?: string;
+
+  /**
+   * Public IPv6 address
+   *
+   * @since 7.0.0
    */
   publicIpv6?: string;
 
@@ -448,6 +2328,13 @@ export interface GetIpAddressesResult {
    * @since 7.0.0
    */
   isVpn: boolean;
+
+  /**
+   * Whether the network just changed and some values may be missing until its state arrives (Android only)
+   *
+   * @since 8.1.0
+   */
+  stale?: boolean;
 }
 
 /**
@@ -462,6 +2349,171 @@ export interface GetRssiResult {
    * @since 7.0.0
    */
   rssi: number;
+
+  /**
+   * Whether the network just changed and some values may be missing until its state arrives (Android only)
+   *
+   * @since 8.1.0
+   */
+  stale?: boolean;
+}
+
+/**
+ * Options for startRssiUpdates()
+ *
+ * @since 8.1.0
+ */
+export interface RssiUpdatesOptions {
+  /**
+   * Minimum time between two events in milliseconds. A change arriving earlier is delivered once the interval has elapsed.
+   *
+   * @since 8.1.0
+   * @default 1000
+   */
+  minInterval?: number;
+
+  /**
+   * Minimum change in dBm from the last emitted value before a new event is emitted
+   *
+   * @since 8.1.0
+   * @default 2
+   */
+  hysteresis?: number;
+}
+
+/**
+ * Options for getRssiStatistics()
+ *
+ * @since 8.1.0
+ */
+export interface RssiStatisticsOptions {
+  /**
+   * The access point to report on
+   *
+   * @since 8.1.0
+   * @default the current access point
+   */
+  bssid?: string;
+
+  /**
+   * Only use samples from the last `window` milliseconds
+   *
+   * @since 8.1.0
+   * @default 60000
+   */
+  window?: number;
+}
+
+/**
+ * Result from getRssiStatistics(). Values are in dBm and only set when `count` is greater than 0.
+ *
+ * @since 8.1.0
+ */
+export interface RssiStatistics {
+  /**
+   * The access point the statistics are for (null if not connected)
+   *
+   * @since 8.1.0
+   */
+  bssid: string | null;
+
+  /**
+   * The time window in milliseconds
+   *
+   * @since 8.1.0
+   */
+  window: number;
+
+  /**
+   * Number of samples in the window
+   *
+   * @since 8.1.0
+   */
+  count: number;
+
+  /**
+   * Weakest signal
+   *
+   * @since 8.1.0
+   */
+  min?: number;
+
+  /**
+   * Strongest signal
+   *
+   * @since 8.1.0
+   */
+  max?: number;
+
+  /**
+   * Mean signal strength
+   *
+   * @since 8.1.0
+   */
+  mean?: number;
+
+  /**
+   * Standard deviation in dB
+   *
+   * @since 8.1.0
+   */
+  stddev?: number;
+
+  /**
+   * Median signal strength
+   *
+   * @since 8.1.0
+   */
+  p50?: number;
+
+  /**
+   * 95th percentile: 95% of the samples are at or below this value
+   *
+   * @since 8.1.0
+   */
+  p95?: number;
+}
+
+/**
+ * Payload of the 'rssiChanged' event
+ *
+ * @since 8.1.0
+ */
+export interface RssiChangedEvent {
+  /**
+   * The signal strength in dBm
+   *
+   * @since 8.1.0
+   */
+  rssi: number;
+
+  /**
+   * The previously emitted signal strength in dBm (not set on the first event)
+   *
+   * @since 8.1.0
+   */
+  previousRssi?: number;
+
+  /**
+   * `rssi - previousRssi` (not set on the first event)
+   *
+   * @since 8.1.0
+   */
+  delta?: number;
+
+  /**
+   * The BSSID of the current access point (null if unknown)
+   *
+   * @since 8.1.0
+   */
+  bssid: string | null;
+
+  /**
+   * When the event was emitted, in milliseconds since the epoch
+   *
+   * @since 8.1.0
+   */
+  timestamp: number;
 }
 
 /**
@@ -483,6 +2535,13 @@ export interface GetSsidResult {
    * @since 7.0.0
    */
   isVpn: boolean;
+
+  /**
+   * Whether the network just changed and some values may be missing until its state arrives (Android only)
+   *
+   * @since 8.1.0
+   */
+  stale?: boolean;
 }
 
 /**
@@ -504,6 +2563,90 @@ export interface GetBssidResult {
    * @since 7.0.0
    */
   isVpn: boolean;
+
+  /**
+   * Whether the network just changed and some values may be missing until its state arrives (Android only)
+   *
+   * @since 8.1.0
+   */
+  stale?: boolean;
+}
+
+/**
+ * Result from getConnectionSnapshot()
+ *
+ * @since 8.1.0
+ */
+export interface ConnectionSnapshot extends GetIpAddressesResult {
+  /**
+   * Whether there is an active network
+   *
+   * @since 8.1.0
+   */
+  connected: boolean;
+
+  /**
+   * Whether the active network uses Wi-Fi
+   *
+   * @since 8.1.0
+   */
+  isWifi: boolean;
+
+  /**
+   * Whether the system validated Internet access on the active network
+   *
+   * @since 8.1.0
+   */
+  isValidated: boolean;
+
+  /**
+   * The SSID of the current network (null if not connected or unknown)
+   *
+   * @since 8.1.0
+   */
+  ssid: string | null;
+
+  /**
+   * The BSSID (MAC address) of the current access point (null if not connected)
+   *
+   * @since 8.1.0
+   */
+  bssid: string | null;
+
+  /**
+   * The signal strength in dBm (only set when connected to an access point)
+   *
+   * @since 8.1.0
+   */
+  rssi?: number;
+
+  /**
+   * The link speed in Mbps (only set when connected to an access point)
+   *
+   * @since 8.1.0
+   */
+  linkSpeed?: number;
+
+  /**
+   * The frequency of the current channel in MHz (only set when connected to an access point)
+   *
+   * @since 8.1.0
+   */
+  frequency?: number;
+
+  /**
+   * When the snapshot was taken, in milliseconds since the epoch
+   *
+   * @since 8.1.0
+   */
+  timestamp: number;
+
+  /**
+   * Whether the network just changed and the plugin has not received its full state yet
+   *
+   * @since 8.1.0
+   */
+  stale: boolean;
 }
 
 /**
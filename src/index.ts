@@ -6,5 +6,6 @@ const CapacitorWifi = registerPlugin<CapacitorWifiPlugin>('CapacitorWifi', {
   web: () => import('./web').then((m) => new m.CapacitorWifiWeb()),
 });
 
+export * from './columns';
 export * from './definitions';
 export { CapacitorWifi };
@@ -1,19 +1,50 @@
+import type { CallbackID } from '@capacitor/core';
 import { WebPlugin } from '@capacitor/core';
 
 import type {
   AddNetworkOptions,
+  AddNetworksOptions,
+  AddNetworksResult,
+  CancelConnectOptions,
+  CancelConnectResult,
   CapacitorWifiPlugin,
+  ConnectionSnapshot,
   ConnectOptions,
+  ConnectResult,
+  DiagnosticsOptions,
+  DiagnosticsResult,
   DisconnectOptions,
+  ExecutorStats,
+  GetAvailableNetworksOptions,
   GetAvailableNetworksResult,
   GetBssidResult,
+  GetDiagnosticsOptions,
   GetIpAddressesResult,
   GetIpAddressResult,
+  GetMetricsOptions,
+  GetNetworkChangesOptions,
+  GetNetworkRequestsResult,
   GetRssiResult,
   GetSsidResult,
+  HttpRequestOptions,
+  HttpRequestResult,
   IsEnabledResult,
+  NetworkChanges,
+  NetworksChunkCallback,
   PermissionStatus,
+  PluginMetrics,
   RequestPermissionsOptions,
+  RssiStatistics,
+  RssiStatisticsOptions,
+  RssiUpdatesOptions,
+  ScanEventOptions,
+  ScanStats,
+  StartScanOptions,
+  StartScanResult,
+  StreamAvailableNetworksOptions,
+  TcpExchangeOptions,
+  TcpExchangeResult,
+  TracingOptions,
 } from './definitions';
 
 export class CapacitorWifiWeb extends WebPlugin implements CapacitorWifiPlugin {
@@ -21,7 +52,11 @@ export class CapacitorWifiWeb extends WebPlugin implements CapacitorWifiPlugin {
     throw this.unimplemented('Not implemented on web.');
   }
 
-  async connect(_options: ConnectOptions): Promise<void> {
+  async addNetworks(_options: AddNetworksOptions): Promise<AddNetworksResult> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async connect(_options: ConnectOptions): Promise<ConnectResult> {
     throw this.unimplemented('Not implemented on web.');
   }
 
@@ -29,7 +64,34 @@ export class CapacitorWifiWeb extends WebPlugin implements CapacitorWifiPlugin {
     throw this.unimplemented('Not implemented on web.');
   }
 
-  async getAvailableNetworks(): Promise<GetAvailableNetworksResult> {
+  async getNetworkRequests(): Promise<GetNetworkRequestsResult> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async cancelConnect(_options: CancelConnectOptions): Promise<CancelConnectResult> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async httpRequest(_options: HttpRequestOptions): Promise<HttpRequestResult> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async tcpExchange(_options: TcpExchangeOptions): Promise<TcpExchangeResult> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async getAvailableNetworks(_options?: GetAvailableNetworksOptions): Promise<GetAvailableNetworksResult> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async streamAvailableNetworks(
+    _options: StreamAvailableNetworksOptions,
+    _callback: NetworksChunkCallback,
+  ): Promise<CallbackID> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async getNetworkChanges(_options?: GetNetworkChangesOptions): Promise<NetworkChanges> {
     throw this.unimplemented('Not implemented on web.');
   }
 
@@ -53,11 +115,55 @@ export class CapacitorWifiWeb extends WebPlugin implements CapacitorWifiPlugin {
     throw this.unimplemented('Not implemented on web.');
   }
 
+  async getConnectionSnapshot(): Promise<ConnectionSnapshot> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async getRssiStatistics(_options?: RssiStatisticsOptions): Promise<RssiStatistics> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async startRssiUpdates(_options?: RssiUpdatesOptions): Promise<void> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async stopRssiUpdates(): Promise<void> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async getExecutorStats(): Promise<ExecutorStats> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async getMetrics(_options?: GetMetricsOptions): Promise<PluginMetrics> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async configureDiagnostics(_options: DiagnosticsOptions): Promise<void> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async getDiagnostics(_options?: GetDiagnosticsOptions): Promise<DiagnosticsResult> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async configureTracing(_options: TracingOptions): Promise<void> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
   async isEnabled(): Promise<IsEnabledResult> {
     throw this.unimplemented('Not implemented on web.');
   }
 
-  async startScan(): Promise<void> {
+  async startScan(_options?: StartScanOptions): Promise<StartScanResult> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async getScanStats(): Promise<ScanStats> {
+    throw this.unimplemented('Not implemented on web.');
+  }
+
+  async configureScanEvents(_options: ScanEventOptions): Promise<void> {
     throw this.unimplemented('Not implemented on web.');
   }
 
@@ -0,0 +1,32 @@
+import assert from 'node:assert/strict';
+import { readFileSync } from 'node:fs';
+import { test } from 'node:test';
+
+import { decodeNetworkColumns, formatBssid } from '../dist/esm/columns.js';
+
+// Written by ScanColumnsEncoder, ScanColumnsEncoderTest checks the encoder still produces it
+const fixture = readFileSync(
+  new URL('../android/src/test/resources/app/capgo/capacitorwifi/network-columns.txt', import.meta.url),
+  'ascii',
+).trim();
+
+test('decodes the columns written by the Android encoder', () => {
+  const columns = decodeNetworkColumns(fixture);
+
+  assert.equal(columns.count, 4);
+  assert.deepEqual(Array.from(columns.frequency), [5180, 2412, 60480, 5955]);
+  assert.deepEqual(Array.from(columns.rssi), [-45, -88, -128, 10]);
+  assert.deepEqual(Array.from(columns.securityType), [2, 0, 4, 8]);
+  assert.deepEqual(Array.from(columns.ssidIndex), [0, 1, 0, 2]);
+  assert.deepEqual(columns.ssids, ['Office', 'Café ☕', '']);
+  assert.deepEqual(
+    [0, 1, 2, 3].map((i) => formatBssid(columns, i)),
+    ['aa:bb:cc:dd:ee:ff', '00:11:22:33:44:55', 'aa:bb:cc:dd:ee:01', '00:00:00:00:00:00'],
+  );
+});
+
+test('rejects an unknown format version', () => {
+  const bytes = Buffer.from(fixture, 'base64');
+  bytes[2] = 2;
+  assert.throws(() => decodeNetworkColumns(bytes.toString('base64')), /Unsupported network columns format/);
+});